@@ -0,0 +1,84 @@
+package ai.haitale;
+
+import io.micronaut.configuration.picocli.PicocliRunner;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.env.Environment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from an empty application context to a finished subcommand, one fresh context per run.
+ * Runs offline against an empty data directory, so it measures wiring and startup, not the network;
+ * a regression here usually means a command started creating beans it does not use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(3)
+public class StartupBenchmark {
+
+    @Param({"list", "search", "recommend", "install"})
+    String command;
+
+    private Path home;
+    private String originalHome;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // list resolves the mods directory under user.home; keep it away from the real one
+        home = Files.createTempDirectory("haitale-startup");
+        originalHome = System.getProperty("user.home");
+        System.setProperty("user.home", home.toString());
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+        System.setProperty("user.home", originalHome);
+    }
+
+    @Benchmark
+    public void run() {
+        Map<String, Object> properties = Map.of(
+            "haitale.data-dir", home.resolve("data").toString(),
+            "mod.repository.offline", "true",
+            "openrouter.api.key", ""
+        );
+        try (ApplicationContext ctx = ApplicationContext.run(properties, Environment.CLI)) {
+            PicocliRunner.run(HaitaleCommand.class, ctx, args());
+        }
+    }
+
+    private String[] args() {
+        return switch (command) {
+            case "search" -> new String[] {"search", "magic"};
+            case "recommend" -> new String[] {"recommend", "medieval", "world", "with", "magic"};
+            case "install" -> new String[] {"install", "--yes", "no-such-mod"};
+            default -> new String[] {command};
+        };
+    }
+}
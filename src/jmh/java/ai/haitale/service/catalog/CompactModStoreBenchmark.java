@@ -0,0 +1,112 @@
+package ai.haitale.service.catalog;
+
+import ai.haitale.model.Mod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap footprint of a synthetic full catalog held as {@code List<Mod>} versus {@link CompactModStore}, measured
+ * with JOL and printed once per trial, plus the cost of encoding it and of decoding mods back out.
+ * Field values are fresh strings per mod, as JSON decoding produces them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompactModStoreBenchmark {
+    private static final String[] LICENSES = {"MIT", "Apache-2.0", "GPL-3.0-only", "LGPL-3.0-only", "ARR"};
+    private static final String[] SOURCES = {"modrinth", "curseforge", "github"};
+
+    @Param({"100000"})
+    int mods;
+
+    private List<Mod> catalog;
+    private CompactModStore store;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        // Zipf-like vocabulary for descriptions
+        String[] vocabulary = new String[50_000];
+        for (int v = 0; v < vocabulary.length; v++) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(9);
+            for (int c = 0; c < length; c++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            vocabulary[v] = word.toString();
+        }
+
+        catalog = new ArrayList<>(mods);
+        for (int i = 0; i < mods; i++) {
+            StringBuilder description = new StringBuilder();
+            int words = 8 + random.nextInt(20);
+            for (int w = 0; w < words; w++) {
+                int rank = (int) Math.min(vocabulary.length - 1, Math.pow(vocabulary.length, random.nextDouble()) - 1);
+                description.append(vocabulary[rank]).append(w % 9 == 8 ? ". " : " ");
+            }
+            byte[] hash = new byte[64];
+            random.nextBytes(hash);
+            StringBuilder checksum = new StringBuilder();
+            for (byte b : hash) {
+                checksum.append(String.format("%02x", b));
+            }
+            String id = Integer.toString(i * 7919, 36) + "AbCd";
+            Mod mod = new Mod(id, "Mod Name " + i, "1." + random.nextInt(20) + ".0", description.toString(),
+                "https://cdn.modrinth.com/data/" + id + "/versions/" + Integer.toString(i * 31, 36) + "/mod-" + i + ".jar",
+                checksum.toString(), new String("SHA-512"), new String(LICENSES[random.nextInt(LICENSES.length)]),
+                "author" + random.nextInt(2000), new String(SOURCES[random.nextInt(SOURCES.length)]),
+                random.nextInt(1 << 22));
+            mod.setSlug("mod-name-" + i);
+            catalog.add(mod);
+        }
+        store = CompactModStore.of(catalog);
+    }
+
+    @TearDown(Level.Trial)
+    public void reportFootprint() {
+        long objects = GraphLayout.parseInstance(catalog).totalSize();
+        long compact = GraphLayout.parseInstance(store).totalSize();
+        System.out.printf("%nList<Mod>: %,d bytes, CompactModStore: %,d bytes (%.1fx smaller)%n",
+            objects, compact, (double) objects / compact);
+    }
+
+    @Benchmark
+    public CompactModStore encode() {
+        return CompactModStore.of(catalog);
+    }
+
+    @Benchmark
+    public Mod decodeOne() {
+        next = (next + 7919) % mods;
+        return store.mod(next);
+    }
+
+    @Benchmark
+    public Mod findById() {
+        next = (next + 7919) % mods;
+        return store.findById(Integer.toString(next * 7919, 36) + "AbCd");
+    }
+
+    @Benchmark
+    public void decodeAll(Blackhole blackhole) {
+        for (Mod mod : store.mods()) {
+            blackhole.consume(mod);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ai.haitale.service.index;
+
+import ai.haitale.model.Mod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keyword search over a synthetic catalog: the previous lower-case-and-contains scan against the
+ * inverted index. Queries cover a rare word, a common word, a prefix, a two-word AND and two misspellings,
+ * which go through the trigram fallback.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModSearchIndexBenchmark {
+    private static final String[] WORDS = {
+        "magic", "dragon", "castle", "tech", "machine", "automation", "quest", "dungeon", "building", "tools",
+        "medieval", "knight", "fantasy", "creature", "spell", "enchant", "farm", "crop", "ore", "biome",
+        "structure", "village", "trade", "storage", "furniture", "decor", "ship", "sky", "nether", "cave"
+    };
+
+    @Param({"100000"})
+    int mods;
+
+    @Param({"zyxglyph", "magic", "autom", "dragon castle", "magik", "medival knigt"})
+    String query;
+
+    private List<Mod> catalog;
+    private ModSearchIndex index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        catalog = new ArrayList<>(mods);
+        for (int i = 0; i < mods; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 20; w++) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            if (i % 10_000 == 0) description.append("zyxglyph");
+            catalog.add(new Mod("mod-" + i, name, "1.0.0", description.toString(), "", "", "SHA-256",
+                "MIT", "author" + (i % 500), "modrinth", 1024));
+        }
+        index = ModSearchIndex.build(catalog);
+        // Build the trigram index outside the measurement
+        index.search("warmup", 1);
+    }
+
+    @Benchmark
+    public List<Mod> linearScan() {
+        String lowerKeyword = query.toLowerCase();
+        return catalog.stream()
+            .filter(mod -> mod.getName().toLowerCase().contains(lowerKeyword) ||
+                          mod.getDescription().toLowerCase().contains(lowerKeyword))
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Mod> invertedIndex() {
+        return index.search(query);
+    }
+
+    @Benchmark
+    public List<Mod> invertedIndexTop50() {
+        return index.search(query, 50);
+    }
+}
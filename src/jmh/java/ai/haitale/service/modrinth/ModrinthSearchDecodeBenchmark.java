@@ -0,0 +1,81 @@
+package ai.haitale.service.modrinth;
+
+import ai.haitale.service.modrinth.dto.ModrinthProject;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous three-pass search decoding (String -> Map -> re-serialized bytes per hit -> DTO)
+ * with the streaming decoder on realistic 100-hit search pages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModrinthSearchDecodeBenchmark {
+    private static final ObjectMapper JACKSON = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Param({"100"})
+    int hits;
+
+    private byte[] page;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder("{\"hits\":[");
+        for (int i = 0; i < hits; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"project_id\":\"p").append(i).append("\",")
+                .append("\"id\":\"p").append(i).append("\",")
+                .append("\"slug\":\"project-").append(i).append("\",")
+                .append("\"title\":\"Project ").append(i).append("\",")
+                .append("\"description\":\"").append("A fairly long description of a mod with dragons and magic. ".repeat(4)).append("\",")
+                .append("\"categories\":[\"adventure\",\"magic\",\"worldgen\"],")
+                .append("\"display_categories\":[\"adventure\",\"magic\"],")
+                .append("\"versions\":[\"1.20.1\",\"1.20.2\",\"1.20.4\",\"1.21\"],")
+                .append("\"downloads\":").append(1000 + i).append(',')
+                .append("\"follows\":").append(i).append(',')
+                .append("\"icon_url\":\"https://cdn.modrinth.com/data/p").append(i).append("/icon.png\",")
+                .append("\"date_created\":\"2024-01-01T00:00:00Z\",")
+                .append("\"date_modified\":\"2024-06-01T00:00:00Z\",")
+                .append("\"latest_version\":\"v").append(i).append("\",")
+                .append("\"license\":\"mit\",")
+                .append("\"gallery\":[\"https://cdn.modrinth.com/a.png\",\"https://cdn.modrinth.com/b.png\"]}");
+        }
+        sb.append("],\"offset\":0,\"limit\":").append(hits).append(",\"total_hits\":50000}");
+        page = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<ModrinthProject> legacyThreePass() throws IOException {
+        String body = new String(page, StandardCharsets.UTF_8);
+        Map<String, Object> map = JACKSON.readValue(body.getBytes(StandardCharsets.UTF_8), Map.class);
+        List<ModrinthProject> projects = new ArrayList<>();
+        for (Object hit : (List<Object>) map.get("hits")) {
+            projects.add(JACKSON.readValue(JACKSON.writeValueAsBytes(hit), ModrinthProject.class));
+        }
+        return projects;
+    }
+
+    @Benchmark
+    public List<ModrinthProject> streaming() throws IOException {
+        return ModrinthSearchDecoder.decodeHits(new ByteArrayInputStream(page), hits);
+    }
+}
@@ -0,0 +1,131 @@
+package ai.haitale.service.recommend;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.catalog.ModCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The recommendation pre-filter over a synthetic catalog: the previous filter-and-sort stream, which scored
+ * each mod in the filter and again in every comparison, re-lower-casing and re-splitting each time, against
+ * the scorer, which scores each mod once by catalog slot from the normalized text and rule bits stored with
+ * the catalog, and a bounded top-50 heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RelevanceScorerBenchmark {
+    private static final String[] WORDS = {
+        "magic", "dragon", "castle", "tech", "machine", "automation", "quest", "dungeon", "building", "tools",
+        "medieval", "knight", "fantasy", "creature", "spell", "enchant", "farm", "crop", "ore", "biome",
+        "structure", "village", "trade", "storage", "furniture", "decor", "ship", "sky", "nether", "cave"
+    };
+    private static final int MAX_MODS_TO_AI = 50;
+    private static final double THRESHOLD = 0.15;
+
+    @Param({"10000", "100000"})
+    int mods;
+
+    @Param({"a medieval world with castles and dragons", "tech automation and machines in space"})
+    String description;
+
+    private List<Mod> catalog;
+    private RelevanceScorer scorer;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<Mod> generated = new ArrayList<>(mods);
+        for (int i = 0; i < mods; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < 20; w++) {
+                text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            generated.add(new Mod("mod-" + i, name, "1.0.0", text.toString(), "", "", "SHA-256",
+                "MIT", "author" + (i % 500), "modrinth", 1024));
+        }
+        // Text and rule bits are normalized when the catalog is built, outside the measurement
+        ModCatalog snapshot = ModCatalog.of(generated);
+        catalog = snapshot.select(mod -> true, List.of());
+        scorer = snapshot.relevanceScorer();
+    }
+
+    @Benchmark
+    public List<Mod> filterAndSort() {
+        return catalog.stream()
+            .filter(mod -> legacyScore(mod, description) > THRESHOLD)
+            .sorted((m1, m2) -> Double.compare(legacyScore(m2, description), legacyScore(m1, description)))
+            .limit(MAX_MODS_TO_AI)
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<RelevanceScorer.Scored> scoreOnceTopK() {
+        return scorer.top(catalog, RelevanceScorer.query(description), THRESHOLD, MAX_MODS_TO_AI);
+    }
+
+    // The scoring the pre-filter used before, kept verbatim for comparison
+    private static double legacyScore(Mod mod, String worldDescription) {
+        double score = 0.0;
+        String description = worldDescription.toLowerCase();
+        String modName = mod.getName().toLowerCase();
+        String modDesc = mod.getDescription().toLowerCase();
+
+        String[] keywords = description.split("\\s+");
+        for (String keyword : keywords) {
+            if (keyword.length() < 3) continue;
+            if (modName.contains(keyword)) {
+                score += 0.2;
+            }
+            if (modDesc.contains(keyword)) {
+                score += 0.1;
+            }
+        }
+
+        if ((description.contains("build") || description.contains("construct") || description.contains("creat")) &&
+            (modName.contains("build") || modDesc.contains("build") || modDesc.contains("construction"))) {
+            score += 0.3;
+        }
+        if ((description.contains("adventure") || description.contains("quest") || description.contains("explore")) &&
+            (modName.contains("adventure") || modName.contains("quest") ||
+             modDesc.contains("adventure") || modDesc.contains("quest") || modDesc.contains("dungeon"))) {
+            score += 0.3;
+        }
+        if ((description.contains("tech") || description.contains("machine") || description.contains("automat")) &&
+            (modName.contains("tech") || modName.contains("machine") ||
+             modDesc.contains("tech") || modDesc.contains("machine") || modDesc.contains("automation"))) {
+            score += 0.3;
+        }
+        if ((description.contains("magic") || description.contains("spell") || description.contains("wizard")) &&
+            (modName.contains("magic") || modName.contains("spell") || modName.contains("mystic") ||
+             modDesc.contains("magic") || modDesc.contains("spell") || modDesc.contains("enchant"))) {
+            score += 0.3;
+        }
+        if ((description.contains("medieval") || description.contains("castle") || description.contains("knight")) &&
+            (modName.contains("medieval") || modDesc.contains("medieval") || modDesc.contains("castle"))) {
+            score += 0.2;
+        }
+        if ((description.contains("fantasy") || description.contains("dragon") || description.contains("mythical")) &&
+            (modName.contains("fantasy") || modDesc.contains("fantasy") || modDesc.contains("dragon"))) {
+            score += 0.2;
+        }
+        if ((description.contains("sci-fi") || description.contains("futuristic") || description.contains("space")) &&
+            (modName.contains("tech") || modDesc.contains("futuristic") || modDesc.contains("space"))) {
+            score += 0.2;
+        }
+        return Math.min(score, 1.0);
+    }
+}
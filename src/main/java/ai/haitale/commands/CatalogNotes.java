@@ -0,0 +1,54 @@
+package ai.haitale.commands;
+
+import ai.haitale.service.ModRepositoryService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Notes about the state of the mod catalog, shared by the commands that read it.
+ */
+final class CatalogNotes {
+
+    private CatalogNotes() {
+    }
+
+    /**
+     * Point at --refresh when the answer came from a catalog older than the refresh TTL or missing data from a
+     * source. The background refresh is abandoned if it does not finish shortly after the command, so without it
+     * a catalog can stay stale.
+     */
+    static void printIfStale(ModRepositoryService repository) {
+        if (!repository.isCatalogStale()) return;
+        List<String> partialSources = repository.getPartialSources();
+        if (!partialSources.isEmpty()) {
+            System.out.println("Note: the last catalog refresh was incomplete for " + String.join(", ", partialSources)
+                + ". Run with --refresh to complete it.");
+            System.out.println();
+            return;
+        }
+        Instant refreshedAt = repository.getCatalogRefreshedAt();
+        String state = Instant.EPOCH.equals(refreshedAt)
+            ? "has not been downloaded from the mod repositories yet"
+            : "was last refreshed " + describe(Duration.between(refreshedAt, Instant.now())) + " ago";
+        System.out.println("Note: the mod catalog " + state + ". Run with --refresh to wait for an up-to-date one.");
+        System.out.println();
+    }
+
+    /**
+     * After --refresh: name the sources that still failed or missed their deadline.
+     */
+    static void printIfIncomplete(ModRepositoryService repository) {
+        List<String> partialSources = repository.getPartialSources();
+        if (partialSources.isEmpty()) return;
+        System.out.println("Note: the catalog refresh was incomplete for " + String.join(", ", partialSources));
+        System.out.println();
+    }
+
+    private static String describe(Duration age) {
+        if (age.toDays() > 0) return age.toDays() + (age.toDays() == 1 ? " day" : " days");
+        if (age.toHours() > 0) return age.toHours() + (age.toHours() == 1 ? " hour" : " hours");
+        return Math.max(1, age.toMinutes()) + (age.toMinutes() == 1 ? " minute" : " minutes");
+    }
+}
@@ -4,6 +4,7 @@ import ai.haitale.model.Mod;
 import ai.haitale.service.ModInstallationService;
 import ai.haitale.service.ModRepositoryService;
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
@@ -18,10 +19,10 @@ import java.util.List;
 public class InstallCommand implements Runnable {
 
     @Inject
-    private ModRepositoryService repositoryService;
+    private Provider<ModRepositoryService> repositoryService;
 
     @Inject
-    private ModInstallationService installationService;
+    private Provider<ModInstallationService> installationService;
 
     @Parameters(index = "0..*",
                 description = "Mod IDs to install (space-separated)")
@@ -31,6 +32,10 @@ public class InstallCommand implements Runnable {
             description = "Skip confirmation prompts")
     private boolean skipConfirmation;
 
+    @Option(names = {"--refresh"},
+            description = "Wait for a fresh mod catalog from the remote repositories first")
+    private boolean refresh;
+
     @Override
     public void run() {
         if (modIds == null || modIds.isEmpty()) {
@@ -43,14 +48,21 @@ public class InstallCommand implements Runnable {
         System.out.println("Preparing to install " + modIds.size() + " mod(s)...");
         System.out.println();
 
+        ModRepositoryService repository = repositoryService.get();
+        if (refresh) {
+            System.out.println("Refreshing mod catalog...");
+            repository.refreshModCache();
+        }
+
         List<Mod> modsToInstall = new ArrayList<>();
 
         // Validate all mod IDs first
         for (String modId : modIds) {
-            Mod mod = repositoryService.getModById(modId);
+            Mod mod = repository.getModById(modId);
             if (mod == null) {
                 System.err.println("Error: Mod not found: " + modId);
                 System.err.println("Use 'haitale search' to find available mods");
+                if (!refresh) CatalogNotes.printIfStale(repository);
                 return;
             }
 
@@ -88,7 +100,7 @@ public class InstallCommand implements Runnable {
             try {
                 System.out.println();
                 System.out.println("Installing " + mod.getName() + "...");
-                installationService.installMod(mod);
+                installationService.get().installMod(mod);
                 System.out.println("✓ Successfully installed " + mod.getName());
                 successCount++;
             } catch (IOException e) {
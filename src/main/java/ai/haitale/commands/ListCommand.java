@@ -3,6 +3,7 @@ package ai.haitale.commands;
 import ai.haitale.model.InstallationManifest.InstalledMod;
 import ai.haitale.service.ModInstallationService;
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import picocli.CommandLine.Command;
 
 import java.io.IOException;
@@ -16,7 +17,7 @@ import java.util.List;
 public class ListCommand implements Runnable {
 
     @Inject
-    private ModInstallationService installationService;
+    private Provider<ModInstallationService> installationService;
 
     private static final DateTimeFormatter DATE_FORMATTER =
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
@@ -24,7 +25,7 @@ public class ListCommand implements Runnable {
     @Override
     public void run() {
         try {
-            List<InstalledMod> installedMods = installationService.listInstalledMods();
+            List<InstalledMod> installedMods = installationService.get().listInstalledMods();
 
             if (installedMods.isEmpty()) {
                 System.out.println("No mods are currently installed.");
@@ -2,8 +2,11 @@ package ai.haitale.commands;
 
 import ai.haitale.model.ModRecommendation;
 import ai.haitale.service.AIRecommendationService;
+import ai.haitale.service.ModRepositoryService;
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
 import java.util.List;
@@ -14,12 +17,19 @@ import java.util.List;
 public class RecommendCommand implements Runnable {
 
     @Inject
-    private AIRecommendationService aiService;
+    private Provider<AIRecommendationService> aiService;
+
+    @Inject
+    private Provider<ModRepositoryService> repositoryService;
 
     @Parameters(index = "0..*",
                 description = "Describe the world you want to create (e.g., 'medieval fantasy with magic and dragons')")
     private String[] descriptionWords;
 
+    @Option(names = {"--refresh"},
+            description = "Wait for a fresh mod catalog from the remote repositories first")
+    private boolean refresh;
+
     @Override
     public void run() {
         if (descriptionWords == null || descriptionWords.length == 0) {
@@ -30,11 +40,17 @@ public class RecommendCommand implements Runnable {
 
         String worldDescription = String.join(" ", descriptionWords);
 
+        if (refresh) {
+            System.out.println("Refreshing mod catalog...");
+            repositoryService.get().refreshModCache();
+        }
+
         System.out.println("Analyzing your world description...");
         System.out.println("Description: " + worldDescription);
         System.out.println();
 
-        List<ModRecommendation> recommendations = aiService.getAIRecommendations(worldDescription);
+        List<ModRecommendation> recommendations = aiService.get().getAIRecommendations(worldDescription);
+        if (!refresh) CatalogNotes.printIfStale(repositoryService.get());
 
         if (recommendations.isEmpty()) {
             System.out.println("No mods found matching your description.");
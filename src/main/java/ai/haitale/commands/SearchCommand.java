@@ -3,7 +3,9 @@ package ai.haitale.commands;
 import ai.haitale.model.Mod;
 import ai.haitale.service.ModRepositoryService;
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
 import java.util.List;
@@ -14,12 +16,16 @@ import java.util.List;
 public class SearchCommand implements Runnable {
 
     @Inject
-    private ModRepositoryService repositoryService;
+    private Provider<ModRepositoryService> repositoryService;
 
     @Parameters(index = "0..*",
                 description = "Search keywords (e.g., 'building', 'magic', 'adventure')")
     private String[] keywords;
 
+    @Option(names = {"--refresh"},
+            description = "Wait for a fresh mod catalog from the remote repositories first")
+    private boolean refresh;
+
     @Override
     public void run() {
         if (keywords == null || keywords.length == 0) {
@@ -32,7 +38,19 @@ public class SearchCommand implements Runnable {
         System.out.println("Searching for mods matching: " + searchTerm);
         System.out.println();
 
-        List<Mod> results = repositoryService.searchMods(searchTerm);
+        ModRepositoryService repository = repositoryService.get();
+        if (refresh) {
+            System.out.println("Refreshing mod catalog...");
+            repository.refreshModCache();
+        }
+
+        List<Mod> results = repository.searchMods(searchTerm);
+
+        if (refresh) {
+            CatalogNotes.printIfIncomplete(repository);
+        } else {
+            CatalogNotes.printIfStale(repository);
+        }
 
         if (results.isEmpty()) {
             System.out.println("No mods found matching your search.");
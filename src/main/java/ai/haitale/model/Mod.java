@@ -2,6 +2,9 @@ package ai.haitale.model;
 
 import io.micronaut.serde.annotation.Serdeable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Serdeable
 public class Mod {
     private String id;
@@ -14,7 +17,10 @@ public class Mod {
     private String license;
     private String author;
     private String source; // modrinth, curseforge, github
+    private String slug; // human-readable id where the source has one (Modrinth)
     private long fileSize;
+    private List<String> categories = new ArrayList<>(); // source category slugs (Modrinth), e.g. "magic"
+    private long downloads; // total downloads where the source reports them
 
     public Mod() {
     }
@@ -116,6 +122,14 @@ public class Mod {
         this.source = source;
     }
 
+    public String getSlug() {
+        return slug;
+    }
+
+    public void setSlug(String slug) {
+        this.slug = slug;
+    }
+
     public long getFileSize() {
         return fileSize;
     }
@@ -124,6 +138,22 @@ public class Mod {
         this.fileSize = fileSize;
     }
 
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<String> categories) {
+        this.categories = categories != null ? categories : new ArrayList<>();
+    }
+
+    public long getDownloads() {
+        return downloads;
+    }
+
+    public void setDownloads(long downloads) {
+        this.downloads = downloads;
+    }
+
     public boolean isFreeLicense() {
         if (license == null) return false;
         String lowerLicense = license.toLowerCase();
@@ -3,6 +3,8 @@ package ai.haitale.service;
 import ai.haitale.model.Mod;
 import ai.haitale.model.ModRecommendation;
 import ai.haitale.model.WorldPreferences;
+import ai.haitale.service.recommend.RelevanceScorer;
+import ai.haitale.service.recommend.SemanticIndex;
 import io.micronaut.context.annotation.Value;
 import io.micronaut.serde.ObjectMapper;
 import jakarta.inject.Singleton;
@@ -11,8 +13,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -32,6 +35,15 @@ public class AIRecommendationService {
     @Value("${ai.recommendation.prefilter.threshold:0.15}")
     private double preFilterThreshold;
 
+    @Value("${ai.recommendation.semantic.enabled:true}")
+    private boolean semanticEnabled;
+
+    @Value("${ai.recommendation.semantic.threshold:0.1}")
+    private double semanticThreshold;
+
+    @Value("${ai.recommendation.semantic.probes:16}")
+    private int semanticProbes;
+
     @Value("${ai.recommendation.description.maxLength:100}")
     private int maxDescriptionLength;
 
@@ -114,7 +126,7 @@ public class AIRecommendationService {
     }
 
     /**
-     * Pre-filter mods using keyword matching to reduce the list sent to AI.
+     * Pre-filter mods using keyword matching, topped up by semantic similarity, to reduce the list sent to AI.
      * This significantly reduces API costs and response time.
      */
     private List<Mod> preFilterModsByKeywords(String worldDescription, List<Mod> allMods) {
@@ -123,17 +135,21 @@ public class AIRecommendationService {
             return allMods;
         }
 
-        WorldPreferences tempPrefs = new WorldPreferences(worldDescription);
+        // Fix typos first ("medival" -> "medieval") so keyword matching does not miss them
+        String corrected = modRepositoryService.correctSpelling(worldDescription);
+        RelevanceScorer.Query query = RelevanceScorer.query(corrected);
 
-        // Score all mods and keep those above the configured threshold
-        List<Mod> filteredMods = allMods.stream()
-            .filter(mod -> calculateRelevanceScore(mod, tempPrefs) > preFilterThreshold)
-            .sorted((m1, m2) -> Double.compare(
-                calculateRelevanceScore(m2, tempPrefs),
-                calculateRelevanceScore(m1, tempPrefs)))
-            .limit(maxModsToAI)  // Send at most N mods to AI for final ranking
+        // Score every mod once and keep the best N above the configured threshold for the AI's final ranking
+        List<Mod> filteredMods = modRepositoryService.relevanceScorer()
+            .top(allMods, query, preFilterThreshold, maxModsToAI).stream()
+            .map(RelevanceScorer.Scored::mod)
             .collect(Collectors.toList());
 
+        // Keywords miss synonyms ("wizardry" vs "magic"): fill the remaining slots with the mods closest in meaning
+        if (semanticEnabled && filteredMods.size() < maxModsToAI) {
+            filteredMods = addSemanticNeighbours(corrected, allMods, filteredMods);
+        }
+
         // If filtering was too aggressive, return top 20 mods by generic criteria
         if (filteredMods.size() < 5) {
             LOG.warn("Pre-filtering too aggressive, using top {} mods instead", Math.min(20, allMods.size()));
@@ -143,6 +159,32 @@ public class AIRecommendationService {
         return filteredMods;
     }
 
+    /**
+     * {@code keywordMatches} followed by the mods of {@code allMods} nearest to the description in the local
+     * vector index, up to maxModsToAI in total. Mods outside the catalog (live search results) are not indexed.
+     */
+    private List<Mod> addSemanticNeighbours(String worldDescription, List<Mod> allMods, List<Mod> keywordMatches) {
+        Map<String, Mod> candidates = new HashMap<>();
+        for (Mod mod : allMods) {
+            if (mod.getId() != null) candidates.putIfAbsent(mod.getId(), mod);
+        }
+        for (Mod mod : keywordMatches) {
+            candidates.remove(mod.getId());
+        }
+
+        long start = System.nanoTime();
+        List<SemanticIndex.Neighbour> neighbours = modRepositoryService.semanticIndex().nearest(worldDescription,
+            maxModsToAI - keywordMatches.size(), semanticThreshold, semanticProbes, candidates::containsKey);
+        LOG.debug("Semantic pre-filter found {} more mods in {} ms", neighbours.size(),
+            (System.nanoTime() - start) / 1_000_000);
+
+        List<Mod> result = new ArrayList<>(keywordMatches);
+        for (SemanticIndex.Neighbour neighbour : neighbours) {
+            result.add(candidates.get(neighbour.id()));
+        }
+        return result;
+    }
+
     /**
      * Truncate description to reduce token usage
      */
@@ -196,89 +238,21 @@ public class AIRecommendationService {
      * Rule-based fallback recommendations
      */
     private List<ModRecommendation> getRuleBasedRecommendations(List<Mod> allMods, WorldPreferences preferences) {
-        List<ModRecommendation> recommendations = new ArrayList<>();
+        RelevanceScorer.Query query = RelevanceScorer.query(preferences.getDescription());
+        // Sorted by relevance score (highest first)
+        List<RelevanceScorer.Scored> relevant = modRepositoryService.relevanceScorer()
+            .above(allMods, query, 0.3); // Threshold for relevance
 
-        for (Mod mod : allMods) {
-            double score = calculateRelevanceScore(mod, preferences);
-            if (score > 0.3) { // Threshold for relevance
-                String reasoning = generateReasoning(mod, preferences);
-                recommendations.add(new ModRecommendation(mod, reasoning, score));
-            }
+        List<ModRecommendation> recommendations = new ArrayList<>();
+        for (RelevanceScorer.Scored scored : relevant) {
+            String reasoning = generateReasoning(scored.mod(), preferences);
+            recommendations.add(new ModRecommendation(scored.mod(), reasoning, scored.score()));
         }
 
-        // Sort by relevance score (highest first)
-        recommendations.sort(Comparator.comparingDouble(ModRecommendation::getRelevanceScore).reversed());
-
         LOG.info("Generated {} recommendations", recommendations.size());
         return recommendations;
     }
 
-    /**
-     * Calculate relevance score based on preferences
-     * Uses keyword matching from the description
-     */
-    private double calculateRelevanceScore(Mod mod, WorldPreferences preferences) {
-        double score = 0.0;
-        String description = preferences.getDescription().toLowerCase();
-        String modName = mod.getName().toLowerCase();
-        String modDesc = mod.getDescription().toLowerCase();
-
-        // Keyword matching
-        String[] keywords = description.split("\\s+");
-        for (String keyword : keywords) {
-            if (keyword.length() < 3) continue;
-
-            if (modName.contains(keyword)) {
-                score += 0.2;
-            }
-            if (modDesc.contains(keyword)) {
-                score += 0.1;
-            }
-        }
-
-        // Category-based matching from description
-        if ((description.contains("build") || description.contains("construct") || description.contains("creat")) &&
-            (modName.contains("build") || modDesc.contains("build") || modDesc.contains("construction"))) {
-            score += 0.3;
-        }
-
-        if ((description.contains("adventure") || description.contains("quest") || description.contains("explore")) &&
-            (modName.contains("adventure") || modName.contains("quest") ||
-             modDesc.contains("adventure") || modDesc.contains("quest") || modDesc.contains("dungeon"))) {
-            score += 0.3;
-        }
-
-        if ((description.contains("tech") || description.contains("machine") || description.contains("automat")) &&
-            (modName.contains("tech") || modName.contains("machine") ||
-             modDesc.contains("tech") || modDesc.contains("machine") || modDesc.contains("automation"))) {
-            score += 0.3;
-        }
-
-        if ((description.contains("magic") || description.contains("spell") || description.contains("wizard")) &&
-            (modName.contains("magic") || modName.contains("spell") || modName.contains("mystic") ||
-             modDesc.contains("magic") || modDesc.contains("spell") || modDesc.contains("enchant"))) {
-            score += 0.3;
-        }
-
-        // Theme matching from description
-        if ((description.contains("medieval") || description.contains("castle") || description.contains("knight")) &&
-            (modName.contains("medieval") || modDesc.contains("medieval") || modDesc.contains("castle"))) {
-            score += 0.2;
-        }
-
-        if ((description.contains("fantasy") || description.contains("dragon") || description.contains("mythical")) &&
-            (modName.contains("fantasy") || modDesc.contains("fantasy") || modDesc.contains("dragon"))) {
-            score += 0.2;
-        }
-
-        if ((description.contains("sci-fi") || description.contains("futuristic") || description.contains("space")) &&
-            (modName.contains("tech") || modDesc.contains("futuristic") || modDesc.contains("space"))) {
-            score += 0.2;
-        }
-
-        return Math.min(score, 1.0); // Cap at 1.0
-    }
-
     /**
      * Generate reasoning for why a mod was recommended
      */
@@ -1,99 +1,308 @@
 package ai.haitale.service;
 
 import ai.haitale.model.Mod;
+import ai.haitale.service.http.HttpResponseCache;
+import ai.haitale.service.http.HttpResponseCache.CachedResponse;
+import ai.haitale.service.http.HttpTransport;
+import ai.haitale.service.http.SingleFlight;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micronaut.context.annotation.Value;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
+/**
+ * CurseForge search with installable results.
+ * <p>
+ * Search pages are fetched concurrently after the first one reports the total. Each hit's main file is taken
+ * from the hit's own {@code latestFiles} when that entry already carries a download URL and hashes; the files
+ * still missing are resolved together in one {@code POST /mods/files}, so a search costs its pages plus at most
+ * one extra request, never one per mod.
+ */
 @Singleton
 public class CurseForgeClient {
     private static final Logger LOG = LoggerFactory.getLogger(CurseForgeClient.class);
-    private static final String API_BASE = "https://api.curseforge.com/v1";
+    private static final String DEFAULT_BASE = "https://api.curseforge.com/v1";
     private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final int GAME_ID = 605;
+    private static final int MAX_PAGE_SIZE = 50;
+    // The search endpoint rejects index + pageSize beyond this
+    private static final int MAX_RESULTS = 10_000;
+    // CurseForge hash algorithm ids
+    private static final int ALGO_SHA1 = 1;
+    private static final int ALGO_MD5 = 2;
+    private static final ObjectMapper JACKSON = new ObjectMapper();
 
-    private final HttpClient httpClient;
-    @Value("${mod.repository.curseforge.api-key:}")
-    private String apiKey;
+    private final HttpResponseCache responseCache;
+    private final String baseUrl;
+    private final String apiKey;
+    private final int parallelPages;
+    private final SingleFlight<String, List<Mod>> searches = new SingleFlight<>();
 
-    public CurseForgeClient() {
-        this.httpClient = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    public CurseForgeClient(String configuredBase, String apiKey) {
+        this(HttpResponseCache.disabled(HttpTransport.standalone()), configuredBase, apiKey, 4);
+    }
+
+    @Inject
+    public CurseForgeClient(
+        HttpResponseCache responseCache,
+        @Value("${curseforge.api.base:}") String configuredBase,
+        @Value("${mod.repository.curseforge.api-key:}") String apiKey,
+        @Value("${curseforge.search.parallel-pages:4}") int parallelPages
+    ) {
+        this.responseCache = responseCache;
+        if (configuredBase == null || configuredBase.isEmpty()) {
+            this.baseUrl = DEFAULT_BASE;
+        } else {
+            this.baseUrl = configuredBase.endsWith("/") ? configuredBase.substring(0, configuredBase.length() - 1) : configuredBase;
+        }
+        this.apiKey = apiKey;
+        this.parallelPages = Math.max(1, parallelPages);
     }
 
     /**
-     * Very small wrapper to search projects on CurseForge. The official API requires an API key for most endpoints.
+     * Search projects on CurseForge, up to {@code limit} results, with download URL, SHA-1 and size resolved.
+     * The official API requires an API key; without one this returns an empty list.
      */
     public List<Mod> search(String query, int limit) {
-        LOG.info("CurseForge search called (query={}), but API key support is minimal in this implementation", query);
         if (apiKey == null || apiKey.isBlank()) {
             LOG.warn("No CurseForge API key configured; skipping CurseForge search");
             return List.of();
         }
 
+        // Concurrent callers with the same query share one request
+        return searches.call(query + "|" + limit, () -> doSearch(query, limit));
+    }
+
+    private List<Mod> doSearch(String query, int limit) {
+        int wanted = Math.max(1, Math.min(limit, MAX_RESULTS));
+        int pageSize = Math.min(wanted, MAX_PAGE_SIZE);
+        String encoded = URLEncoder.encode(query == null ? "" : query, StandardCharsets.UTF_8);
+
+        SearchPage first = fetchPage(encoded, 0, pageSize);
+        if (first == null) return List.of();
+        List<Map<?, ?>> hits = new ArrayList<>(first.hits());
+        int total = Math.min(wanted, first.totalCount());
+        if (hits.size() < total && first.hits().size() == pageSize) {
+            hits.addAll(fetchRemainingPages(encoded, pageSize, total));
+        }
+        if (hits.size() > wanted) hits = hits.subList(0, wanted);
+
+        Map<Long, Map<?, ?>> files = resolveMainFiles(hits);
+        List<Mod> result = new ArrayList<>(hits.size());
+        for (Map<?, ?> hit : hits) {
+            result.add(toMod(hit, files.get(mainFileId(hit))));
+        }
+        return result;
+    }
+
+    // Pages after the first, parallelPages in flight at a time, in page order
+    private List<Map<?, ?>> fetchRemainingPages(String encodedQuery, int pageSize, int total) {
+        Semaphore permits = new Semaphore(parallelPages);
+        List<Future<SearchPage>> pages = new ArrayList<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (int index = pageSize; index < total; index += pageSize) {
+                int offset = index;
+                int size = Math.min(pageSize, MAX_RESULTS - offset);
+                pages.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return fetchPage(encodedQuery, offset, size);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<Map<?, ?>> hits = new ArrayList<>();
+            for (Future<SearchPage> page : pages) {
+                SearchPage result = page.get();
+                // A failed page ends the results there, so the order stays that of the search
+                if (result == null || result.hits().isEmpty()) break;
+                hits.addAll(result.hits());
+            }
+            return hits;
+        } catch (ExecutionException e) {
+            LOG.warn("Error paging CurseForge search: {}", e.getCause().getMessage());
+            return List.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SearchPage fetchPage(String encodedQuery, int index, int pageSize) {
         try {
-            String encoded = java.net.URLEncoder.encode(query == null ? "" : query, StandardCharsets.UTF_8);
-            String uri = API_BASE + "/mods/search?gameId=605&search=" + encoded + "&pageSize=" + Math.max(1, Math.min(limit, 100));
-            HttpRequest.Builder reqBuilder = HttpRequest.newBuilder().uri(URI.create(uri)).timeout(TIMEOUT).GET();
-            reqBuilder.header("x-api-key", apiKey);
-            HttpRequest req = reqBuilder.build();
+            String uri = baseUrl + "/mods/search?gameId=" + GAME_ID + "&searchFilter=" + encodedQuery
+                + "&index=" + index + "&pageSize=" + pageSize;
+            HttpRequest req = HttpRequest.newBuilder().uri(URI.create(uri)).timeout(TIMEOUT)
+                .header("x-api-key", apiKey).GET().build();
 
-            HttpResponse<String> resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
+            CachedResponse resp = responseCache.send(req);
             if (resp.statusCode() != 200) {
-                LOG.warn("CurseForge search returned {} for query={}", resp.statusCode(), query);
-                return List.of();
+                LOG.warn("CurseForge search returned {} for index={}", resp.statusCode(), index);
+                return null;
             }
 
-            // Use Jackson for generic parsing to avoid unchecked casts
-            com.fasterxml.jackson.databind.ObjectMapper jackson = new com.fasterxml.jackson.databind.ObjectMapper();
-            Map<String, Object> json = jackson.readValue(resp.body(), new com.fasterxml.jackson.core.type.TypeReference<>() {});
-            Object dataObj = json.get("data");
-            if (!(dataObj instanceof List<?> dataList)) return List.of();
-
-            List<Mod> result = new ArrayList<>();
-            for (Object o : dataList) {
-                if (!(o instanceof Map<?,?> entry)) continue;
-                String id = asString(entry.get("id"));
-                String name = asString(entry.get("name"));
-                String summary = asString(entry.get("summary"));
-                String author = null;
-                Object authorObj = entry.get("author");
-                if (authorObj instanceof Map<?,?> authorMap) author = asString(authorMap.get("name"));
-
-                Mod mod = new Mod(
-                    id != null ? id : java.util.UUID.randomUUID().toString(),
-                    name != null ? name : "",
-                    "", // version unknown
-                    summary != null ? summary : "",
-                    "", // download url requires extra step
-                    "",
-                    "",
-                    "",
-                    author != null ? author : "",
-                    "curseforge",
-                    0L
-                );
-
-                result.add(mod);
-                if (result.size() >= limit) break;
+            Map<String, Object> json = JACKSON.readValue(resp.body(), new TypeReference<>() {});
+            List<Map<?, ?>> hits = new ArrayList<>();
+            if (json.get("data") instanceof List<?> data) {
+                for (Object o : data) {
+                    if (o instanceof Map<?, ?> hit) hits.add(hit);
+                }
             }
-
-            return result;
+            int totalCount = hits.size();
+            if (json.get("pagination") instanceof Map<?, ?> pagination && pagination.get("totalCount") instanceof Number n) {
+                totalCount = n.intValue();
+            }
+            return new SearchPage(hits, totalCount);
         } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
             LOG.warn("Error searching CurseForge: {}", e.getMessage());
-            return List.of();
+            return null;
+        }
+    }
+
+    /**
+     * Main file of every hit by file id: from the hit's latestFiles when complete, the rest in one bulk request.
+     */
+    private Map<Long, Map<?, ?>> resolveMainFiles(List<Map<?, ?>> hits) {
+        Map<Long, Map<?, ?>> files = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Map<?, ?> hit : hits) {
+            long fileId = mainFileId(hit);
+            if (fileId < 0 || files.containsKey(fileId)) continue;
+            Map<?, ?> file = null;
+            if (hit.get("latestFiles") instanceof List<?> latest) {
+                for (Object o : latest) {
+                    if (o instanceof Map<?, ?> candidate && asLong(candidate.get("id")) == fileId) file = candidate;
+                }
+            }
+            if (file != null && file.get("downloadUrl") != null && hash(file) != null) {
+                files.put(fileId, file);
+            } else {
+                missing.add(fileId);
+            }
+        }
+        if (!missing.isEmpty()) files.putAll(fetchFiles(missing));
+        return files;
+    }
+
+    private Map<Long, Map<?, ?>> fetchFiles(List<Long> fileIds) {
+        try {
+            byte[] payload = JACKSON.writeValueAsBytes(Map.of("fileIds", fileIds));
+            HttpRequest req = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/mods/files")).timeout(TIMEOUT)
+                .header("x-api-key", apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                .build();
+            CachedResponse resp = responseCache.send(req);
+            if (resp.statusCode() != 200) {
+                LOG.warn("CurseForge file lookup returned {} for {} files", resp.statusCode(), fileIds.size());
+                return Map.of();
+            }
+
+            Map<String, Object> json = JACKSON.readValue(resp.body(), new TypeReference<>() {});
+            Map<Long, Map<?, ?>> files = new HashMap<>();
+            if (json.get("data") instanceof List<?> data) {
+                for (Object o : data) {
+                    if (o instanceof Map<?, ?> file) files.put(asLong(file.get("id")), file);
+                }
+            }
+            return files;
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            LOG.warn("Error resolving CurseForge files: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private Mod toMod(Map<?, ?> hit, Map<?, ?> file) {
+        String id = asString(hit.get("id"));
+        String name = asString(hit.get("name"));
+        String summary = asString(hit.get("summary"));
+        String author = null;
+        if (hit.get("authors") instanceof List<?> authors && !authors.isEmpty() && authors.get(0) instanceof Map<?, ?> first) {
+            author = asString(first.get("name"));
+        }
+
+        String version = null;
+        String downloadUrl = null;
+        Hash hash = null;
+        long size = 0L;
+        if (file != null) {
+            version = asString(file.get("displayName"));
+            if (version == null) version = asString(file.get("fileName"));
+            // Null when the author disabled third-party downloads; such mods stay listed but are not installable
+            downloadUrl = asString(file.get("downloadUrl"));
+            hash = hash(file);
+            size = Math.max(0L, asLong(file.get("fileLength")));
         }
+
+        Mod mod = new Mod(
+            id != null ? id : java.util.UUID.randomUUID().toString(),
+            name != null ? name : "",
+            version != null ? version : "",
+            summary != null ? summary : "",
+            downloadUrl != null ? downloadUrl : "",
+            hash != null ? hash.value() : "",
+            hash != null ? hash.algorithm() : "",
+            "", // the API does not expose a license
+            author != null ? author : "",
+            "curseforge",
+            size
+        );
+        mod.setSlug(asString(hit.get("slug")));
+        return mod;
+    }
+
+    // SHA-1 of the file, else its MD5, else null
+    private Hash hash(Map<?, ?> file) {
+        String md5 = null;
+        if (file.get("hashes") instanceof List<?> hashes) {
+            for (Object o : hashes) {
+                if (!(o instanceof Map<?, ?> h) || h.get("value") == null) continue;
+                long algo = asLong(h.get("algo"));
+                if (algo == ALGO_SHA1) return new Hash("SHA-1", asString(h.get("value")));
+                if (algo == ALGO_MD5) md5 = asString(h.get("value"));
+            }
+        }
+        return md5 != null ? new Hash("MD5", md5) : null;
+    }
+
+    private long mainFileId(Map<?, ?> hit) {
+        return asLong(hit.get("mainFileId"));
+    }
+
+    private long asLong(Object o) {
+        return o instanceof Number n ? n.longValue() : -1L;
     }
 
     private String asString(Object o) { return o == null ? null : String.valueOf(o); }
+
+    private record SearchPage(List<Map<?, ?>> hits, int totalCount) {
+    }
+
+    private record Hash(String algorithm, String value) {
+    }
 }
@@ -1,31 +1,82 @@
 package ai.haitale.service;
 
 import ai.haitale.model.Mod;
+import ai.haitale.service.http.HttpResponseCache;
+import ai.haitale.service.http.HttpResponseCache.CachedResponse;
+import ai.haitale.service.http.HttpTransport;
+import ai.haitale.service.http.SingleFlight;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Singleton
 public class GitHubClient {
     private static final Logger LOG = LoggerFactory.getLogger(GitHubClient.class);
-    private static final String API_BASE = "https://api.github.com";
+    private static final String DEFAULT_BASE = "https://api.github.com";
     private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    // GitHub caps a GraphQL connection page at 100 nodes
+    private static final int MAX_ASSETS = 100;
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    // Thread-safe once configured; shared instead of built per call
+    private static final ObjectMapper JACKSON = new ObjectMapper();
 
-    private final HttpClient httpClient;
+    private final HttpResponseCache responseCache;
+    private final String baseUrl;
+    private final String token;
+    private final int batchSize;
+    private final SingleFlight<String, List<Mod>> releaseLookups = new SingleFlight<>();
 
-    public GitHubClient() {
-        this.httpClient = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    public GitHubClient(String configuredBase, String token) {
+        this(HttpResponseCache.disabled(HttpTransport.standalone()), configuredBase, token, DEFAULT_BATCH_SIZE);
+    }
+
+    @Inject
+    public GitHubClient(
+        HttpResponseCache responseCache,
+        @Value("${github.api.base:}") String configuredBase,
+        @Value("${mod.repository.github.token:}") String token,
+        @Value("${mod.repository.github.graphql.batch-size:50}") int batchSize
+    ) {
+        this.responseCache = responseCache;
+        if (configuredBase == null || configuredBase.isEmpty()) {
+            this.baseUrl = DEFAULT_BASE;
+        } else {
+            this.baseUrl = configuredBase.endsWith("/") ? configuredBase.substring(0, configuredBase.length() - 1) : configuredBase;
+        }
+        this.token = token == null || token.isBlank() ? null : token.trim();
+        this.batchSize = Math.max(1, Math.min(batchSize, 100));
+    }
+
+    /**
+     * Whether {@link #fetchLatestReleases} can be used: GitHub's GraphQL API only answers authenticated requests.
+     */
+    public boolean supportsBatching() {
+        return token != null;
+    }
+
+    /**
+     * Repos per GraphQL request in {@link #fetchLatestReleases}.
+     */
+    public int batchSize() {
+        return batchSize;
     }
 
     /**
@@ -34,58 +85,201 @@ public class GitHubClient {
      */
     public List<Mod> fetchLatestRelease(String repo) {
         if (repo == null || !repo.contains("/")) return List.of();
+        // Concurrent callers asking for the same repo share one request
+        return releaseLookups.call(repo, () -> doFetchLatestRelease(repo));
+    }
+
+    /**
+     * Conditional fetch of a repo's latest release for the release poller. With a known {@code etag} an
+     * unchanged release answers 304 and comes back with {@code changed == false} and no mods, without the
+     * body being downloaded or parsed. Returns null when the request fails.
+     */
+    public ReleasePoll pollLatestRelease(String repo, String etag) {
+        if (repo == null || !repo.contains("/")) return null;
         try {
-            String uri = API_BASE + "/repos/" + java.net.URLEncoder.encode(repo, StandardCharsets.UTF_8) + "/releases/latest";
-            HttpRequest req = HttpRequest.newBuilder().uri(URI.create(uri)).timeout(TIMEOUT).GET().build();
-            HttpResponse<String> resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpRequest.Builder builder = releaseRequest(repo);
+            if (etag != null && !etag.isBlank()) builder.header("If-None-Match", etag);
+            CachedResponse resp = responseCache.send(builder.build());
+            long remaining = headerLong(resp, "X-RateLimit-Remaining");
+            long reset = headerLong(resp, "X-RateLimit-Reset");
+            if (resp.statusCode() == 304) {
+                return new ReleasePoll(false, List.of(), etag, remaining, reset);
+            }
             if (resp.statusCode() != 200) {
                 LOG.warn("GitHub releases returned {} for repo={}", resp.statusCode(), repo);
-                return List.of();
+                return null;
             }
+            String newEtag = resp.headers().firstValue("ETag").orElse(null);
+            return new ReleasePoll(true, parseRelease(repo, resp.body()), newEtag, remaining, reset);
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            LOG.warn("Error polling GitHub release for {}: {}", repo, e.getMessage());
+            return null;
+        }
+    }
 
-            com.fasterxml.jackson.databind.ObjectMapper jackson = new com.fasterxml.jackson.databind.ObjectMapper();
-            Map<String, Object> json = jackson.readValue(resp.body(), new com.fasterxml.jackson.core.type.TypeReference<>() {});
-            String tagName = asString(json.get("tag_name"));
-            String name = asString(json.get("name"));
-            String body = asString(json.get("body"));
-            String author = null;
-            Object authorObj = json.get("author");
-            if (authorObj instanceof Map<?,?> authorMap) author = asString(authorMap.get("login"));
-
-            List<Mod> result = new ArrayList<>();
-            Object assetsObj = json.get("assets");
-            if (assetsObj instanceof List<?> assets) {
-                for (Object a : assets) {
-                    if (!(a instanceof Map<?,?> asset)) continue;
-                    String url = asString(asset.get("browser_download_url"));
-                    String filename = asString(asset.get("name"));
-                    long size = 0L;
-                    Object sizeObj = asset.get("size");
-                    if (sizeObj instanceof Number) size = ((Number) sizeObj).longValue();
-
-                    Mod mod = new Mod(
-                        repo + ":" + filename,
-                        name != null ? name : filename,
-                        tagName != null ? tagName : "",
-                        body != null ? body : "",
-                        url != null ? url : "",
-                        "", // no checksum
-                        "",
-                        "", // license unknown
-                        author != null ? author : "",
-                        "github",
-                        size
-                    );
-                    result.add(mod);
+    /**
+     * Latest releases of many repos (owner/repo) through the GraphQL API, {@link #batchSize()} repos per request,
+     * each repo an aliased {@code repository { latestRelease { releaseAssets } }} field. Assets map to Mod objects
+     * exactly as in {@link #fetchLatestRelease}. A repo without releases maps to an empty list; repos that do not
+     * exist or whose batch failed are absent from the result. Requires a token.
+     */
+    public Map<String, List<Mod>> fetchLatestReleases(List<String> repos) {
+        Map<String, List<Mod>> releases = new LinkedHashMap<>();
+        if (token == null) {
+            LOG.warn("No GitHub token configured; GraphQL release lookups are unavailable");
+            return releases;
+        }
+        Set<String> unique = new LinkedHashSet<>();
+        for (String repo : repos) {
+            if (repo != null && repo.indexOf('/') > 0) unique.add(repo);
+        }
+        List<String> valid = List.copyOf(unique);
+        for (int from = 0; from < valid.size(); from += batchSize) {
+            releases.putAll(doFetchLatestReleases(valid.subList(from, Math.min(valid.size(), from + batchSize))));
+        }
+        return releases;
+    }
+
+    private Map<String, List<Mod>> doFetchLatestReleases(List<String> repos) {
+        // Owner and name go in as variables, so repo names never need escaping inside the query text
+        StringBuilder declarations = new StringBuilder();
+        StringBuilder fields = new StringBuilder();
+        Map<String, Object> variables = new HashMap<>();
+        for (int i = 0; i < repos.size(); i++) {
+            String repo = repos.get(i);
+            int slash = repo.indexOf('/');
+            variables.put("o" + i, repo.substring(0, slash));
+            variables.put("n" + i, repo.substring(slash + 1));
+            declarations.append(i == 0 ? "" : ", ").append("$o").append(i).append(": String!, $n").append(i).append(": String!");
+            fields.append(" r").append(i).append(": repository(owner: $o").append(i).append(", name: $n").append(i)
+                .append(") { latestRelease { tagName name description author { login } releaseAssets(first: ")
+                .append(MAX_ASSETS).append(") { nodes { name downloadUrl size } } } }");
+        }
+        String query = "query(" + declarations + ") {" + fields + " }";
+
+        try {
+            byte[] payload = JACKSON.writeValueAsBytes(Map.of("query", query, "variables", variables));
+            HttpRequest req = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/graphql")).timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                .build();
+            CachedResponse resp = responseCache.send(req);
+            if (resp.statusCode() != 200) {
+                LOG.warn("GitHub GraphQL returned {} for {} repos", resp.statusCode(), repos.size());
+                return Map.of();
+            }
+
+            Map<String, Object> json = JACKSON.readValue(resp.body(), new TypeReference<>() {});
+            // Missing repos come back as a null field plus an entry in "errors"; the other fields are still valid
+            if (!(json.get("data") instanceof Map<?,?> data)) {
+                LOG.warn("GitHub GraphQL returned no data for {} repos: {}", repos.size(), json.get("errors"));
+                return Map.of();
+            }
+            Map<String, List<Mod>> releases = new LinkedHashMap<>();
+            for (int i = 0; i < repos.size(); i++) {
+                if (!(data.get("r" + i) instanceof Map<?,?> repository)) continue;
+                if (!(repository.get("latestRelease") instanceof Map<?,?> release)) {
+                    releases.put(repos.get(i), List.of());
+                    continue;
                 }
+                String author = release.get("author") instanceof Map<?,?> authorMap ? asString(authorMap.get("login")) : null;
+                Object assets = release.get("releaseAssets") instanceof Map<?,?> connection ? connection.get("nodes") : null;
+                releases.put(repos.get(i), toMods(repos.get(i), asString(release.get("tagName")), asString(release.get("name")),
+                    asString(release.get("description")), author, assets, "downloadUrl"));
             }
+            return releases;
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            LOG.warn("Error fetching GitHub releases for {} repos: {}", repos.size(), e.getMessage());
+            return Map.of();
+        }
+    }
 
-            return result;
+    private List<Mod> doFetchLatestRelease(String repo) {
+        try {
+            HttpRequest req = releaseRequest(repo).build();
+            // Conditional request: an unchanged release comes back as 304, which GitHub does not count against the rate limit
+            CachedResponse resp = responseCache.send(req);
+            if (resp.statusCode() != 200) {
+                LOG.warn("GitHub releases returned {} for repo={}", resp.statusCode(), repo);
+                return List.of();
+            }
+            return parseRelease(repo, resp.body());
         } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
             LOG.warn("Error fetching GitHub release for {}: {}", repo, e.getMessage());
             return List.of();
         }
     }
 
+    private HttpRequest.Builder releaseRequest(String repo) {
+        // Owner and name are encoded separately; an encoded slash would not match the route
+        int slash = repo.indexOf('/');
+        String uri = baseUrl + "/repos/" + URLEncoder.encode(repo.substring(0, slash), StandardCharsets.UTF_8)
+            + "/" + URLEncoder.encode(repo.substring(slash + 1), StandardCharsets.UTF_8) + "/releases/latest";
+        HttpRequest.Builder builder = HttpRequest.newBuilder().uri(URI.create(uri)).timeout(TIMEOUT).GET();
+        // Authenticated requests get the larger rate limit, and their 304s do not count against it
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        return builder;
+    }
+
+    private List<Mod> parseRelease(String repo, byte[] body) throws IOException {
+        Map<String, Object> json = JACKSON.readValue(body, new TypeReference<>() {});
+        String author = null;
+        Object authorObj = json.get("author");
+        if (authorObj instanceof Map<?,?> authorMap) author = asString(authorMap.get("login"));
+        return toMods(repo, asString(json.get("tag_name")), asString(json.get("name")), asString(json.get("body")),
+            author, json.get("assets"), "browser_download_url");
+    }
+
+    // One Mod per release asset; REST and GraphQL differ only in the name of the download URL field
+    private List<Mod> toMods(String repo, String tagName, String name, String description, String author,
+                             Object assetsObj, String urlField) {
+        List<Mod> result = new ArrayList<>();
+        if (assetsObj instanceof List<?> assets) {
+            for (Object a : assets) {
+                if (!(a instanceof Map<?,?> asset)) continue;
+                String url = asString(asset.get(urlField));
+                String filename = asString(asset.get("name"));
+                long size = 0L;
+                Object sizeObj = asset.get("size");
+                if (sizeObj instanceof Number) size = ((Number) sizeObj).longValue();
+
+                Mod mod = new Mod(
+                    repo + ":" + filename,
+                    name != null ? name : filename,
+                    tagName != null ? tagName : "",
+                    description != null ? description : "",
+                    url != null ? url : "",
+                    "", // no checksum
+                    "",
+                    "", // license unknown
+                    author != null ? author : "",
+                    "github",
+                    size
+                );
+                result.add(mod);
+            }
+        }
+        return result;
+    }
+
+    private long headerLong(CachedResponse resp, String name) {
+        try {
+            return resp.headers().firstValue(name).map(v -> Long.parseLong(v.trim())).orElse(-1L);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
     private String asString(Object o) { return o == null ? null : String.valueOf(o); }
+
+    /**
+     * Outcome of a conditional release check. {@code rateLimitRemaining} and {@code rateLimitReset} (epoch
+     * seconds) come from the response headers and are -1 when absent.
+     */
+    public record ReleasePoll(boolean changed, List<Mod> mods, String etag, long rateLimitRemaining, long rateLimitReset) {
+    }
 }
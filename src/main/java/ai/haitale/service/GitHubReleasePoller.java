@@ -0,0 +1,328 @@
+package ai.haitale.service;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.GitHubClient.ReleasePoll;
+import ai.haitale.service.http.RateLimiter;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.serde.ObjectMapper;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Keeps the latest release assets of the configured GitHub repos up to date within GitHub's rate limit.
+ * <p>
+ * Each repo's ETag and last known assets are persisted under the haitale data directory. A poll sends
+ * If-None-Match with the stored ETag, so an unchanged release is a bodiless 304 and its stored assets are
+ * reused. Repos are polled concurrently, least recently polled first, and only as many as the remaining
+ * rate-limit budget allows (minus a reserve for installs); the rest keep their stored assets and are polled
+ * first on a later run, so a long repo list is spread across runs instead of exhausting the hourly limit.
+ * With a GitHub token the repos are fetched in GraphQL batches instead, one request per batch.
+ */
+@Singleton
+public class GitHubReleasePoller {
+    private static final Logger LOG = LoggerFactory.getLogger(GitHubReleasePoller.class);
+    private static final String STATE_FILE = "github-releases.json";
+    private static final String HOST = "api.github.com";
+
+    private final GitHubClient gitHubClient;
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final Path stateFile;
+    private final int maxConcurrency;
+    private final int maxPerRun;
+    private final int reserve;
+
+    public GitHubReleasePoller(
+        GitHubClient gitHubClient,
+        RateLimiter rateLimiter,
+        ObjectMapper objectMapper,
+        HaitaleDataDirectory dataDirectory,
+        @Value("${mod.repository.github.max-concurrency:4}") int maxConcurrency,
+        @Value("${mod.repository.github.poll.max-per-run:50}") int maxPerRun,
+        @Value("${mod.repository.github.poll.reserve:10}") int reserve
+    ) {
+        this.gitHubClient = gitHubClient;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.stateFile = dataDirectory.resolve(STATE_FILE);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxPerRun = Math.max(0, maxPerRun);
+        this.reserve = Math.max(0, reserve);
+    }
+
+    /**
+     * Poll the repos the budget allows and return the current assets of every repo (in the given order),
+     * including the stored assets of repos that were unchanged, skipped or failed. When interrupted, the
+     * repos polled so far are still saved before the interrupt is rethrown.
+     */
+    public List<Mod> poll(List<String> repos) throws InterruptedException {
+        PollState state = loadState();
+        Map<String, RepoState> known = state.getRepos();
+
+        List<String> due = new ArrayList<>(repos);
+        // Never polled first, then least recently polled
+        due.sort(Comparator.comparing((String repo) -> {
+            RepoState repoState = known.get(repo);
+            return repoState != null && repoState.getLastPolled() != null ? repoState.getLastPolled() : Instant.EPOCH;
+        }));
+        // With a token, one GraphQL request covers a whole batch of repos
+        boolean batched = gitHubClient.supportsBatching();
+        long requests = budget(state);
+        int budget = (int) Math.min(due.size(), batched ? requests * gitHubClient.batchSize() : requests);
+        if (budget < due.size()) {
+            LOG.info("GitHub rate-limit budget allows {} of {} repos this run", budget, due.size());
+        }
+        due = due.subList(0, Math.max(0, budget));
+
+        Map<String, ReleasePoll> polls = new HashMap<>();
+        InterruptedException interrupted = null;
+        try {
+            if (batched) {
+                pollBatched(due, known, polls);
+            } else {
+                pollConcurrently(due, known, polls);
+            }
+        } catch (InterruptedException e) {
+            // Out of time: record the polls that finished, so the next run does not repeat them
+            interrupted = e;
+        }
+
+        int changed = 0;
+        int unchanged = 0;
+        Instant now = Instant.now();
+        for (String repo : due) {
+            ReleasePoll result = polls.get(repo);
+            if (result == null) continue; // failed: keep the stored assets and retry it first next run
+            RepoState repoState = known.computeIfAbsent(repo, r -> new RepoState());
+            repoState.setLastPolled(now);
+            if (result.changed()) {
+                repoState.setEtag(result.etag());
+                repoState.setMods(result.mods());
+                changed++;
+            } else {
+                unchanged++;
+            }
+            recordRateLimit(state, result);
+        }
+        if (!polls.isEmpty()) saveState(state);
+        LOG.info("GitHub poll: {} changed, {} unchanged, {} kept from earlier runs", changed, unchanged, repos.size() - polls.size());
+        if (interrupted != null) throw interrupted;
+
+        List<Mod> mods = new ArrayList<>();
+        for (String repo : repos) {
+            RepoState repoState = known.get(repo);
+            if (repoState != null) mods.addAll(repoState.getMods());
+        }
+        return mods;
+    }
+
+    // One conditional REST request per repo; the answers are added to results, even when interrupted
+    private void pollConcurrently(List<String> repos, Map<String, RepoState> known, Map<String, ReleasePoll> results)
+        throws InterruptedException {
+        Map<String, Callable<ReleasePoll>> tasks = new LinkedHashMap<>();
+        for (String repo : repos) {
+            RepoState repoState = known.get(repo);
+            // Without stored assets a 304 would leave nothing to reuse, so fetch unconditionally
+            String etag = repoState != null && !repoState.getMods().isEmpty() ? repoState.getEtag() : null;
+            tasks.put(repo, () -> gitHubClient.pollLatestRelease(repo, etag));
+        }
+        Map<String, ReleasePoll> polled = new LinkedHashMap<>();
+        try {
+            runAll(tasks, polled);
+        } finally {
+            polled.forEach((repo, result) -> {
+                if (result != null) results.put(repo, result);
+            });
+        }
+    }
+
+    // One GraphQL request per batch of repos; GraphQL has no ETags, so every answer counts as fetched
+    private void pollBatched(List<String> repos, Map<String, RepoState> known, Map<String, ReleasePoll> results)
+        throws InterruptedException {
+        Map<String, Callable<Map<String, List<Mod>>>> tasks = new LinkedHashMap<>();
+        for (int from = 0; from < repos.size(); from += gitHubClient.batchSize()) {
+            List<String> batch = repos.subList(from, Math.min(repos.size(), from + gitHubClient.batchSize()));
+            tasks.put(batch.get(0) + " and " + (batch.size() - 1) + " more", () -> gitHubClient.fetchLatestReleases(batch));
+        }
+        Map<String, Map<String, List<Mod>>> polled = new LinkedHashMap<>();
+        try {
+            runAll(tasks, polled);
+        } finally {
+            for (Map<String, List<Mod>> releases : polled.values()) {
+                releases.forEach((repo, mods) -> {
+                    RepoState repoState = known.get(repo);
+                    // The stored ETag stays valid for the REST fallback: a 304 to it still means "these assets"
+                    String etag = repoState != null ? repoState.getEtag() : null;
+                    results.put(repo, new ReleasePoll(true, mods, etag, -1, -1));
+                });
+            }
+        }
+    }
+
+    /**
+     * Run the tasks on virtual threads, at most max-concurrency at a time, and put their results in
+     * {@code results}. Failed tasks are logged and left out. If interrupted, the tasks that already
+     * finished are still put in and the rest are stopped.
+     */
+    private <T> void runAll(Map<String, Callable<T>> tasks, Map<String, T> results) throws InterruptedException {
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (Map.Entry<String, Callable<T>> task : tasks.entrySet()) {
+                futures.put(task.getKey(), executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return task.getValue().call();
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+                try {
+                    results.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    LOG.warn("Failed to poll GitHub repo {}: {}", entry.getKey(), e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    futures.forEach((key, future) -> {
+                        if (future.state() == Future.State.SUCCESS) results.putIfAbsent(key, future.resultNow());
+                    });
+                    throw e;
+                }
+            }
+        } finally {
+            // Interrupted by the refresh deadline: stop the remaining polls too
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Requests this run may spend: the live budget when this process has already talked to GitHub,
+     * otherwise the budget persisted by the last run if its window has not reset yet.
+     */
+    private long budget(PollState state) {
+        long remaining = rateLimiter.remaining(HOST);
+        if (remaining < 0 && state.getRateLimitReset() != null && state.getRateLimitReset().isAfter(Instant.now())) {
+            remaining = state.getRateLimitRemaining();
+        }
+        long limit = remaining < 0 ? maxPerRun : Math.min(maxPerRun, remaining - reserve);
+        return Math.max(0, limit);
+    }
+
+    private void recordRateLimit(PollState state, ReleasePoll result) {
+        if (result.rateLimitRemaining() < 0 || result.rateLimitReset() < 0) return;
+        Instant reset = Instant.ofEpochSecond(result.rateLimitReset());
+        // Responses of one window report a falling count; a later reset means a new window
+        if (state.getRateLimitReset() == null || reset.isAfter(state.getRateLimitReset())
+            || result.rateLimitRemaining() < state.getRateLimitRemaining()) {
+            state.setRateLimitRemaining(result.rateLimitRemaining());
+            state.setRateLimitReset(reset);
+        }
+    }
+
+    private PollState loadState() {
+        if (!Files.exists(stateFile)) return new PollState();
+        try (InputStream in = Files.newInputStream(stateFile)) {
+            PollState state = objectMapper.readValue(in, PollState.class);
+            return state != null ? state : new PollState();
+        } catch (IOException e) {
+            LOG.warn("Ignoring unreadable GitHub poll state {}: {}", stateFile, e.getMessage());
+            return new PollState();
+        }
+    }
+
+    private void saveState(PollState state) {
+        try {
+            Files.createDirectories(stateFile.getParent());
+            Path tmp = Files.createTempFile(stateFile.getParent(), "github-releases", ".tmp");
+            Files.write(tmp, objectMapper.writeValueAsBytes(state));
+            Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Failed to persist GitHub poll state: {}", e.getMessage());
+        }
+    }
+
+    @Serdeable
+    public static class PollState {
+        private long rateLimitRemaining = -1;
+        private Instant rateLimitReset;
+        private Map<String, RepoState> repos = new HashMap<>();
+
+        public long getRateLimitRemaining() {
+            return rateLimitRemaining;
+        }
+
+        public void setRateLimitRemaining(long rateLimitRemaining) {
+            this.rateLimitRemaining = rateLimitRemaining;
+        }
+
+        public Instant getRateLimitReset() {
+            return rateLimitReset;
+        }
+
+        public void setRateLimitReset(Instant rateLimitReset) {
+            this.rateLimitReset = rateLimitReset;
+        }
+
+        public Map<String, RepoState> getRepos() {
+            return repos;
+        }
+
+        public void setRepos(Map<String, RepoState> repos) {
+            this.repos = repos != null ? new HashMap<>(repos) : new HashMap<>();
+        }
+    }
+
+    @Serdeable
+    public static class RepoState {
+        private String etag;
+        private Instant lastPolled;
+        private List<Mod> mods = new ArrayList<>();
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public void setEtag(String etag) {
+            this.etag = etag;
+        }
+
+        public Instant getLastPolled() {
+            return lastPolled;
+        }
+
+        public void setLastPolled(Instant lastPolled) {
+            this.lastPolled = lastPolled;
+        }
+
+        public List<Mod> getMods() {
+            return mods;
+        }
+
+        public void setMods(List<Mod> mods) {
+            this.mods = mods != null ? mods : new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ai.haitale.service;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+
+import java.nio.file.Path;
+
+/**
+ * Root of haitale's local state (HTTP cache, catalog snapshots, sync state).
+ * Defaults to ~/.haitale and can be overridden with haitale.data-dir.
+ */
+@Singleton
+public class HaitaleDataDirectory {
+    private final Path root;
+
+    public HaitaleDataDirectory(@Value("${haitale.data-dir:}") String configuredDir) {
+        this.root = configuredDir == null || configuredDir.isBlank()
+            ? Path.of(System.getProperty("user.home"), ".haitale")
+            : Path.of(configuredDir);
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    public Path resolve(String first, String... more) {
+        Path path = root.resolve(first);
+        for (String part : more) {
+            path = path.resolve(part);
+        }
+        return path;
+    }
+}
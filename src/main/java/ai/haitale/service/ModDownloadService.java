@@ -1,6 +1,7 @@
 package ai.haitale.service;
 
 import ai.haitale.model.Mod;
+import ai.haitale.service.http.HttpTransport;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,7 +12,6 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
@@ -26,13 +26,10 @@ public class ModDownloadService {
     private static final int BUFFER_SIZE = 8192;
     private static final Duration TIMEOUT = Duration.ofMinutes(5);
 
-    private final HttpClient httpClient;
+    private final HttpTransport transport;
 
-    public ModDownloadService() {
-        this.httpClient = HttpClient.newBuilder()
-            .connectTimeout(TIMEOUT)
-            .followRedirects(HttpClient.Redirect.NORMAL)
-            .build();
+    public ModDownloadService(HttpTransport transport) {
+        this.transport = transport;
     }
 
     /**
@@ -60,9 +57,10 @@ public class ModDownloadService {
                 .GET()
                 .build();
 
-            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            HttpResponse<InputStream> response = transport.sendStreaming(request);
 
             if (response.statusCode() != 200) {
+                response.body().close();
                 throw new IOException("Failed to download mod: HTTP " + response.statusCode());
             }
 
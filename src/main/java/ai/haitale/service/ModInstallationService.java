@@ -4,6 +4,7 @@ import ai.haitale.model.InstallationManifest;
 import ai.haitale.model.InstallationManifest.InstalledMod;
 import ai.haitale.model.Mod;
 import io.micronaut.serde.ObjectMapper;
+import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,10 +22,11 @@ public class ModInstallationService {
     private static final Logger LOG = LoggerFactory.getLogger(ModInstallationService.class);
     private static final String MANIFEST_FILE = "haitale-manifest.json";
 
-    private final ModDownloadService downloadService;
+    // Only installs download anything; listing the manifest must not create the HTTP client
+    private final Provider<ModDownloadService> downloadService;
     private final ObjectMapper objectMapper;
 
-    public ModInstallationService(ModDownloadService downloadService, ObjectMapper objectMapper) {
+    public ModInstallationService(Provider<ModDownloadService> downloadService, ObjectMapper objectMapper) {
         this.downloadService = downloadService;
         this.objectMapper = objectMapper;
     }
@@ -91,7 +93,7 @@ public class ModInstallationService {
 
         try {
             // Download mod
-            File downloadedFile = downloadService.downloadMod(mod, tempDir);
+            File downloadedFile = downloadService.get().downloadMod(mod, tempDir);
 
             // Backup existing mods directory
             backupModsDirectory(modsDir);
@@ -1,58 +1,228 @@
 package ai.haitale.service;
 
 import ai.haitale.model.Mod;
+import ai.haitale.service.catalog.ModCatalog;
+import ai.haitale.service.catalog.LearnedModStore;
+import ai.haitale.service.catalog.ModCatalogStore;
+import ai.haitale.service.modrinth.ModrinthSearchFilter;
+import ai.haitale.service.recommend.RelevanceScorer;
+import ai.haitale.service.recommend.SemanticIndex;
 import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Named;
+import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Singleton
 public class ModRepositoryService {
     private static final Logger LOG = LoggerFactory.getLogger(ModRepositoryService.class);
 
-    private final List<Mod> modCache = new ArrayList<>();
-
-    private final ModrinthClient modrinthClient;
-    private final CurseForgeClient curseForgeClient;
-    private final GitHubClient gitHubClient;
+    // Sample mods for demonstration, kept as a fallback behind remote sources
+    private final List<Mod> sampleMods = new ArrayList<>();
+    // Current catalog snapshot; refreshes swap in a new one, readers never lock
+    private final AtomicReference<ModCatalog> catalog = new AtomicReference<>(ModCatalog.empty());
+    // Mods live search found since the last refresh, kept apart so learning one never rebuilds or rewrites
+    // the catalog; the next refresh folds them in. Updated under its own lock.
+    private final AtomicReference<ModCatalog> learned = new AtomicReference<>(ModCatalog.empty());
+
+    // The refresh currently running, if any; concurrent callers share it
+    private final AtomicReference<CompletableFuture<ModCatalog>> inFlightRefresh = new AtomicReference<>();
+    // Set when nothing was persisted yet: the first read waits for the initial refresh instead of
+    // answering from the sample mods alone
+    private volatile CompletableFuture<ModCatalog> coldStart;
+    // Tail of the queued merges of live search hits into the learned overlay; they run one at a time
+    private final AtomicReference<CompletableFuture<Void>> learning =
+        new AtomicReference<>(CompletableFuture.completedFuture(null));
+
+    // Remote clients are resolved on first use, so commands answered from the persisted catalog
+    // never build an HTTP client
+    private final Provider<ModrinthClient> modrinthClient;
+    private final Provider<ModrinthCatalogSync> modrinthCatalogSync;
+    private final Provider<CurseForgeClient> curseForgeClient;
+    private final Provider<GitHubReleasePoller> gitHubReleasePoller;
+    private final ModCatalogStore catalogStore;
+    private final LearnedModStore learnedModStore;
+    private final TaskScheduler scheduler;
+
+    // A persisted catalog older than this is served as-is while a background refresh runs
+    @Value("${mod.repository.refresh.ttl-minutes:60}")
+    private long refreshTtlMinutes;
+
+    @Value("${mod.repository.refresh.background:true}")
+    private boolean backgroundRefresh;
+
+    // How long the first read of a never-refreshed catalog waits for the first refresh before it is answered
+    // from the sample catalog; the refresh carries on in the background
+    @Value("${mod.repository.refresh.cold-start-wait-seconds:5}")
+    private long coldStartWaitSeconds;
+
+    // Offline: answer everything from the persisted catalog and never contact a remote repository
+    @Value("${mod.repository.offline:false}")
+    private boolean offline;
+
+    // How long shutdown waits for a running refresh so its result still gets persisted
+    @Value("${mod.repository.refresh.shutdown-grace-seconds:3}")
+    private long shutdownGraceSeconds;
 
     @Value("${mod.repository.modrinth.enabled:false}")
     private boolean modrinthEnabled;
 
+    // Upper bound on results for server-side filtered Modrinth queries
+    @Value("${mod.repository.modrinth.filter-limit:200}")
+    private int modrinthFilterLimit;
+
+    @Value("${mod.repository.search.max-results:100}")
+    private int searchMaxResults;
+
+    // Live search: keyword searches with few local hits also query the remote repositories
+    @Value("${mod.repository.search.live.enabled:true}")
+    private boolean liveSearch;
+
+    // Remote answers arriving after this are ignored
+    @Value("${mod.repository.search.live.deadline-ms:1500}")
+    private long liveSearchDeadlineMs;
+
+    // Hits requested per remote source; a query with at least this many local hits is answered locally
+    @Value("${mod.repository.search.live.results:20}")
+    private int liveSearchResults;
+
     @Value("${mod.repository.curseforge.enabled:false}")
     private boolean curseforgeEnabled;
 
+    // CurseForge mods imported per refresh, most popular first
+    @Value("${mod.repository.curseforge.refresh-limit:500}")
+    private int curseforgeRefreshLimit;
+
     @Value("${mod.repository.github.enabled:false}")
     private boolean githubEnabled;
 
     @Value("${mod.repository.github.example-repos:}")
     private String githubExampleReposCsv;
 
+    // Per-source deadlines for a refresh, counted from its start
+    @Value("${mod.repository.modrinth.deadline-seconds:600}")
+    private long modrinthDeadlineSeconds;
+
+    @Value("${mod.repository.curseforge.deadline-seconds:30}")
+    private long curseforgeDeadlineSeconds;
+
+    @Value("${mod.repository.github.deadline-seconds:20}")
+    private long githubDeadlineSeconds;
+
+    // Bulkheads: one refresh call per catalog source at a time (the GitHub poller bounds its own repo concurrency)
+    private final Semaphore modrinthBulkhead = new Semaphore(1);
+    private final Semaphore curseforgeBulkhead = new Semaphore(1);
+    private final Semaphore githubBulkhead = new Semaphore(1);
+
     public ModRepositoryService(
-        ModrinthClient modrinthClient,
-        CurseForgeClient curseForgeClient,
-        GitHubClient gitHubClient
+        Provider<ModrinthClient> modrinthClient,
+        Provider<ModrinthCatalogSync> modrinthCatalogSync,
+        Provider<CurseForgeClient> curseForgeClient,
+        Provider<GitHubReleasePoller> gitHubReleasePoller,
+        ModCatalogStore catalogStore,
+        LearnedModStore learnedModStore,
+        @Named(TaskExecutors.SCHEDULED) TaskScheduler scheduler
     ) {
         this.modrinthClient = modrinthClient;
+        this.modrinthCatalogSync = modrinthCatalogSync;
         this.curseForgeClient = curseForgeClient;
-        this.gitHubClient = gitHubClient;
+        this.gitHubReleasePoller = gitHubReleasePoller;
+        this.catalogStore = catalogStore;
+        this.learnedModStore = learnedModStore;
+        this.scheduler = scheduler;
 
         // Initialize with some sample mods for demonstration (kept as fallback)
         initializeSampleMods();
 
-        // Attempt to refresh cache from remote repositories on startup
-        refreshModCache();
+        // Serve the last persisted catalog right away; remote repositories are only contacted in the background
+        loadPersistedCatalog();
+        loadLearnedMods();
+    }
+
+    private void loadPersistedCatalog() {
+        ModCatalog stored = catalogStore.load();
+        if (stored == null) return;
+
+        // Mapped, not decoded: the persisted catalog already contains the sample mods merged in by its refresh
+        catalog.set(stored);
+        LOG.info("Loaded persisted mod catalog: {} mods, refreshed {}", stored.size(), stored.refreshedAt());
+    }
+
+    private void loadLearnedMods() {
+        List<Mod> learnedMods = learnedModStore.load();
+        if (learnedMods.isEmpty()) return;
+        learned.set(ModCatalog.of(learnedMods, Instant.EPOCH));
+        LOG.info("Loaded {} mods learned from live search since the last refresh", learnedMods.size());
+    }
+
+    /**
+     * Start a background refresh when the catalog is older than the TTL or incomplete. Runs after injection
+     * so the refresh sees every configured value.
+     */
+    @PostConstruct
+    void scheduleRefreshIfStale() {
+        if (!backgroundRefresh || offline) return;
+        ModCatalog current = catalog.get();
+        if (!needsRefresh(current)) {
+            LOG.debug("Mod catalog refreshed {}, no refresh needed", current.refreshedAt());
+            return;
+        }
+        CompletableFuture<ModCatalog> refresh = refreshAsync();
+        if (Instant.EPOCH.equals(current.refreshedAt())) {
+            coldStart = refresh;
+        }
+    }
+
+    /**
+     * Give a running refresh a short grace period to finish and persist before the scheduler goes away.
+     */
+    @PreDestroy
+    void awaitRefreshOnShutdown() {
+        CompletableFuture<ModCatalog> running = inFlightRefresh.get();
+        if (shutdownGraceSeconds <= 0) return;
+        CompletableFuture<?> pending = running == null
+            ? learning.get()
+            : CompletableFuture.allOf(running, learning.get());
+        try {
+            pending.get(shutdownGraceSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            LOG.info("Abandoning catalog update still running at shutdown; it will be retried next run");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // already logged by the refresh
+        }
     }
 
     private void initializeSampleMods() {
         // Sample mods for demonstration
-        modCache.add(new Mod(
+        sampleMods.add(new Mod(
             "enhanced-building-1",
             "Enhanced Building Tools",
             "1.0.0",
@@ -66,7 +236,7 @@ public class ModRepositoryService {
             2048000
         ));
 
-        modCache.add(new Mod(
+        sampleMods.add(new Mod(
             "magic-realms-2",
             "Magic Realms",
             "2.1.0",
@@ -80,7 +250,7 @@ public class ModRepositoryService {
             3145728
         ));
 
-        modCache.add(new Mod(
+        sampleMods.add(new Mod(
             "tech-revolution-3",
             "Tech Revolution",
             "1.5.2",
@@ -94,7 +264,7 @@ public class ModRepositoryService {
             4194304
         ));
 
-        modCache.add(new Mod(
+        sampleMods.add(new Mod(
             "adventure-quests-4",
             "Adventure Quest Pack",
             "3.0.0",
@@ -108,7 +278,7 @@ public class ModRepositoryService {
             5242880
         ));
 
-        modCache.add(new Mod(
+        sampleMods.add(new Mod(
             "medieval-pack-5",
             "Medieval Immersion",
             "1.2.3",
@@ -122,7 +292,7 @@ public class ModRepositoryService {
             2621440
         ));
 
-        modCache.add(new Mod(
+        sampleMods.add(new Mod(
             "fantasy-creatures-6",
             "Fantasy Creatures Expansion",
             "2.0.1",
@@ -136,126 +306,494 @@ public class ModRepositoryService {
             3670016
         ));
 
-        LOG.info("Initialized mod cache with {} mods", modCache.size());
+        // Never refreshed from a remote source, so the first TTL check always triggers a refresh
+        catalog.set(ModCatalog.of(sampleMods, Instant.EPOCH));
+        LOG.info("Initialized mod cache with {} mods", sampleMods.size());
     }
 
     /**
-     * Search mods by keyword
+     * Search mods by keyword, best BM25 match first; misspelled keywords still match, ranked after exact hits.
+     * With few local hits, Modrinth and CurseForge are searched live as well: their answers within the
+     * deadline are appended and learned, so the next search finds them locally.
      */
     public List<Mod> searchMods(String keyword) {
-        String lowerKeyword = keyword.toLowerCase();
-        return modCache.stream()
-            .filter(mod -> mod.getName().toLowerCase().contains(lowerKeyword) ||
-                          mod.getDescription().toLowerCase().contains(lowerKeyword))
-            .collect(Collectors.toList());
+        List<Mod> local = searchLocal(keyword);
+        if (!liveSearch || offline || keyword == null || keyword.isBlank() || local.size() >= liveSearchResults) {
+            return local;
+        }
+
+        List<Mod> remote = searchRemote(keyword);
+        if (remote.isEmpty()) return local;
+        learn(remote);
+
+        Set<String> seen = new HashSet<>();
+        List<Mod> result = new ArrayList<>(local);
+        for (Mod m : local) {
+            seen.add(m.getId());
+        }
+        for (Mod m : remote) {
+            if (result.size() >= searchMaxResults) break;
+            if (m.getId() != null && seen.add(m.getId())) result.add(m);
+        }
+        return result;
+    }
+
+    // Catalog hits first, then hits among the mods learned since the last refresh
+    private List<Mod> searchLocal(String keyword) {
+        List<Mod> hits = current().searchIndex().search(keyword, searchMaxResults);
+        ModCatalog overlay = learned.get();
+        if (overlay.size() == 0 || hits.size() >= searchMaxResults) return hits;
+
+        Set<String> seen = new HashSet<>();
+        List<Mod> result = new ArrayList<>(hits);
+        for (Mod m : hits) {
+            seen.add(m.getId());
+        }
+        for (Mod m : overlay.searchIndex().search(keyword, searchMaxResults)) {
+            if (result.size() >= searchMaxResults) break;
+            if (seen.add(m.getId())) result.add(m);
+        }
+        return result;
+    }
+
+    /**
+     * Query every enabled remote source concurrently and collect what answers before the live search deadline,
+     * in source priority order. Late sources are interrupted and ignored.
+     */
+    private List<Mod> searchRemote(String keyword) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(liveSearchDeadlineMs);
+        List<SourceFetch> fetches = new ArrayList<>();
+        ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            if (modrinthEnabled) {
+                fetches.add(new SourceFetch("Modrinth",
+                    scope.submit(() -> modrinthClient.get().search(keyword, liveSearchResults)), deadline));
+            }
+            if (curseforgeEnabled) {
+                fetches.add(new SourceFetch("CurseForge",
+                    scope.submit(() -> curseForgeClient.get().search(keyword, liveSearchResults)), deadline));
+            }
+
+            List<Mod> result = new ArrayList<>();
+            for (SourceFetch fetch : fetches) {
+                try {
+                    result.addAll(fetch.future().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    LOG.debug("{} did not answer live search within {} ms", fetch.name(), liveSearchDeadlineMs);
+                } catch (ExecutionException e) {
+                    LOG.warn("Live search on {} failed: {}", fetch.name(), e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            scope.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue the mods neither the catalog nor the learned overlay knows yet for adding to the overlay. Only
+     * the overlay is rebuilt and saved, on the scheduler and one merge at a time, so the search that found
+     * them is not held up; the catalog takes them in at the next refresh.
+     */
+    private void learn(List<Mod> discovered) {
+        ModCatalog known = catalog.get();
+        ModCatalog overlay = learned.get();
+        List<Mod> unknown = discovered.stream()
+            .filter(m -> m.getId() != null && known.byId(m.getId()) == null && overlay.byId(m.getId()) == null)
+            .toList();
+        if (unknown.isEmpty()) return;
+
+        learning.updateAndGet(previous -> previous.thenRunAsync(() -> {
+            ModCatalog base = catalog.get();
+            synchronized (learned) {
+                ModCatalog current = learned.get();
+                List<Mod> mods = new ArrayList<>(current.mods());
+                for (Mod m : unknown) {
+                    if (base.byId(m.getId()) == null && current.byId(m.getId()) == null) mods.add(m);
+                }
+                int added = mods.size() - current.size();
+                if (added == 0) return;
+                ModCatalog updated = ModCatalog.of(mods, Instant.EPOCH);
+                learned.set(updated);
+                learnedModStore.save(updated.mods());
+                LOG.info("Learned {} mods from live search, {} waiting for the next refresh", added, updated.size());
+            }
+        }, task -> scheduler.schedule(Duration.ZERO, task)).exceptionally(e -> {
+            LOG.warn("Failed to add live search results to the catalog: {}", e.getMessage());
+            return null;
+        }));
+    }
+
+    /**
+     * Free text with words the catalog does not know replaced by their closest known spelling
+     */
+    public String correctSpelling(String text) {
+        return current().searchIndex().correct(text);
+    }
+
+    /**
+     * Keyword relevance scorer over the current catalog, reading the normalized text and rule bits stored with it.
+     * Mod lists from {@link #getAllMods()} and {@link #getFreeMods()} are scored from those by catalog slot.
+     */
+    public RelevanceScorer relevanceScorer() {
+        return current().relevanceScorer();
+    }
+
+    /**
+     * Nearest-neighbour index of mod embeddings over the current catalog, built once per snapshot
+     */
+    public SemanticIndex semanticIndex() {
+        return current().semanticIndex();
     }
 
     /**
      * Get all available mods
      */
     public List<Mod> getAllMods() {
-        return new ArrayList<>(modCache);
+        return allMods(current(), m -> true);
+    }
+
+    // The catalog mods matching the filter, followed by the matching learned mods it does not contain yet
+    private List<Mod> allMods(ModCatalog snapshot, Predicate<Mod> filter) {
+        List<Mod> learnedOnly = new ArrayList<>();
+        for (Mod m : learned.get().mods()) {
+            if (filter.test(m) && snapshot.byId(m.getId()) == null) learnedOnly.add(m);
+        }
+        return snapshot.select(filter, learnedOnly);
     }
 
     /**
-     * Get mods by category/tags
+     * Get mods by category/tags: mods filed under the category plus keyword matches.
+     * Answered from the local catalog; Modrinth is only queried with a category facet before the first refresh.
      */
     public List<Mod> getModsByCategory(String category) {
         String lowerCategory = category.toLowerCase();
-        return modCache.stream()
-            .filter(mod -> mod.getDescription().toLowerCase().contains(lowerCategory) ||
-                          mod.getName().toLowerCase().contains(lowerCategory))
-            .collect(Collectors.toList());
+        ModCatalog snapshot = current();
+        Set<String> seen = new HashSet<>();
+        List<Mod> localMatches = new ArrayList<>();
+        List<ModCatalog> layers = List.of(snapshot, learned.get());
+        for (ModCatalog layer : layers) {
+            for (Mod m : layer.mods()) {
+                if (m.getCategories() != null && m.getCategories().contains(lowerCategory) && seen.add(m.getId())) {
+                    localMatches.add(m);
+                }
+            }
+        }
+        for (ModCatalog layer : layers) {
+            for (Mod m : layer.searchIndex().search(lowerCategory)) {
+                if (seen.add(m.getId())) localMatches.add(m);
+            }
+        }
+        return withLiveModrinth(snapshot, ModrinthSearchFilter.NONE.withCategories(lowerCategory), localMatches);
     }
 
     /**
-     * Get mod by ID
+     * Get mod by ID (or Modrinth slug) in constant time
      */
     public Mod getModById(String id) {
-        return modCache.stream()
-            .filter(mod -> mod.getId().equals(id))
-            .findFirst()
-            .orElse(null);
+        Mod mod = current().find(id);
+        return mod != null ? mod : learned.get().find(id);
     }
 
     /**
-     * Filter mods by free license only
+     * Filter mods by free license only.
+     * Answered from the local catalog; Modrinth is only queried with a license facet before the first refresh.
      */
     public List<Mod> getFreeMods() {
-        return modCache.stream()
-            .filter(Mod::isFreeLicense)
-            .collect(Collectors.toList());
+        ModCatalog snapshot = current();
+        List<Mod> localFree = allMods(snapshot, Mod::isFreeLicense);
+        return withLiveModrinth(snapshot, ModrinthSearchFilter.NONE.withFreeLicenses(), localFree);
     }
 
     /**
-     * Refresh mod cache from remote repositories
+     * The local matches, plus the Modrinth projects matching {@code filter} if the catalog was never refreshed
+     * (so it holds no synced Modrinth data yet). A refreshed catalog is answered without the network.
      */
-    public void refreshModCache() {
-        LOG.info("Refreshing mod cache from repositories...");
+    private List<Mod> withLiveModrinth(ModCatalog snapshot, ModrinthSearchFilter filter, List<Mod> localMatches) {
+        boolean synced = !Instant.EPOCH.equals(snapshot.refreshedAt());
+        List<Mod> remote = !synced && modrinthEnabled && !offline
+            ? modrinthClient.get().search("", modrinthFilterLimit, filter)
+            : List.of();
+        if (remote.isEmpty()) {
+            // Returned as is, so a catalog selection keeps the slots the relevance scorer reads
+            return localMatches;
+        }
 
         Set<String> seen = new HashSet<>();
-        // Keep existing sample mods as fallback
-        List<Mod> newCache = new ArrayList<>();
+        List<Mod> result = new ArrayList<>();
+        for (Mod m : localMatches) {
+            if (seen.add(m.getId())) result.add(m);
+        }
+        for (Mod m : remote) {
+            if (m.getId() != null && seen.add(m.getId())) result.add(m);
+        }
+        return result;
+    }
 
-        // Try Modrinth
-        if (modrinthEnabled && modrinthClient != null) {
-            try {
-                LOG.info("Fetching mods from Modrinth...");
-                List<Mod> fromModrinth = modrinthClient.search("", 50); // get recent/popular
-                for (Mod m : fromModrinth) {
-                    if (m.getId() == null) continue;
-                    if (seen.add(m.getId())) newCache.add(m);
+    /**
+     * Refresh mod cache from remote repositories and wait for the new catalog
+     */
+    public void refreshModCache() {
+        refreshAsync().exceptionally(e -> null).join();
+    }
+
+    /**
+     * Refresh the catalog on the scheduler. If a refresh is already running, its future is returned instead
+     * of starting another one. Readers keep seeing the previous snapshot until the new one is published.
+     */
+    public CompletableFuture<ModCatalog> refreshAsync() {
+        if (offline) {
+            LOG.info("Offline mode: serving the persisted catalog ({} mods)", catalog.get().size());
+            return CompletableFuture.completedFuture(catalog.get());
+        }
+        CompletableFuture<ModCatalog> created = new CompletableFuture<>();
+        CompletableFuture<ModCatalog> existing = inFlightRefresh.compareAndExchange(null, created);
+        if (existing != null) return existing;
+
+        try {
+            scheduler.schedule(Duration.ZERO, () -> {
+                try {
+                    created.complete(doRefresh());
+                } catch (Throwable t) {
+                    LOG.warn("Mod catalog refresh failed: {}", t.getMessage());
+                    created.completeExceptionally(t);
+                } finally {
+                    inFlightRefresh.compareAndSet(created, null);
                 }
-                LOG.info("Imported {} mods from Modrinth", fromModrinth.size());
-            } catch (Exception e) {
-                LOG.warn("Failed to fetch from Modrinth: {}", e.getMessage());
-            }
+            });
+        } catch (RuntimeException e) {
+            // Scheduler unavailable (e.g. shutting down)
+            inFlightRefresh.compareAndSet(created, null);
+            created.completeExceptionally(e);
         }
+        return created;
+    }
 
-        // Try CurseForge
-        if (curseforgeEnabled && curseForgeClient != null) {
+    private ModCatalog current() {
+        CompletableFuture<ModCatalog> initial = coldStart;
+        if (initial != null) {
             try {
-                LOG.info("Fetching mods from CurseForge...");
-                List<Mod> fromCurse = curseForgeClient.search("", 50);
-                for (Mod m : fromCurse) {
+                initial.get(coldStartWaitSeconds, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                LOG.info("First catalog refresh still running after {}s; answering from the catalog at hand",
+                    coldStartWaitSeconds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // already logged by the refresh
+            }
+            coldStart = null;
+        }
+        return catalog.get();
+    }
+
+    private ModCatalog doRefresh() {
+        LOG.info("Refreshing mod cache from repositories...");
+        Instant refreshedAt = Instant.now();
+        long started = System.nanoTime();
+
+        // Every source runs in its own virtual thread under its own deadline.
+        // The scope is torn down when the refresh ends, interrupting anything still running.
+        List<SourceFetch> fetches = new ArrayList<>();
+        ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            if (modrinthEnabled) {
+                // full catalog, incremental after the first run
+                ModrinthCatalogSync sync = modrinthCatalogSync.get();
+                // A crawl cut off by the deadline still contributes the pages it got through
+                fetches.add(submit(scope, "Modrinth", modrinthBulkhead, started, modrinthDeadlineSeconds,
+                    sync::sync, sync::progress));
+            }
+            if (curseforgeEnabled) {
+                fetches.add(submit(scope, "CurseForge", curseforgeBulkhead, started, curseforgeDeadlineSeconds,
+                    () -> curseForgeClient.get().search("", curseforgeRefreshLimit), List::of));
+            }
+            // GitHub is best-effort and requires repository identifiers to be known
+            if (githubEnabled) {
+                // Example repos can be configured via application properties
+                Set<String> repos = new LinkedHashSet<>();
+                if (githubExampleReposCsv != null) {
+                    for (String repo : githubExampleReposCsv.split(",")) {
+                        if (!repo.isBlank()) repos.add(repo.trim());
+                    }
+                }
+                if (!repos.isEmpty()) {
+                    List<String> repoList = List.copyOf(repos);
+                    fetches.add(submit(scope, "GitHub", githubBulkhead, started, githubDeadlineSeconds,
+                        () -> gitHubReleasePoller.get().poll(repoList), List::of));
+                }
+            }
+
+            // Merge in the fixed priority order: Modrinth, CurseForge, then GitHub repos as configured
+            Set<String> seen = new HashSet<>();
+            List<Mod> newCache = new ArrayList<>();
+            List<String> partialSources = new ArrayList<>();
+            for (SourceFetch fetch : fetches) {
+                List<Mod> mods = await(fetch, partialSources);
+                for (Mod m : mods) {
                     if (m.getId() == null) continue;
                     if (seen.add(m.getId())) newCache.add(m);
                 }
-                LOG.info("Imported {} mods from CurseForge", fromCurse.size());
-            } catch (Exception e) {
-                LOG.warn("Failed to fetch from CurseForge: {}", e.getMessage());
             }
+
+            // Merge: keep previously known mods (initially the samples) not duplicated. This also keeps
+            // the last good data of any source that failed or missed its deadline.
+            for (Mod m : catalog.get().mods()) {
+                if (seen.add(m.getId())) newCache.add(m);
+            }
+            // Fold in the mods live search learned since the last refresh
+            ModCatalog folded = learned.get();
+            for (Mod m : folded.mods()) {
+                if (seen.add(m.getId())) newCache.add(m);
+            }
+
+            ModCatalog snapshot = ModCatalog.of(newCache, refreshedAt, partialSources);
+            catalog.set(snapshot);
+            catalogStore.save(snapshot);
+            // Mods learned while the refresh ran stay in the overlay for the next one
+            synchronized (learned) {
+                if (learned.compareAndSet(folded, ModCatalog.empty())) learnedModStore.clear();
+            }
+
+            if (partialSources.isEmpty()) {
+                LOG.info("Mod cache refresh complete. Total mods: {}", snapshot.size());
+            } else {
+                LOG.warn("Mod cache refresh partial. Total mods: {}, incomplete sources: {}",
+                    snapshot.size(), partialSources);
+            }
+            return snapshot;
+        } finally {
+            scope.shutdownNow();
         }
+    }
 
-        // Try GitHub - this is best-effort and requires repository identifiers to be known
-        if (githubEnabled && gitHubClient != null) {
+    /**
+     * Run {@code fetch} under the source's bulkhead and deadline. {@code progress} supplies what the source got
+     * before a timeout cut it off.
+     */
+    private SourceFetch submit(ExecutorService scope, String name, Semaphore bulkhead, long started,
+                               long deadlineSeconds, Callable<List<Mod>> fetch, Supplier<List<Mod>> progress) {
+        long deadline = started + TimeUnit.SECONDS.toNanos(deadlineSeconds);
+        BulkheadPermit permit = new BulkheadPermit(bulkhead);
+        Future<List<Mod>> future = scope.submit(() -> {
+            // The bulkhead caps how many calls a source may have open; waiting for it counts against the deadline
+            if (!permit.acquire(Math.max(0, deadline - System.nanoTime()))) {
+                throw new TimeoutException("bulkhead full");
+            }
             try {
-                LOG.info("Fetching some releases from GitHub (example repos)...");
-                // Example repos can be configured via application properties
-                List<String> exampleRepos = githubExampleReposCsv == null || githubExampleReposCsv.isBlank()
-                    ? List.of()
-                    : List.of(githubExampleReposCsv.split(","));
-                for (String repo : exampleRepos) {
-                    List<Mod> fromGit = gitHubClient.fetchLatestRelease(repo);
-                    for (Mod m : fromGit) {
-                        if (m.getId() == null) continue;
-                        if (seen.add(m.getId())) newCache.add(m);
-                    }
-                }
-                LOG.info("Imported {} mods from GitHub", newCache.size());
-            } catch (Exception e) {
-                LOG.warn("Failed to fetch from GitHub: {}", e.getMessage());
+                LOG.info("Fetching mods from {}...", name);
+                return fetch.call();
+            } finally {
+                permit.release();
             }
+        });
+        return new SourceFetch(name, future, deadline, permit, progress);
+    }
+
+    /**
+     * Wait for one source until its deadline. A source that times out contributes only its progress so far and
+     * one that fails contributes nothing; either is recorded in {@code partialSources}. A timed-out call is
+     * interrupted.
+     */
+    private List<Mod> await(SourceFetch fetch, List<String> partialSources) {
+        try {
+            List<Mod> mods = fetch.future().get(Math.max(0, fetch.deadline() - System.nanoTime()), TimeUnit.NANOSECONDS);
+            LOG.info("Imported {} mods from {}", mods.size(), fetch.name());
+            return mods;
+        } catch (TimeoutException e) {
+            fetch.future().cancel(true);
+            // A call that ignores the interrupt must not keep the next refresh of this source out
+            fetch.releasePermit();
+            List<Mod> progress = fetch.progress().get();
+            LOG.warn("{} missed its deadline, keeping the {} mods it got and its previous mods",
+                fetch.name(), progress.size());
+            partialSources.add(fetch.name() + " (timed out)");
+            return progress;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            LOG.warn("Failed to fetch from {}: {}", fetch.name(), cause.getMessage());
+            partialSources.add(fetch.name() + " (failed)");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fetch.future().cancel(true);
+            fetch.releasePermit();
+            partialSources.add(fetch.name() + " (interrupted)");
+        }
+        return List.of();
+    }
+
+    /**
+     * Sources that failed or missed their deadline in the last refresh; empty when it was complete.
+     */
+    public List<String> getPartialSources() {
+        return catalog.get().partialSources();
+    }
+
+    /**
+     * When the catalog was last refreshed from the remote repositories, or {@link Instant#EPOCH} if never
+     */
+    public Instant getCatalogRefreshedAt() {
+        return catalog.get().refreshedAt();
+    }
+
+    /**
+     * Whether the catalog is older than the refresh TTL or its last refresh was incomplete. The background
+     * refresh started for a stale catalog only gets the shutdown grace period once the command is done, so it
+     * may need --refresh to complete.
+     */
+    public boolean isCatalogStale() {
+        if (offline) return false;
+        return needsRefresh(catalog.get());
+    }
+
+    // A source that failed or missed its deadline is retried on the next run (a cut-off crawl resumes from
+    // its checkpoint) rather than after the TTL
+    private boolean needsRefresh(ModCatalog snapshot) {
+        if (!snapshot.partialSources().isEmpty()) return true;
+        Duration age = Duration.between(snapshot.refreshedAt(), Instant.now());
+        return age.compareTo(Duration.ofMinutes(refreshTtlMinutes)) >= 0;
+    }
+
+    private record SourceFetch(String name, Future<List<Mod>> future, long deadline, BulkheadPermit permit,
+                               Supplier<List<Mod>> progress) {
+        SourceFetch(String name, Future<List<Mod>> future, long deadline) {
+            this(name, future, deadline, null, List::of);
         }
 
-        // Merge: keep sample mods not duplicated
-        for (Mod m : new ArrayList<>(modCache)) {
-            if (seen.add(m.getId())) newCache.add(m);
+        void releasePermit() {
+            if (permit != null) permit.release();
         }
+    }
 
-        modCache.clear();
-        modCache.addAll(newCache);
+    /**
+     * One call's hold on a source bulkhead, released exactly once: by the call when it ends, or by the refresh
+     * when the call misses its deadline. A call that has not acquired it by then never will.
+     */
+    private static final class BulkheadPermit {
+        private static final int WAITING = 0;
+        private static final int HELD = 1;
+        private static final int DONE = 2;
 
-        LOG.info("Mod cache refresh complete. Total mods: {}", modCache.size());
+        private final Semaphore bulkhead;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        BulkheadPermit(Semaphore bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        boolean acquire(long timeoutNanos) throws InterruptedException {
+            if (!bulkhead.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) return false;
+            if (state.compareAndSet(WAITING, HELD)) return true;
+            // Released by the refresh while waiting
+            bulkhead.release();
+            return false;
+        }
+
+        void release() {
+            if (state.getAndSet(DONE) == HELD) bulkhead.release();
+        }
     }
 }
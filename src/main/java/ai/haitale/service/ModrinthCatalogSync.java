@@ -0,0 +1,351 @@
+package ai.haitale.service;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.ModrinthClient.ProjectMapping;
+import ai.haitale.service.ModrinthClient.SearchPage;
+import ai.haitale.service.modrinth.dto.ModrinthProject;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.serde.ObjectMapper;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Crawls the Modrinth catalog page by page and keeps a local copy in sync.
+ * <p>
+ * The first run pages through the whole catalog (several pages in flight at once). The newest
+ * date_modified seen becomes the sync watermark; later runs walk the "updated" index only until they reach
+ * projects at or below the watermark and re-fetch just those. Watermark and mods are persisted under the
+ * haitale data directory, so a full crawl happens once and later syncs only touch recently changed projects.
+ * A full crawl checkpoints its offset as it goes, so one cut off by a deadline or shutdown resumes next run.
+ * The watermark only moves when every page and every project mapping succeeded; after a failed page (429,
+ * timeout, 5xx) the mods fetched so far are kept but the next run walks the same range again.
+ */
+@Singleton
+public class ModrinthCatalogSync {
+    private static final Logger LOG = LoggerFactory.getLogger(ModrinthCatalogSync.class);
+    private static final String STATE_FILE = "modrinth-sync.json";
+    private static final String UPDATED_INDEX = "updated";
+    // A full crawl persists its progress at most this often, so a cut-off crawl loses little work
+    private static final Duration CHECKPOINT_INTERVAL = Duration.ofSeconds(5);
+
+    private final ModrinthClient modrinthClient;
+    private final ObjectMapper objectMapper;
+    private final Path stateFile;
+    private final int pageSize;
+    private final int parallelPages;
+    private final int maxProjects;
+    // Mods known to the running (or last) sync, published after every merged wave, so a refresh that gives up on
+    // the sync at its deadline still gets what was crawled
+    private volatile List<Mod> progress = List.of();
+
+    public ModrinthCatalogSync(
+        ModrinthClient modrinthClient,
+        ObjectMapper objectMapper,
+        HaitaleDataDirectory dataDirectory,
+        @Value("${modrinth.sync.page-size:100}") int pageSize,
+        @Value("${modrinth.sync.parallel-pages:4}") int parallelPages,
+        @Value("${modrinth.sync.max-projects:0}") int maxProjects
+    ) {
+        this.modrinthClient = modrinthClient;
+        this.objectMapper = objectMapper;
+        this.stateFile = dataDirectory.resolve(STATE_FILE);
+        this.pageSize = Math.max(1, Math.min(pageSize, 100));
+        this.parallelPages = Math.max(1, parallelPages);
+        this.maxProjects = maxProjects;
+    }
+
+    /**
+     * Bring the local Modrinth catalog up to date and return every known mod.
+     * Falls back to the last persisted catalog if the network is unavailable. Interrupting the calling thread
+     * (e.g. when the refresh deadline passes) stops the sync promptly, after checkpointing a full crawl.
+     */
+    public List<Mod> sync() throws InterruptedException {
+        SyncState state = loadState();
+        Map<String, Mod> byId = new LinkedHashMap<>();
+        for (Mod m : state.getMods()) {
+            if (m.getId() != null) byId.put(m.getId(), m);
+        }
+        publish(byId);
+
+        if (state.getWatermark() == null) {
+            crawlAll(state, byId);
+        } else {
+            syncSince(state, byId);
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * Every mod the running sync has so far (or the last one returned): what a refresh keeps when it stops
+     * waiting for the sync at its deadline.
+     */
+    public List<Mod> progress() {
+        return progress;
+    }
+
+    private void publish(Map<String, Mod> byId) {
+        progress = List.copyOf(byId.values());
+    }
+
+    /**
+     * Page through the whole catalog, mapping each wave of pages as it arrives and checkpointing the mods and
+     * the next offset, so a crawl cut short (deadline, shutdown, failed page) resumes where it stopped on the
+     * next run. The watermark is only set once the crawl reaches the end.
+     */
+    private void crawlAll(SyncState state, Map<String, Mod> byId) throws InterruptedException {
+        int offset = state.getCrawlOffset();
+        if (offset > 0) {
+            LOG.info("Modrinth sync: resuming full catalog crawl at offset {}", offset);
+        } else {
+            LOG.info("Modrinth sync: no watermark found, crawling full catalog");
+        }
+        int total = maxProjects > 0 ? maxProjects : Integer.MAX_VALUE;
+        long lastCheckpoint = System.nanoTime();
+
+        // Pages are fetched in waves of parallelPages requests
+        while (offset < total) {
+            List<CompletableFuture<SearchPage>> wave = new ArrayList<>();
+            for (int i = 0, o = offset; i < parallelPages && o < total; i++, o += pageSize) {
+                wave.add(modrinthClient.searchPageAsync("", UPDATED_INDEX, o, pageSize));
+            }
+            List<ModrinthProject> hits = new ArrayList<>();
+            int pages = 0;
+            boolean exhausted = false;
+            ProjectMapping mapping;
+            try {
+                for (CompletableFuture<SearchPage> page : wave) {
+                    SearchPage result = await(page);
+                    // Pages after a failed one are fetched again by the next attempt
+                    if (result.failed()) break;
+                    pages++;
+                    hits.addAll(result.hits());
+                    if (result.totalHits() >= 0) total = Math.min(total, result.totalHits());
+                    if (result.hits().size() < pageSize) {
+                        exhausted = true;
+                        break;
+                    }
+                }
+                mapping = hits.isEmpty()
+                    ? new ProjectMapping(List.of(), true)
+                    : await(modrinthClient.toModsAsync(hits));
+            } catch (InterruptedException e) {
+                wave.forEach(page -> page.cancel(true));
+                checkpoint(state, byId);
+                LOG.info("Modrinth sync interrupted, full crawl will resume at offset {}", offset);
+                throw e;
+            }
+            for (Mod m : mapping.mods()) {
+                if (m.getId() != null) byId.put(m.getId(), m);
+            }
+            publish(byId);
+            if (!mapping.complete()) {
+                checkpoint(state, byId);
+                LOG.warn("Modrinth sync: mapping failed, full crawl will resume at offset {}", offset);
+                return;
+            }
+            for (ModrinthProject p : hits) {
+                Instant modified = parseInstant(p.date_modified);
+                if (modified != null && (state.getCrawlNewest() == null || modified.isAfter(state.getCrawlNewest()))) {
+                    state.setCrawlNewest(modified);
+                }
+            }
+            offset += pages * pageSize;
+            state.setCrawlOffset(offset);
+
+            if (exhausted) break;
+            if (pages < wave.size()) {
+                checkpoint(state, byId);
+                LOG.warn("Modrinth sync: a page failed, full crawl will resume at offset {} ({} mods so far)",
+                    offset, byId.size());
+                return;
+            }
+            if (System.nanoTime() - lastCheckpoint >= CHECKPOINT_INTERVAL.toNanos()) {
+                checkpoint(state, byId);
+                lastCheckpoint = System.nanoTime();
+            }
+        }
+
+        state.setWatermark(state.getCrawlNewest());
+        state.setCrawlOffset(0);
+        state.setCrawlNewest(null);
+        checkpoint(state, byId);
+        LOG.info("Modrinth sync: full crawl complete, {} mods in local catalog (watermark {})",
+            byId.size(), state.getWatermark());
+    }
+
+    private void syncSince(SyncState state, Map<String, Mod> byId) throws InterruptedException {
+        Instant watermark = state.getWatermark();
+        Crawl crawl = crawlSince(watermark);
+        List<ModrinthProject> changed = crawl.projects();
+
+        if (!changed.isEmpty()) {
+            ProjectMapping mapping = await(modrinthClient.toModsAsync(changed));
+            for (Mod m : mapping.mods()) {
+                if (m.getId() != null) byId.put(m.getId(), m);
+            }
+            publish(byId);
+
+            Instant newest = watermark;
+            if (crawl.complete() && mapping.complete()) {
+                for (ModrinthProject p : changed) {
+                    Instant modified = parseInstant(p.date_modified);
+                    if (modified != null && modified.isAfter(newest)) newest = modified;
+                }
+            } else {
+                LOG.warn("Modrinth sync incomplete, keeping watermark {} so the next sync fetches these projects again",
+                    watermark);
+            }
+
+            state.setWatermark(newest);
+            checkpoint(state, byId);
+            LOG.info("Modrinth sync: {} changed projects, {} mods in local catalog (watermark {})",
+                changed.size(), byId.size(), newest);
+        } else if (!crawl.complete()) {
+            LOG.warn("Modrinth sync failed before any changes were fetched, {} mods in local catalog", byId.size());
+        } else {
+            LOG.info("Modrinth sync: no changes since {}, {} mods in local catalog", watermark, byId.size());
+        }
+    }
+
+    private Crawl crawlSince(Instant watermark) throws InterruptedException {
+        List<ModrinthProject> changed = new ArrayList<>();
+        int offset = 0;
+        // The "updated" index is newest-first, so stop at the first project at or below the watermark
+        while (true) {
+            List<CompletableFuture<SearchPage>> wave = new ArrayList<>();
+            for (int i = 0; i < parallelPages; i++) {
+                wave.add(modrinthClient.searchPageAsync("", UPDATED_INDEX, offset + i * pageSize, pageSize));
+            }
+            offset += parallelPages * pageSize;
+
+            try {
+                for (CompletableFuture<SearchPage> page : wave) {
+                    SearchPage result = await(page);
+                    // Stop at a failed page: the projects it held were never seen
+                    if (result.failed()) return new Crawl(changed, false);
+                    if (result.hits().isEmpty()) return new Crawl(changed, true);
+                    for (ModrinthProject p : result.hits()) {
+                        Instant modified = parseInstant(p.date_modified);
+                        if (modified == null || !modified.isAfter(watermark)) return new Crawl(changed, true);
+                        changed.add(p);
+                    }
+                }
+            } catch (InterruptedException e) {
+                wave.forEach(page -> page.cancel(true));
+                throw e;
+            }
+            if (maxProjects > 0 && changed.size() >= maxProjects) return new Crawl(changed, true);
+        }
+    }
+
+    // Unlike join(), gives up when the thread is interrupted. The client's futures never fail, only get cancelled.
+    private static <T> T await(CompletableFuture<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private SyncState loadState() {
+        if (!Files.exists(stateFile)) return new SyncState();
+        try (InputStream in = Files.newInputStream(stateFile)) {
+            SyncState state = objectMapper.readValue(in, SyncState.class);
+            return state != null ? state : new SyncState();
+        } catch (IOException e) {
+            LOG.warn("Ignoring unreadable Modrinth sync state {}: {}", stateFile, e.getMessage());
+            return new SyncState();
+        }
+    }
+
+    private void checkpoint(SyncState state, Map<String, Mod> byId) {
+        state.setMods(new ArrayList<>(byId.values()));
+        saveState(state);
+    }
+
+    private void saveState(SyncState state) {
+        try {
+            Files.createDirectories(stateFile.getParent());
+            Path tmp = Files.createTempFile(stateFile.getParent(), "modrinth-sync", ".tmp");
+            Files.write(tmp, objectMapper.writeValueAsBytes(state));
+            Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Failed to persist Modrinth sync state: {}", e.getMessage());
+        }
+    }
+
+    private Instant parseInstant(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Projects fetched by a crawl; not complete when a page failed
+    private record Crawl(List<ModrinthProject> projects, boolean complete) {
+    }
+
+    @Serdeable
+    public static class SyncState {
+        private Instant watermark;
+        private List<Mod> mods = new ArrayList<>();
+        // Progress of an unfinished full crawl: the next offset and the newest date_modified seen so far
+        private int crawlOffset;
+        private Instant crawlNewest;
+
+        public Instant getWatermark() {
+            return watermark;
+        }
+
+        public void setWatermark(Instant watermark) {
+            this.watermark = watermark;
+        }
+
+        public List<Mod> getMods() {
+            return mods;
+        }
+
+        public int getCrawlOffset() {
+            return crawlOffset;
+        }
+
+        public void setCrawlOffset(int crawlOffset) {
+            this.crawlOffset = Math.max(0, crawlOffset);
+        }
+
+        public Instant getCrawlNewest() {
+            return crawlNewest;
+        }
+
+        public void setCrawlNewest(Instant crawlNewest) {
+            this.crawlNewest = crawlNewest;
+        }
+
+        public void setMods(List<Mod> mods) {
+            this.mods = mods != null ? mods : new ArrayList<>();
+        }
+    }
+}
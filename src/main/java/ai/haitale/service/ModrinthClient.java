@@ -1,26 +1,40 @@
 package ai.haitale.service;
 
 import ai.haitale.model.Mod;
+import ai.haitale.service.http.HttpResponseCache;
+import ai.haitale.service.http.HttpTransport;
+import ai.haitale.service.http.SingleFlight;
+import ai.haitale.service.http.HttpResponseCache.CachedResponse;
+import ai.haitale.service.http.HttpResponseCache.StreamedResponse;
+import ai.haitale.service.modrinth.ModrinthSearchDecoder;
+import ai.haitale.service.modrinth.ModrinthSearchFilter;
+import ai.haitale.service.modrinth.ModrinthVersionCache;
 import ai.haitale.service.modrinth.dto.ModrinthProject;
 import ai.haitale.service.modrinth.dto.ModrinthVersion;
 import io.micronaut.serde.ObjectMapper;
 import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -28,14 +42,45 @@ public class ModrinthClient {
     private static final Logger LOG = LoggerFactory.getLogger(ModrinthClient.class);
     private static final String DEFAULT_BASE = "https://api.modrinth.com/v2";
     private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    // Conservative limit so chunked bulk lookups stay well within common proxy/server URL limits
+    private static final int MAX_URL_LENGTH = 2000;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_MAX_CONCURRENCY = 8;
+    // Bulk endpoints, each followed by a URL-encoded JSON array of ids
+    private static final String VERSIONS_PATH = "/versions?ids=";
+    private static final String PROJECTS_PATH = "/projects?ids=";
+    private static final com.fasterxml.jackson.databind.ObjectMapper JACKSON = new com.fasterxml.jackson.databind.ObjectMapper();
 
-    private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final HttpResponseCache responseCache;
+    private final ModrinthVersionCache versionCache;
     private final String baseUrl;
+    // Async calls run on virtual threads; the semaphore bounds how many HTTP exchanges are in flight at once
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+    // Single-flight groups so identical concurrent lookups share one HTTP request
+    private final SingleFlight<String, List<Mod>> searches = new SingleFlight<>();
+    private final SingleFlight<String, SearchPage> searchPages = new SingleFlight<>();
+    private final SingleFlight<String, ModrinthVersion> versionLookups = new SingleFlight<>();
+    private final SingleFlight<String, List<ModrinthVersion>> bulkLookups = new SingleFlight<>();
+
+    public ModrinthClient(ObjectMapper objectMapper, String configuredBase) {
+        this(objectMapper, HttpResponseCache.disabled(HttpTransport.standalone()), ModrinthVersionCache.inMemory(objectMapper),
+            configuredBase, DEFAULT_MAX_CONCURRENCY);
+    }
 
-    public ModrinthClient(ObjectMapper objectMapper, @Value("${modrinth.api.base:}") String configuredBase) {
+    @Inject
+    public ModrinthClient(
+        ObjectMapper objectMapper,
+        HttpResponseCache responseCache,
+        ModrinthVersionCache versionCache,
+        @Value("${modrinth.api.base:}") String configuredBase,
+        @Value("${modrinth.api.max-concurrency:8}") int maxConcurrency
+    ) {
         this.objectMapper = objectMapper;
-        this.httpClient = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+        this.responseCache = responseCache;
+        this.versionCache = versionCache;
+        this.inFlight = new Semaphore(Math.max(1, maxConcurrency));
         if (configuredBase == null || configuredBase.isEmpty()) {
             this.baseUrl = DEFAULT_BASE;
         } else {
@@ -43,48 +88,228 @@ public class ModrinthClient {
         }
     }
 
-    // Public search remains simple: map hits to Mod via projectToMod
-    @SuppressWarnings("unchecked")
+    /**
+     * Stop accepting work at shutdown. Lookups already running are left to finish, so a refresh inside its
+     * shutdown grace period is not cut off.
+     */
+    @PreDestroy
+    void close() {
+        executor.shutdown();
+    }
+
+    // Public search: parse hits, resolve all latest versions in bulk, then map each hit to a Mod
     public List<Mod> search(String query, int limit) {
+        return search(query, limit, ModrinthSearchFilter.NONE);
+    }
+
+    /**
+     * Search with facet filters applied server-side, so only matching projects go over the wire.
+     */
+    public List<Mod> search(String query, int limit, ModrinthSearchFilter filter) {
+        return searchAsync(query, limit, filter).join();
+    }
+
+    public CompletableFuture<List<Mod>> searchAsync(String query, int limit) {
+        return searchAsync(query, limit, ModrinthSearchFilter.NONE);
+    }
+
+    /**
+     * Non-blocking search. Completes with an empty list on any error, never exceptionally.
+     */
+    public CompletableFuture<List<Mod>> searchAsync(String query, int limit, ModrinthSearchFilter filter) {
+        ModrinthSearchFilter f = filter == null ? ModrinthSearchFilter.NONE : filter;
+        // Identical concurrent searches share one request
+        return searches.execute(query + "|" + limit + "|" + f.toFacets(),
+                () -> CompletableFuture.supplyAsync(() -> doSearch(query, limit, f), executor))
+            .exceptionally(e -> {
+                LOG.warn("Error searching Modrinth: {}", e.getMessage());
+                return List.of();
+            });
+    }
+
+    private List<Mod> doSearch(String query, int limit, ModrinthSearchFilter filter) {
+        SearchPage first = fetchSearchPage(query, null, 0, limit, filter);
+        if (first.hits().isEmpty()) return List.of();
+
+        // Limits above one page are fetched as further pages in parallel
+        List<ModrinthProject> hits = new ArrayList<>(first.hits());
+        int wanted = first.totalHits() >= 0 ? Math.min(limit, first.totalHits()) : limit;
+        if (wanted > hits.size() && first.hits().size() == MAX_PAGE_SIZE) {
+            List<CompletableFuture<SearchPage>> rest = new ArrayList<>();
+            for (int offset = MAX_PAGE_SIZE; offset < wanted; offset += MAX_PAGE_SIZE) {
+                rest.add(searchPageAsync(query, null, offset, Math.min(MAX_PAGE_SIZE, wanted - offset), filter));
+            }
+            rest.forEach(page -> hits.addAll(page.join().hits()));
+        }
+
+        List<Mod> result = toMods(hits);
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    public CompletableFuture<SearchPage> searchPageAsync(String query, String index, int offset, int limit) {
+        return searchPageAsync(query, index, offset, limit, ModrinthSearchFilter.NONE);
+    }
+
+    /**
+     * Fetch one raw page of search hits. {@code index} is a Modrinth sort index ("relevance", "updated", ...)
+     * or null for the API default. On error completes with a page marked {@link SearchPage#failed()}, never
+     * exceptionally, so callers can tell a failed page from the end of the results.
+     */
+    public CompletableFuture<SearchPage> searchPageAsync(String query, String index, int offset, int limit,
+                                                         ModrinthSearchFilter filter) {
+        ModrinthSearchFilter f = filter == null ? ModrinthSearchFilter.NONE : filter;
+        String key = query + "|" + index + "|" + offset + "|" + limit + "|" + f.toFacets();
+        return searchPages.execute(key,
+                () -> CompletableFuture.supplyAsync(() -> fetchSearchPage(query, index, offset, limit, f), executor))
+            .exceptionally(e -> {
+                LOG.warn("Error searching Modrinth: {}", e.getMessage());
+                return SearchPage.FAILED;
+            });
+    }
+
+    private SearchPage fetchSearchPage(String query, String index, int offset, int limit, ModrinthSearchFilter filter) {
         try {
             String encoded = java.net.URLEncoder.encode(query == null ? "" : query, StandardCharsets.UTF_8);
-            String uri = baseUrl + "/search?query=" + encoded + "&limit=" + Math.max(1, Math.min(limit, 100));
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            StringBuilder uri = new StringBuilder(baseUrl).append("/search?query=").append(encoded)
+                .append("&limit=").append(pageSize);
+            if (offset > 0) uri.append("&offset=").append(offset);
+            if (index != null) uri.append("&index=").append(index);
+            String facets = filter.toFacets();
+            if (facets != null) uri.append("&facets=").append(java.net.URLEncoder.encode(facets, StandardCharsets.UTF_8));
             HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create(uri))
+                .uri(URI.create(uri.toString()))
                 .timeout(TIMEOUT)
                 .GET()
                 .build();
 
-            HttpResponse<String> resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() != 200) {
-                LOG.warn("Modrinth search returned {} for query={}", resp.statusCode(), query);
-                return List.of();
+            // The concurrency permit covers the exchange and the decode, which reads from the connection
+            inFlight.acquire();
+            try (StreamedResponse resp = responseCache.sendStreaming(req)) {
+                if (resp.statusCode() != 200) {
+                    LOG.warn("Modrinth search returned {} for query={}", resp.statusCode(), query);
+                    return SearchPage.FAILED;
+                }
+                // Bind hits straight from the response stream (teed to the disk cache); no intermediate String/Map per hit
+                ModrinthSearchDecoder.Page page = ModrinthSearchDecoder.decodePage(resp.body(), pageSize);
+                return new SearchPage(page.hits(), page.totalHits());
+            } finally {
+                inFlight.release();
             }
+        } catch (IOException | InterruptedException e) {
+            LOG.warn("Error searching Modrinth: {}", e.getMessage());
+            return SearchPage.FAILED;
+        }
+    }
 
-            Map<String, Object> body = objectMapper.readValue(resp.body().getBytes(StandardCharsets.UTF_8), Map.class);
-            Object hitsObj = body.get("hits");
-            if (!(hitsObj instanceof List<?> hitsList)) {
-                LOG.warn("Unexpected Modrinth search response format");
-                return List.of();
+    /**
+     * Map many projects to Mods with a single bulk version lookup. Projects without a usable version are dropped.
+     * The result is incomplete when a lookup failed, as opposed to a project genuinely having no usable version.
+     */
+    public CompletableFuture<ProjectMapping> toModsAsync(List<ModrinthProject> projects) {
+        return CompletableFuture.supplyAsync(() -> mapProjects(projects), executor)
+            .exceptionally(e -> {
+                LOG.warn("Error mapping Modrinth projects: {}", e.getMessage());
+                return new ProjectMapping(List.of(), false);
+            });
+    }
+
+    private List<Mod> toMods(List<ModrinthProject> projects) {
+        return mapProjects(projects).mods();
+    }
+
+    private ProjectMapping mapProjects(List<ModrinthProject> projects) {
+        // One bulk lookup for every hit instead of a /version round-trip per project
+        List<String> versionIds = projects.stream()
+            .map(this::pickVersionId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+        VersionLookup lookup = lookupVersionsAsync(versionIds).join();
+        Map<String, ModrinthVersion> versions = lookup.versions();
+
+        List<Mod> result = new ArrayList<>();
+        for (ModrinthProject proj : projects) {
+            try {
+                String versionId = pickVersionId(proj);
+                Mod mod = versionId == null ? null : toMod(proj, versions.get(versionId), null);
+                if (mod != null) result.add(mod);
+            } catch (Exception e) {
+                LOG.debug("Failed to map project hit: {}", e.getMessage());
             }
+        }
+        // Only mods that survived the version lookup are worth hydrating
+        boolean hydrated = hydrateMissingLicenses(result);
+        return new ProjectMapping(result, lookup.complete() && hydrated);
+    }
 
-            List<Mod> result = new ArrayList<>();
+    /**
+     * Fill in license, categories and downloads of mods whose search hit carried no license, with one bulk
+     * /projects?ids=[...] request per URL-sized chunk (chunks run concurrently) instead of a /project call per mod.
+     * Mods the lookup cannot resolve keep their empty license. Returns false if a chunk request failed.
+     */
+    private boolean hydrateMissingLicenses(List<Mod> mods) {
+        List<String> ids = mods.stream()
+            .filter(m -> m.getLicense() == null || m.getLicense().isEmpty())
+            .map(Mod::getId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+        if (ids.isEmpty()) return true;
 
-            for (Object h : hitsList) {
-                try {
-                    ModrinthProject proj = objectMapper.readValue(objectMapper.writeValueAsBytes(h), ModrinthProject.class);
-                    Mod mod = projectToMod(proj, null);
-                    if (mod != null) result.add(mod);
-                } catch (Exception e) {
-                    LOG.debug("Failed to map project hit: {}", e.getMessage());
-                }
-                if (result.size() >= limit) break;
+        List<CompletableFuture<List<Map<String, Object>>>> chunks = chunkIds(PROJECTS_PATH, ids).stream()
+            .map(chunk -> CompletableFuture.supplyAsync(() -> fetchProjectChunk(chunk), executor))
+            .collect(Collectors.toList());
+        // Mod ids are project ids, or slugs for projects that had none; index the answers by both
+        Map<String, Map<String, Object>> projects = new HashMap<>();
+        boolean complete = true;
+        for (CompletableFuture<List<Map<String, Object>>> chunk : chunks) {
+            List<Map<String, Object>> fetched = chunk.join();
+            if (fetched == null) {
+                complete = false;
+                continue;
+            }
+            for (Map<String, Object> project : fetched) {
+                if (project.get("id") != null) projects.put(String.valueOf(project.get("id")), project);
+                if (project.get("slug") != null) projects.putIfAbsent(String.valueOf(project.get("slug")), project);
             }
+        }
 
-            return result;
+        for (Mod mod : mods) {
+            if (mod.getLicense() != null && !mod.getLicense().isEmpty()) continue;
+            Map<String, Object> project = projects.get(mod.getId());
+            if (project == null) continue;
+            // On /projects the license is an object ({"id": "MIT", "name": ...}), unlike the plain id on search hits
+            if (project.get("license") instanceof Map<?, ?> license && license.get("id") != null) {
+                mod.setLicense(String.valueOf(license.get("id")));
+            }
+            if (project.get("categories") instanceof List<?> categories) {
+                mod.setCategories(categories.stream().map(String::valueOf).collect(Collectors.toList()));
+            }
+            if (project.get("downloads") instanceof Number downloads) {
+                mod.setDownloads(downloads.longValue());
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Returns the projects of one chunk as generic maps, or null if the request failed.
+     */
+    private List<Map<String, Object>> fetchProjectChunk(List<String> chunk) {
+        try {
+            String ids = objectMapper.writeValueAsString(chunk);
+            String uri = baseUrl + PROJECTS_PATH + java.net.URLEncoder.encode(ids, StandardCharsets.UTF_8);
+            HttpRequest req = HttpRequest.newBuilder().uri(URI.create(uri)).timeout(TIMEOUT).GET().build();
+            CachedResponse resp = send(req);
+            if (resp.statusCode() != 200) {
+                LOG.warn("Failed to bulk fetch {} Modrinth projects: HTTP {}", chunk.size(), resp.statusCode());
+                return null;
+            }
+            return JACKSON.readValue(resp.body(), new com.fasterxml.jackson.core.type.TypeReference<>() {});
         } catch (IOException | InterruptedException e) {
-            LOG.warn("Error searching Modrinth: {}", e.getMessage());
-            return List.of();
+            LOG.warn("Error bulk fetching Modrinth projects: {}", e.getMessage());
+            return null;
         }
     }
 
@@ -103,8 +328,25 @@ public class ModrinthClient {
             return null;
         }
 
-        ModrinthVersion version = fetchVersion(versionId);
-        if (version == null) return null;
+        return toMod(project, fetchVersion(versionId), preferredGameVersion);
+    }
+
+    /**
+     * Non-blocking variant of {@link #projectToMod(ModrinthProject, String)} for hydrating many projects at once.
+     */
+    public CompletableFuture<Mod> projectToModAsync(ModrinthProject project, String preferredGameVersion) {
+        return CompletableFuture.supplyAsync(() -> projectToMod(project, preferredGameVersion), executor)
+            .exceptionally(e -> {
+                LOG.warn("Error mapping Modrinth project: {}", e.getMessage());
+                return null;
+            });
+    }
+
+    /**
+     * Map a project to a Mod using an already-resolved version (e.g. from a bulk lookup).
+     */
+    private Mod toMod(ModrinthProject project, ModrinthVersion version, String preferredGameVersion) {
+        if (version == null || version.files == null) return null;
 
         List<ModrinthVersion.ModrinthFile> files = filterDownloadableFiles(version);
         if (files.isEmpty()) return null;
@@ -130,10 +372,37 @@ public class ModrinthClient {
     }
 
     private ModrinthVersion fetchVersion(String versionId) {
+        return fetchVersionAsync(versionId).join();
+    }
+
+    /**
+     * Fetch a single version without blocking. Completes with null when the version is missing or unusable.
+     * Served from the version cache when possible; versions are immutable once published.
+     */
+    public CompletableFuture<ModrinthVersion> fetchVersionAsync(String versionId) {
+        ModrinthVersion cached = versionCache.get(versionId);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        if (versionCache.isKnownMissing(versionId)) return CompletableFuture.completedFuture(null);
+
+        return versionLookups.execute(versionId,
+                () -> CompletableFuture.supplyAsync(() -> doFetchVersion(versionId), executor))
+            .exceptionally(e -> {
+                LOG.warn("Error fetching Modrinth version {}: {}", versionId, e.getMessage());
+                return null;
+            });
+    }
+
+    private ModrinthVersion doFetchVersion(String versionId) {
         try {
             String verUri = baseUrl + "/version/" + java.net.URLEncoder.encode(versionId, StandardCharsets.UTF_8);
             HttpRequest vReq = HttpRequest.newBuilder().uri(URI.create(verUri)).timeout(TIMEOUT).GET().build();
-            HttpResponse<String> vResp = httpClient.send(vReq, HttpResponse.BodyHandlers.ofString());
+            CachedResponse vResp = send(vReq);
+            if (vResp.statusCode() == 404) {
+                LOG.debug("Modrinth version {} not found", versionId);
+                versionCache.putMissing(versionId);
+                versionCache.flushMissing();
+                return null;
+            }
             if (vResp.statusCode() != 200) {
                 LOG.warn("Failed to fetch Modrinth version {}: HTTP {}", versionId, vResp.statusCode());
                 return null;
@@ -142,7 +411,7 @@ public class ModrinthClient {
             // Typed DTO deserialization using injected ObjectMapper
             ModrinthVersion version;
             try {
-                version = objectMapper.readValue(vResp.body().getBytes(StandardCharsets.UTF_8), ModrinthVersion.class);
+                version = objectMapper.readValue(vResp.body(), ModrinthVersion.class);
             } catch (Exception ex) {
                 LOG.warn("Failed to deserialize Modrinth version JSON for {}: {}", versionId, ex.getMessage());
                 version = null;
@@ -150,13 +419,21 @@ public class ModrinthClient {
 
             // If typed deserialization produced no usable files, try a robust map-based fallback
             if (version == null || version.files == null || version.files.isEmpty()) {
-                ModrinthVersion parsed = parseVersionFromJson(vResp.body());
+                ModrinthVersion parsed = parseVersionFromJson(vResp.bodyAsString());
+                // Neither parser could read the body: treat it like a failed request rather than a missing version
+                if (version == null && parsed == null) return null;
                 if (parsed != null && parsed.files != null && !parsed.files.isEmpty()) {
                     version = parsed;
                 }
             }
 
-            if (version == null || version.files == null || version.files.isEmpty()) return null;
+            if (version == null || version.files == null || version.files.isEmpty()) {
+                versionCache.putMissing(versionId);
+                versionCache.flushMissing();
+                return null;
+            }
+            if (version.id == null) version.id = versionId;
+            versionCache.put(version);
             return version;
 
         } catch (IOException | InterruptedException e) {
@@ -165,49 +442,192 @@ public class ModrinthClient {
         }
     }
 
+    /**
+     * Resolve many versions with the bulk /versions?ids=[...] endpoint.
+     * Ids are split into chunks so each request URL stays under MAX_URL_LENGTH.
+     * Versions that fail to load or have no files are simply absent from the result.
+     */
+    Map<String, ModrinthVersion> fetchVersions(List<String> versionIds) {
+        return fetchVersionsAsync(versionIds).join();
+    }
+
+    /**
+     * Non-blocking bulk version lookup; chunks are requested concurrently (bounded by the client's concurrency limit).
+     * Cached versions and ids in the negative cache are never requested.
+     */
+    public CompletableFuture<Map<String, ModrinthVersion>> fetchVersionsAsync(List<String> versionIds) {
+        return lookupVersionsAsync(versionIds).thenApply(VersionLookup::versions);
+    }
+
+    private CompletableFuture<VersionLookup> lookupVersionsAsync(List<String> versionIds) {
+        Map<String, ModrinthVersion> cached = new HashMap<>();
+        List<String> toFetch = new ArrayList<>();
+        for (String id : versionIds) {
+            ModrinthVersion v = versionCache.get(id);
+            if (v != null) {
+                cached.put(id, v);
+            } else if (!versionCache.isKnownMissing(id)) {
+                toFetch.add(id);
+            }
+        }
+        if (toFetch.isEmpty()) return CompletableFuture.completedFuture(new VersionLookup(cached, true));
+
+        List<List<String>> idChunks = chunkIds(VERSIONS_PATH, toFetch);
+        List<CompletableFuture<List<ModrinthVersion>>> chunks = idChunks.stream()
+            .map(chunk -> bulkLookups.execute(String.join(",", chunk),
+                    () -> CompletableFuture.supplyAsync(() -> fetchVersionChunk(chunk), executor))
+                .exceptionally(e -> {
+                    LOG.warn("Error bulk fetching Modrinth versions: {}", e.getMessage());
+                    return null;
+                }))
+            .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<String, ModrinthVersion> result = new HashMap<>(cached);
+            boolean complete = true;
+            for (int i = 0; i < chunks.size(); i++) {
+                List<ModrinthVersion> fetched = chunks.get(i).join();
+                if (fetched == null) { // transport failure: no negative caching
+                    complete = false;
+                    continue;
+                }
+                for (ModrinthVersion v : fetched) {
+                    if (v == null || v.id == null || v.files == null || v.files.isEmpty()) continue;
+                    result.put(v.id, v);
+                    versionCache.put(v);
+                }
+                // Ids the API did not return (or returned without files) are broken; remember that for a while
+                for (String id : idChunks.get(i)) {
+                    if (!result.containsKey(id)) versionCache.putMissing(id);
+                }
+            }
+            versionCache.flushMissing();
+            return new VersionLookup(result, complete);
+        });
+    }
+
+    /**
+     * Returns the versions of one chunk, or null if the request failed or its body could not be parsed.
+     */
+    private List<ModrinthVersion> fetchVersionChunk(List<String> chunk) {
+        try {
+            String ids = objectMapper.writeValueAsString(chunk);
+            String uri = baseUrl + VERSIONS_PATH + java.net.URLEncoder.encode(ids, StandardCharsets.UTF_8);
+            HttpRequest req = HttpRequest.newBuilder().uri(URI.create(uri)).timeout(TIMEOUT).GET().build();
+            CachedResponse resp = send(req);
+            if (resp.statusCode() != 200) {
+                LOG.warn("Failed to bulk fetch {} Modrinth versions: HTTP {}", chunk.size(), resp.statusCode());
+                return null;
+            }
+            return parseVersionList(resp.body());
+        } catch (IOException | InterruptedException e) {
+            LOG.warn("Error bulk fetching Modrinth versions: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Blocking send that holds a concurrency permit only for the duration of the HTTP exchange.
+     * Always called from the client's virtual-thread executor.
+     */
+    private CachedResponse send(HttpRequest request) throws IOException, InterruptedException {
+        inFlight.acquire();
+        try {
+            return responseCache.send(request);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private List<List<String>> chunkIds(String path, List<String> ids) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int length = baseUrl.length() + path.length();
+        int currentLength = length;
+        for (String id : ids) {
+            // each id is encoded as %22id%22%2C
+            int idLength = java.net.URLEncoder.encode(id, StandardCharsets.UTF_8).length() + 9;
+            if (!current.isEmpty() && currentLength + idLength > MAX_URL_LENGTH) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                currentLength = length;
+            }
+            current.add(id);
+            currentLength += idLength;
+        }
+        if (!current.isEmpty()) chunks.add(current);
+        return chunks;
+    }
+
+    // Null when the body is not a version list, so an unreadable answer is not mistaken for "all missing"
+    private List<ModrinthVersion> parseVersionList(byte[] json) {
+        try {
+            ModrinthVersion[] typed = objectMapper.readValue(json, ModrinthVersion[].class);
+            if (typed != null) return Arrays.asList(typed);
+        } catch (Exception ex) {
+            LOG.debug("Typed bulk version deserialization failed, using map-based fallback: {}", ex.getMessage());
+        }
+
+        try {
+            List<Map<String, Object>> maps = JACKSON.readValue(json, new com.fasterxml.jackson.core.type.TypeReference<>() {});
+            List<ModrinthVersion> result = new ArrayList<>();
+            for (Map<String, Object> map : maps) {
+                result.add(versionFromMap(map));
+            }
+            return result;
+        } catch (Exception e) {
+            LOG.warn("Failed to parse Modrinth bulk version response: {}", e.getMessage());
+            return null;
+        }
+    }
+
     private ModrinthVersion parseVersionFromJson(String json) {
         try {
             // Use Jackson databind for robust generic parsing into a typed map
-            com.fasterxml.jackson.databind.ObjectMapper jackson = new com.fasterxml.jackson.databind.ObjectMapper();
-            Map<String, Object> map = jackson.readValue(json, new com.fasterxml.jackson.core.type.TypeReference<>() {});
-            ModrinthVersion tmp = new ModrinthVersion();
-            Object verNum = map.get("version_number");
-            tmp.version_number = verNum != null ? String.valueOf(verNum) : null;
-
-            Object gameVersionsObj = map.get("game_versions");
-            if (gameVersionsObj instanceof List<?> gvList) {
-                tmp.game_versions = gvList.stream().map(Object::toString).collect(Collectors.toList());
-            }
+            Map<String, Object> map = JACKSON.readValue(json, new com.fasterxml.jackson.core.type.TypeReference<>() {});
+            return versionFromMap(map);
+        } catch (Exception e) {
+            LOG.debug("parseVersionFromJson failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private ModrinthVersion versionFromMap(Map<String, Object> map) {
+        ModrinthVersion tmp = new ModrinthVersion();
+        tmp.id = map.get("id") != null ? String.valueOf(map.get("id")) : null;
+        Object verNum = map.get("version_number");
+        tmp.version_number = verNum != null ? String.valueOf(verNum) : null;
+
+        Object gameVersionsObj = map.get("game_versions");
+        if (gameVersionsObj instanceof List<?> gvList) {
+            tmp.game_versions = gvList.stream().map(Object::toString).collect(Collectors.toList());
+        }
 
-            Object filesObj = map.get("files");
-            if (filesObj instanceof List<?> filesList) {
-                List<ModrinthVersion.ModrinthFile> fList = new ArrayList<>();
-                for (Object fo : filesList) {
-                    if (!(fo instanceof Map<?, ?> fmap)) continue;
-                    ModrinthVersion.ModrinthFile mf = new ModrinthVersion.ModrinthFile();
-                    mf.url = fmap.get("url") != null ? String.valueOf(fmap.get("url")) : null;
-                    Object sizeObj = fmap.get("size");
-                    if (sizeObj instanceof Number) mf.size = ((Number) sizeObj).longValue();
-                    Object hashesObj = fmap.get("hashes");
-                    if (hashesObj instanceof Map<?, ?> hashMap) {
-                        Map<String, String> hm = new HashMap<>();
-                        for (Map.Entry<?, ?> e : hashMap.entrySet()) {
-                            if (e.getKey() != null && e.getValue() != null) {
-                                hm.put(String.valueOf(e.getKey()), String.valueOf(e.getValue()));
-                            }
+        Object filesObj = map.get("files");
+        if (filesObj instanceof List<?> filesList) {
+            List<ModrinthVersion.ModrinthFile> fList = new ArrayList<>();
+            for (Object fo : filesList) {
+                if (!(fo instanceof Map<?, ?> fmap)) continue;
+                ModrinthVersion.ModrinthFile mf = new ModrinthVersion.ModrinthFile();
+                mf.url = fmap.get("url") != null ? String.valueOf(fmap.get("url")) : null;
+                Object sizeObj = fmap.get("size");
+                if (sizeObj instanceof Number) mf.size = ((Number) sizeObj).longValue();
+                Object hashesObj = fmap.get("hashes");
+                if (hashesObj instanceof Map<?, ?> hashMap) {
+                    Map<String, String> hm = new HashMap<>();
+                    for (Map.Entry<?, ?> e : hashMap.entrySet()) {
+                        if (e.getKey() != null && e.getValue() != null) {
+                            hm.put(String.valueOf(e.getKey()), String.valueOf(e.getValue()));
                         }
-                        mf.hashes = hm;
                     }
-                    mf.filename = fmap.get("filename") != null ? String.valueOf(fmap.get("filename")) : null;
-                    fList.add(mf);
+                    mf.hashes = hm;
                 }
-                tmp.files = fList;
+                mf.filename = fmap.get("filename") != null ? String.valueOf(fmap.get("filename")) : null;
+                fList.add(mf);
             }
-            return tmp;
-        } catch (Exception e) {
-            LOG.debug("parseVersionFromJson failed: {}", e.getMessage());
-            return null;
+            tmp.files = fList;
         }
+        return tmp;
     }
 
     private List<ModrinthVersion.ModrinthFile> filterDownloadableFiles(ModrinthVersion version) {
@@ -268,7 +688,7 @@ public class ModrinthClient {
             author = project.authors.stream().findFirst().map(a -> a.username).orElse(null);
         }
 
-        return new Mod(
+        Mod mod = new Mod(
             project.id != null ? project.id : project.slug,
             project.title != null && !project.title.isEmpty() ? project.title : (project.name != null ? project.name : project.slug),
             version.version_number != null ? version.version_number : version.name,
@@ -276,10 +696,36 @@ public class ModrinthClient {
             file.url != null ? file.url : "",
             checksumValue != null ? checksumValue : "",
             checksumAlg != null ? checksumAlg : "",
-            "",
+            project.license != null ? project.license : "",
             author != null ? author : "",
             "modrinth",
             file.size
         );
+        mod.setSlug(project.slug);
+        mod.setCategories(project.categories != null ? new ArrayList<>(project.categories) : null);
+        mod.setDownloads(project.downloads);
+        return mod;
+    }
+
+    /**
+     * One page of raw search hits. totalHits is -1 when unknown. A failed page (error status, timeout, rate limit)
+     * has no hits but is not the end of the results.
+     */
+    public record SearchPage(List<ModrinthProject> hits, int totalHits, boolean failed) {
+        static final SearchPage FAILED = new SearchPage(List.of(), -1, true);
+
+        public SearchPage(List<ModrinthProject> hits, int totalHits) {
+            this(hits, totalHits, false);
+        }
+    }
+
+    /**
+     * Mods mapped from a batch of projects. Not complete when a version or license lookup failed, so some
+     * projects may be missing or lack their license.
+     */
+    public record ProjectMapping(List<Mod> mods, boolean complete) {
+    }
+
+    private record VersionLookup(Map<String, ModrinthVersion> versions, boolean complete) {
     }
 }
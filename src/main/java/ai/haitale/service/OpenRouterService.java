@@ -1,17 +1,18 @@
 package ai.haitale.service;
 
+import ai.haitale.service.http.HttpTransport;
 import com.github.benmanes.caffeine.cache.Cache;
 import io.micronaut.context.annotation.Value;
-import io.micronaut.http.HttpRequest;
-import io.micronaut.http.HttpResponse;
-import io.micronaut.http.HttpStatus;
-import io.micronaut.http.client.HttpClient;
-import io.micronaut.http.client.annotation.Client;
+import io.micronaut.serde.ObjectMapper;
 import io.micronaut.serde.annotation.Serdeable;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
@@ -25,7 +26,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class OpenRouterService {
     private static final Logger LOG = LoggerFactory.getLogger(OpenRouterService.class);
 
-    private final HttpClient httpClient;
+    private final HttpTransport transport;
+    private final ObjectMapper objectMapper;
+    private final Duration readTimeout;
 
     @Value("${openrouter.api.key:}")
     private String apiKey;
@@ -61,7 +64,9 @@ public class OpenRouterService {
     private volatile long circuitOpenedAt = 0L; // timestamp when circuit opened
 
     public OpenRouterService(
-            @Client("https://openrouter.ai") HttpClient httpClient,
+            HttpTransport transport,
+            ObjectMapper objectMapper,
+            @Value("${openrouter.read-timeout-seconds:90}") long readTimeoutSeconds,
             @Value("${openrouter.retry.maxAttempts:4}") int maxAttempts,
             @Value("${openrouter.retry.initialBackoffMs:1000}") long initialBackoffMs,
             @Value("${openrouter.retry.maxBackoffMs:60000}") long maxBackoffMs,
@@ -73,7 +78,9 @@ public class OpenRouterService {
             @Value("${openrouter.circuit.failureThreshold:5}") int circuitFailureThreshold,
             @Value("${openrouter.circuit.resetTimeoutSeconds:60}") long circuitResetTimeoutSeconds
     ) {
-        this.httpClient = httpClient;
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.readTimeout = Duration.ofSeconds(readTimeoutSeconds);
         this.maxAttempts = maxAttempts;
         this.initialBackoffMs = initialBackoffMs;
         this.maxBackoffMs = maxBackoffMs;
@@ -127,11 +134,20 @@ public class OpenRouterService {
             2000
         );
 
-        HttpRequest<?> httpRequest = HttpRequest.POST(apiUrl, request)
-            .header("Authorization", "Bearer " + apiKey)
-            .header("HTTP-Referer", siteUrl)
-            .header("X-Title", siteName)
-            .header("Content-Type", "application/json");
+        HttpRequest httpRequest;
+        try {
+            httpRequest = HttpRequest.newBuilder(URI.create(apiUrl))
+                .timeout(readTimeout)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("HTTP-Referer", siteUrl)
+                .header("X-Title", siteName)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                .build();
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.error("Failed to build OpenRouter request: {}", e.getMessage());
+            return null;
+        }
 
         LOG.info("Calling OpenRouter API with model: {} (max retries: {}, initial backoff: {}ms, max backoff: {}ms)",
                  model, maxAttempts, initialBackoffMs, maxBackoffMs);
@@ -158,19 +174,20 @@ public class OpenRouterService {
         return null;
     }
 
-    private OpenRouterResponse sendWithRetries(HttpRequest<?> request, int maxAttempts) {
+    private OpenRouterResponse sendWithRetries(HttpRequest request, int maxAttempts) {
         long backoffMillis = initialBackoffMs; // initial backoff
         for (int attempt = 1; attempt <= maxAttempts; attempt++) {
             try {
-                HttpResponse<OpenRouterResponse> resp = httpClient.toBlocking().exchange(request, OpenRouterResponse.class);
-                HttpStatus status = resp.getStatus();
+                // This loop owns 429 handling; a transport-level retry would multiply the attempts
+                HttpResponse<byte[]> resp = transport.sendOnce(request);
+                int status = resp.statusCode();
 
-                if (status.getCode() >= 200 && status.getCode() < 300) {
-                    return resp.getBody().orElse(null);
+                if (status >= 200 && status < 300) {
+                    return objectMapper.readValue(resp.body(), OpenRouterResponse.class);
                 }
 
                 // Handle 402 Payment Required - quota exceeded, don't retry
-                if (status.getCode() == 402) {
+                if (status == 402) {
                     LOG.error("OpenRouter API quota exceeded (402 Payment Required). " +
                              "Free tier limit reached. Falling back to local recommendations. " +
                              "Visit https://openrouter.ai to check your usage or upgrade.");
@@ -178,8 +195,8 @@ public class OpenRouterService {
                 }
 
                 // Handle 429 Too Many Requests specially
-                if (status == HttpStatus.TOO_MANY_REQUESTS) {
-                    String retryAfter = resp.getHeaders().get("Retry-After");
+                if (status == 429) {
+                    String retryAfter = resp.headers().firstValue("Retry-After").orElse(null);
                     long waitMillis = computeRetryAfterMillis(retryAfter, backoffMillis);
                     long jitter = jitterMillis(waitMillis);
                     long totalWait = waitMillis + jitter;
@@ -194,15 +211,15 @@ public class OpenRouterService {
                 }
 
                 // For server errors (5xx) apply backoff and retry
-                if (status.getCode() >= 500 && status.getCode() < 600) {
-                    LOG.warn("Server error {} from OpenRouter (attempt {}/{}). Backing off {} ms and retrying", status.getCode(), attempt, maxAttempts, backoffMillis);
+                if (status >= 500 && status < 600) {
+                    LOG.warn("Server error {} from OpenRouter (attempt {}/{}). Backing off {} ms and retrying", status, attempt, maxAttempts, backoffMillis);
                     sleep(backoffMillis + jitterMillis(backoffMillis));
                     backoffMillis = Math.min(backoffMillis * 2, maxBackoffMs);
                     continue;
                 }
 
                 // For other non-success statuses do not retry
-                LOG.error("OpenRouter returned non-retryable status {}: {}", status.getCode(), resp.getStatus().getReason());
+                LOG.error("OpenRouter returned non-retryable status {}", status);
                 return null;
 
             } catch (Exception e) {
@@ -214,7 +231,7 @@ public class OpenRouterService {
 
                 if (isTimeout) {
                     LOG.warn("Timeout calling OpenRouter API on attempt {}/{}: Model '{}' is taking too long to respond. " +
-                             "Consider using a faster model or increasing micronaut.http.client.read-timeout in application.properties",
+                             "Consider using a faster model or increasing openrouter.read-timeout-seconds in application.properties",
                              attempt, maxAttempts, model);
                 } else {
                     LOG.warn("Error calling OpenRouter API on attempt {}/{}: {}", attempt, maxAttempts, e.getMessage());
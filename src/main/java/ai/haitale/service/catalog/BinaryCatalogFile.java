@@ -0,0 +1,548 @@
+package ai.haitale.service.catalog;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.index.TermDictionary;
+import ai.haitale.service.index.TermDictionary.Postings;
+import ai.haitale.service.index.TermDictionary.TrigramPostings;
+import ai.haitale.service.recommend.RelevanceScorer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Versioned binary snapshot of a {@link ModCatalog}, read through a read-only memory mapping.
+ * <p>
+ * Layout, all big-endian, sections in this order:
+ * <pre>
+ *   header          magic, version, refreshedAt, counts and the position of every section
+ *   string offsets  int[stringCount + 1] into the string data
+ *   string data     UTF-8 bytes of every distinct string (licenses, authors, sources are stored once)
+ *   records         fixed-width per mod: 12 string refs (-1 = null) + fileSize + downloads
+ *   id table        open-addressing hash table, record index + 1 per slot (0 = empty)
+ *   slug table      same, keyed by slug
+ *   terms           per search term in ascending order: string ref, postings count, postings position
+ *   postings        per term: int[] doc ids, float[] BM25 scores
+ *   partial         string refs of the sources that were incomplete in that refresh
+ *   trigram keys    long[slots], the fuzzy term index's open-addressing table of packed trigrams
+ *   trigram offsets int[slots + 1] into the trigram postings
+ *   trigram postings term ordinals per trigram, so typo-tolerant search needs no per-process build
+ *   text offsets    int[2 * modCount + 1] into the relevance text, name then description per mod
+ *   rule bits       int[modCount], the keyword rules each mod satisfies
+ *   relevance text  lower-cased UTF-8 names and descriptions, so scoring normalizes nothing per request
+ *   checksum        CRC32C of everything before it
+ * </pre>
+ * Nothing is decoded when the file is opened; mods, lookups and postings are read from the mapping on
+ * access, so a large catalog is usable immediately. Opening only checks the checksum and that every section
+ * lies where the counts put it, so a damaged file is rejected up front rather than failing a later read.
+ * Readers use absolute gets only and are thread-safe.
+ */
+final class BinaryCatalogFile {
+    static final int MAGIC = 0x48544354; // "HTCT"
+    static final int VERSION = 6;
+
+    private static final int NULL_REF = -1;
+    private static final int FIELDS = 12;
+    private static final int RECORD_SIZE = FIELDS * 4 + 16;
+    private static final int TERM_ENTRY_SIZE = 12;
+
+    // Record field order
+    private static final int ID = 0, NAME = 1, VERSION_FIELD = 2, DESCRIPTION = 3, DOWNLOAD_URL = 4, CHECKSUM = 5,
+        CHECKSUM_ALGORITHM = 6, LICENSE = 7, AUTHOR = 8, SOURCE = 9, SLUG = 10, CATEGORIES = 11;
+    // Categories are stored as one comma-joined string, so a common combination is stored once
+    private static final String CATEGORY_SEPARATOR = ",";
+
+    // Header layout
+    private static final int H_MAGIC = 0, H_VERSION = 4, H_REFRESHED_AT = 8, H_MOD_COUNT = 16, H_STRING_COUNT = 20,
+        H_ID_TABLE_SIZE = 24, H_SLUG_TABLE_SIZE = 28, H_TERM_COUNT = 32, H_PARTIAL_COUNT = 36,
+        H_STRING_OFFSETS = 40, H_STRING_DATA = 44, H_RECORDS = 48, H_ID_TABLE = 52, H_SLUG_TABLE = 56,
+        H_TERMS = 60, H_PARTIAL = 64, H_TRIGRAM_SLOTS = 68, H_TRIGRAMS = 72,
+        H_RELEVANCE = 76;
+    private static final int HEADER_SIZE = 80;
+    private static final int CHECKSUM_SIZE = 4;
+
+    private final ByteBuffer buffer;
+    private final int modCount;
+    private final int idTableSize;
+    private final int slugTableSize;
+    private final int termCount;
+    private final int partialCount;
+    private final int stringOffsets;
+    private final int stringData;
+    private final int records;
+    private final int idTable;
+    private final int slugTable;
+    private final int terms;
+    private final int partial;
+    private final int trigramSlots;
+    private final int trigrams;
+    private final int relevance;
+
+    private BinaryCatalogFile(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.modCount = buffer.getInt(H_MOD_COUNT);
+        this.idTableSize = buffer.getInt(H_ID_TABLE_SIZE);
+        this.slugTableSize = buffer.getInt(H_SLUG_TABLE_SIZE);
+        this.termCount = buffer.getInt(H_TERM_COUNT);
+        this.partialCount = buffer.getInt(H_PARTIAL_COUNT);
+        this.stringOffsets = buffer.getInt(H_STRING_OFFSETS);
+        this.stringData = buffer.getInt(H_STRING_DATA);
+        this.records = buffer.getInt(H_RECORDS);
+        this.idTable = buffer.getInt(H_ID_TABLE);
+        this.slugTable = buffer.getInt(H_SLUG_TABLE);
+        this.terms = buffer.getInt(H_TERMS);
+        this.partial = buffer.getInt(H_PARTIAL);
+        this.trigramSlots = buffer.getInt(H_TRIGRAM_SLOTS);
+        this.trigrams = buffer.getInt(H_TRIGRAMS);
+        this.relevance = buffer.getInt(H_RELEVANCE);
+    }
+
+    /**
+     * Map a catalog file. Fails with an IOException for foreign files, other format versions or
+     * truncated files, so callers can fall back to a refresh.
+     */
+    static BinaryCatalogFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + CHECKSUM_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("not a catalog file (size " + size + ")");
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(H_MAGIC) != MAGIC) {
+                throw new IOException("not a catalog file");
+            }
+            int version = buffer.getInt(H_VERSION);
+            if (version != VERSION) {
+                throw new IOException("unsupported catalog version " + version);
+            }
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.slice(0, (int) size - CHECKSUM_SIZE));
+            if ((int) checksum.getValue() != buffer.getInt((int) size - CHECKSUM_SIZE)) {
+                throw new IOException("catalog file is truncated or damaged (checksum mismatch)");
+            }
+            BinaryCatalogFile catalog = new BinaryCatalogFile(buffer);
+            catalog.checkLayout(size - CHECKSUM_SIZE);
+            return catalog;
+        }
+    }
+
+    // Every section must start where the counts before it end, and the last one end at the checksum
+    private void checkLayout(long end) throws IOException {
+        if (modCount < 0 || buffer.getInt(H_STRING_COUNT) < 0 || termCount < 0 || partialCount < 0
+            || Integer.bitCount(idTableSize) != 1 || Integer.bitCount(slugTableSize) != 1
+            || Integer.bitCount(trigramSlots) != 1) {
+            throw new IOException("catalog file has invalid counts");
+        }
+        long pos = HEADER_SIZE;
+        expectSection("string offsets", stringOffsets, pos, end);
+        pos += 4L * (buffer.getInt(H_STRING_COUNT) + 1);
+        expectSection("string data", stringData, pos, end);
+        pos += Math.max(0, buffer.getInt(stringData - 4));
+        expectSection("records", records, pos, end);
+        pos += (long) RECORD_SIZE * modCount;
+        expectSection("id table", idTable, pos, end);
+        pos += 4L * idTableSize;
+        expectSection("slug table", slugTable, pos, end);
+        pos += 4L * slugTableSize;
+        expectSection("terms", terms, pos, end);
+        pos += (long) TERM_ENTRY_SIZE * termCount;
+        for (int t = 0; t < termCount; t++) {
+            int entry = terms + t * TERM_ENTRY_SIZE;
+            expectSection("postings", buffer.getInt(entry + 8), pos, end);
+            pos += 8L * Math.max(0, buffer.getInt(entry + 4));
+        }
+        expectSection("partial sources", partial, pos, end);
+        pos += 4L * partialCount;
+        expectSection("trigram keys", trigrams, pos, end);
+        pos += 8L * trigramSlots + 4L * (trigramSlots + 1);
+        expectSection("trigram postings", trigramPostings(), pos, end);
+        pos += 4L * Math.max(0, buffer.getInt(trigramPostings() - 4));
+        expectSection("relevance columns", relevance, pos, end);
+        pos += 4L * (2L * modCount + 1) + 4L * modCount;
+        pos += pos <= end ? Math.max(0, buffer.getInt(relevance + 8 * modCount)) : 0;
+        if (pos != end) {
+            throw new IOException("catalog file sections end at " + pos + ", file at " + end);
+        }
+    }
+
+    private static void expectSection(String name, int actual, long expected, long end) throws IOException {
+        if (actual != expected || expected > end) {
+            throw new IOException("catalog file " + name + " at " + actual + ", expected " + expected);
+        }
+    }
+
+    Instant refreshedAt() {
+        return Instant.ofEpochMilli(buffer.getLong(H_REFRESHED_AT));
+    }
+
+    int size() {
+        return modCount;
+    }
+
+    List<Mod> mods() {
+        return new MappedModList(this);
+    }
+
+    Mod mod(int index) {
+        int base = records + index * RECORD_SIZE;
+        Mod mod = new Mod(
+            field(base, ID), field(base, NAME), field(base, VERSION_FIELD), field(base, DESCRIPTION),
+            field(base, DOWNLOAD_URL), field(base, CHECKSUM), field(base, CHECKSUM_ALGORITHM),
+            field(base, LICENSE), field(base, AUTHOR), field(base, SOURCE),
+            buffer.getLong(base + FIELDS * 4)
+        );
+        mod.setSlug(field(base, SLUG));
+        mod.setCategories(splitCategories(field(base, CATEGORIES)));
+        mod.setDownloads(buffer.getLong(base + FIELDS * 4 + 8));
+        return mod;
+    }
+
+    static String joinCategories(List<String> categories) {
+        return categories == null || categories.isEmpty() ? null : String.join(CATEGORY_SEPARATOR, categories);
+    }
+
+    static List<String> splitCategories(String joined) {
+        return joined == null ? new ArrayList<>() : new ArrayList<>(List.of(joined.split(CATEGORY_SEPARATOR)));
+    }
+
+    Mod findById(String id) {
+        int index = indexOf(idTable, idTableSize, ID, id);
+        return index < 0 ? null : mod(index);
+    }
+
+    Mod findBySlug(String slug) {
+        int index = indexOf(slugTable, slugTableSize, SLUG, slug);
+        return index < 0 ? null : mod(index);
+    }
+
+    /**
+     * The relevance scorer's columns, read from the mapping.
+     */
+    RelevanceScorer.Columns relevanceColumns() {
+        int offsetsSize = 4 * (2 * modCount + 1);
+        int rules = relevance + offsetsSize;
+        int text = rules + 4 * modCount;
+        return new RelevanceScorer.Columns(buffer.slice(text, buffer.getInt(relevance + 8 * modCount)),
+            buffer.slice(relevance, offsetsSize).asIntBuffer(), buffer.slice(rules, 4 * modCount).asIntBuffer());
+    }
+
+    List<String> partialSources() {
+        List<String> result = new ArrayList<>(partialCount);
+        for (int i = 0; i < partialCount; i++) {
+            result.add(string(buffer.getInt(partial + 4 * i)));
+        }
+        return List.copyOf(result);
+    }
+
+    TermDictionary termDictionary() {
+        return new TermDictionary() {
+            @Override
+            public int size() {
+                return termCount;
+            }
+
+            @Override
+            public String term(int ordinal) {
+                return string(buffer.getInt(terms + ordinal * TERM_ENTRY_SIZE));
+            }
+
+            @Override
+            public TrigramPostings trigrams() {
+                return new TrigramPostings(buffer.slice(trigrams, 8 * trigramSlots).asLongBuffer(),
+                    buffer.slice(trigrams + 8 * trigramSlots, 4 * (trigramSlots + 1)).asIntBuffer(),
+                    buffer.slice(trigramPostings(), buffer.getInt(trigramPostings() - 4) * 4).asIntBuffer());
+            }
+
+            @Override
+            public Postings postings(int ordinal) {
+                int entry = terms + ordinal * TERM_ENTRY_SIZE;
+                int count = buffer.getInt(entry + 4);
+                int position = buffer.getInt(entry + 8);
+                int[] docs = new int[count];
+                float[] scores = new float[count];
+                buffer.slice(position, count * 4).asIntBuffer().get(docs);
+                buffer.slice(position + count * 4, count * 4).asFloatBuffer().get(scores);
+                return new Postings(docs, scores);
+            }
+        };
+    }
+
+    private int trigramPostings() {
+        return trigrams + 8 * trigramSlots + 4 * (trigramSlots + 1);
+    }
+
+    private int indexOf(int table, int tableSize, int field, String key) {
+        if (key == null || tableSize == 0) return -1;
+        int mask = tableSize - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            int entry = buffer.getInt(table + 4 * slot);
+            if (entry == 0) return -1;
+            int index = entry - 1;
+            if (key.equals(field(records + index * RECORD_SIZE, field))) return index;
+        }
+    }
+
+    private String field(int recordBase, int field) {
+        return string(buffer.getInt(recordBase + 4 * field));
+    }
+
+    private String string(int ref) {
+        if (ref == NULL_REF) return null;
+        int start = buffer.getInt(stringOffsets + 4 * ref);
+        int end = buffer.getInt(stringOffsets + 4 * (ref + 1));
+        byte[] bytes = new byte[end - start];
+        buffer.get(stringData + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int slot(String key, int mask) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Power of two with a load factor of at most one half
+    private static int tableSize(int entries) {
+        return Integer.highestOneBit(Math.max(2, entries * 2 - 1)) << 1;
+    }
+
+    /**
+     * Write {@code catalog} to {@code file}, replacing its contents.
+     */
+    static void write(Path file, ModCatalog catalog) throws IOException {
+        List<Mod> mods = catalog.mods();
+        TermDictionary dictionary = catalog.searchIndex().dictionary();
+        StringTable strings = new StringTable();
+        int n = mods.size();
+
+        int[] refs = new int[n * FIELDS];
+        long[] fileSizes = new long[n];
+        long[] downloads = new long[n];
+        int[] idTableData = new int[tableSize(n)];
+        int[] slugTableData = new int[tableSize(n)];
+        Set<String> slugs = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            Mod m = mods.get(i);
+            int base = i * FIELDS;
+            refs[base + ID] = strings.ref(m.getId());
+            refs[base + NAME] = strings.ref(m.getName());
+            refs[base + VERSION_FIELD] = strings.ref(m.getVersion());
+            refs[base + DESCRIPTION] = strings.ref(m.getDescription());
+            refs[base + DOWNLOAD_URL] = strings.ref(m.getDownloadUrl());
+            refs[base + CHECKSUM] = strings.ref(m.getChecksum());
+            refs[base + CHECKSUM_ALGORITHM] = strings.ref(m.getChecksumAlgorithm());
+            refs[base + LICENSE] = strings.ref(m.getLicense());
+            refs[base + AUTHOR] = strings.ref(m.getAuthor());
+            refs[base + SOURCE] = strings.ref(m.getSource());
+            refs[base + SLUG] = strings.ref(m.getSlug());
+            refs[base + CATEGORIES] = strings.ref(joinCategories(m.getCategories()));
+            fileSizes[i] = m.getFileSize();
+            downloads[i] = m.getDownloads();
+            insert(idTableData, m.getId(), i);
+            // First mod with a slug wins, as in ModCatalog.of
+            if (m.getSlug() != null && !m.getSlug().isEmpty() && slugs.add(m.getSlug())) {
+                insert(slugTableData, m.getSlug(), i);
+            }
+        }
+
+        int termCount = dictionary.size();
+        int[] termRefs = new int[termCount];
+        Postings[] postings = new Postings[termCount];
+        long postingsBytes = 0;
+        for (int t = 0; t < termCount; t++) {
+            termRefs[t] = strings.ref(dictionary.term(t));
+            postings[t] = dictionary.postings(t);
+            postingsBytes += 8L * postings[t].docs().length;
+        }
+
+        List<String> partialSources = catalog.partialSources();
+        int[] partialRefs = new int[partialSources.size()];
+        for (int i = 0; i < partialRefs.length; i++) {
+            partialRefs[i] = strings.ref(partialSources.get(i));
+        }
+
+        long pos = HEADER_SIZE;
+        long stringOffsetsPos = pos;
+        pos += 4L * (strings.size() + 1);
+        long stringDataPos = pos;
+        pos += strings.dataLength();
+        long recordsPos = pos;
+        pos += (long) RECORD_SIZE * n;
+        long idTablePos = pos;
+        pos += 4L * idTableData.length;
+        long slugTablePos = pos;
+        pos += 4L * slugTableData.length;
+        long termsPos = pos;
+        pos += (long) TERM_ENTRY_SIZE * termCount;
+        long postingsPos = pos;
+        pos += postingsBytes;
+        long partialPos = pos;
+        pos += 4L * partialRefs.length;
+        TrigramPostings trigrams = catalog.searchIndex().trigrams();
+        int trigramSlots = trigrams.keys().capacity();
+        long trigramsPos = pos;
+        pos += 8L * trigramSlots + 4L * (trigramSlots + 1) + 4L * trigrams.ordinals().capacity();
+        RelevanceScorer.Columns relevance = catalog.relevanceScorer().columns();
+        long relevancePos = pos;
+        pos += 4L * relevance.offsets().capacity() + 4L * relevance.rules().capacity() + relevance.text().capacity();
+        if (pos + CHECKSUM_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("catalog too large for a single mapping: " + pos + " bytes");
+        }
+
+        CRC32C checksum = new CRC32C();
+        try (DataOutputStream out = new DataOutputStream(
+            new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16), checksum))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(catalog.refreshedAt().toEpochMilli());
+            out.writeInt(n);
+            out.writeInt(strings.size());
+            out.writeInt(idTableData.length);
+            out.writeInt(slugTableData.length);
+            out.writeInt(termCount);
+            out.writeInt(partialRefs.length);
+            out.writeInt((int) stringOffsetsPos);
+            out.writeInt((int) stringDataPos);
+            out.writeInt((int) recordsPos);
+            out.writeInt((int) idTablePos);
+            out.writeInt((int) slugTablePos);
+            out.writeInt((int) termsPos);
+            out.writeInt((int) partialPos);
+            out.writeInt(trigramSlots);
+            out.writeInt((int) trigramsPos);
+            out.writeInt((int) relevancePos);
+
+            int offset = 0;
+            for (byte[] s : strings.values()) {
+                out.writeInt(offset);
+                offset += s.length;
+            }
+            out.writeInt(offset);
+            for (byte[] s : strings.values()) {
+                out.write(s);
+            }
+
+            for (int i = 0; i < n; i++) {
+                for (int f = 0; f < FIELDS; f++) {
+                    out.writeInt(refs[i * FIELDS + f]);
+                }
+                out.writeLong(fileSizes[i]);
+                out.writeLong(downloads[i]);
+            }
+            for (int entry : idTableData) out.writeInt(entry);
+            for (int entry : slugTableData) out.writeInt(entry);
+
+            long next = postingsPos;
+            for (int t = 0; t < termCount; t++) {
+                out.writeInt(termRefs[t]);
+                out.writeInt(postings[t].docs().length);
+                out.writeInt((int) next);
+                next += 8L * postings[t].docs().length;
+            }
+            for (Postings p : postings) {
+                for (int doc : p.docs()) out.writeInt(doc);
+                for (float score : p.scores()) out.writeFloat(score);
+            }
+            for (int ref : partialRefs) out.writeInt(ref);
+            for (int i = 0; i < trigramSlots; i++) out.writeLong(trigrams.keys().get(i));
+            for (int i = 0; i <= trigramSlots; i++) out.writeInt(trigrams.offsets().get(i));
+            for (int i = 0; i < trigrams.ordinals().capacity(); i++) out.writeInt(trigrams.ordinals().get(i));
+            for (int i = 0; i < relevance.offsets().capacity(); i++) out.writeInt(relevance.offsets().get(i));
+            for (int i = 0; i < relevance.rules().capacity(); i++) out.writeInt(relevance.rules().get(i));
+            byte[] chunk = new byte[1 << 16];
+            for (int i = 0; i < relevance.text().capacity(); i += chunk.length) {
+                int length = Math.min(chunk.length, relevance.text().capacity() - i);
+                relevance.text().get(i, chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+
+            if (out.size() != pos) {
+                throw new IOException("catalog layout mismatch: wrote " + out.size() + " of " + pos + " bytes");
+            }
+            out.writeInt((int) checksum.getValue());
+        }
+    }
+
+    private static void insert(int[] table, String key, int index) {
+        int mask = table.length - 1;
+        int slot = slot(key, mask);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    /**
+     * Interns strings for the string table; identical values share one entry.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> refs = new LinkedHashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private long dataLength;
+
+        int ref(String value) {
+            if (value == null) return NULL_REF;
+            return refs.computeIfAbsent(value, v -> {
+                byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+                values.add(bytes);
+                dataLength += bytes.length;
+                return values.size() - 1;
+            });
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        long dataLength() {
+            return dataLength;
+        }
+
+        List<byte[]> values() {
+            return values;
+        }
+    }
+
+    /**
+     * List view over the records; each get decodes one mod from the mapping.
+     */
+    private static final class MappedModList extends AbstractList<Mod> implements RandomAccess {
+        private final BinaryCatalogFile file;
+
+        MappedModList(BinaryCatalogFile file) {
+            this.file = file;
+        }
+
+        @Override
+        public Mod get(int index) {
+            if (index < 0 || index >= file.size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return file.mod(index);
+        }
+
+        @Override
+        public int size() {
+            return file.size();
+        }
+    }
+}
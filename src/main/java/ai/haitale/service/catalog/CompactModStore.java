@@ -0,0 +1,428 @@
+package ai.haitale.service.catalog;
+
+import ai.haitale.model.Mod;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Heap representation of the mods of a {@link ModCatalog}, a small fraction of the size of the equivalent
+ * {@link Mod} objects. Every mod is one variable-length record in a shared byte arena, located by a single
+ * int offset:
+ * <ul>
+ *   <li>version, checksum algorithm, license, author, source and categories repeat across mods; each distinct
+ *       value is kept once in a symbol table and records hold its varint code. Download URLs share their
+ *       host-and-first-path-segment prefix the same way</li>
+ *   <li>names and descriptions are sequences of word codes: each word, with its trailing space, is stored once
+ *       in a word table shared by the whole catalog</li>
+ *   <li>lower-case hex checksums are stored as their raw bytes, half the size</li>
+ *   <li>id and slug come first, as length-prefixed UTF-8, so lookups read little of a record</li>
+ * </ul>
+ * {@link Mod} instances are decoded on access and are not shared: changing one does not change the store.
+ * Lookups by id and slug use open-addressing tables of record indexes, as in {@link BinaryCatalogFile}.
+ */
+final class CompactModStore {
+    // Checksum encodings, the first byte of a record
+    private static final byte RAW_CHECKSUM = 0, HEX_CHECKSUM = 1;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    // Slashes up to and including the end of a URL's shared prefix, e.g. https://cdn.modrinth.com/data/
+    private static final int URL_PREFIX_SLASHES = 4;
+
+    private final String[] symbols;
+    // Word table: word w is the UTF-8 bytes words[wordOffsets[w]..wordOffsets[w + 1])
+    private final byte[] words;
+    private final int[] wordOffsets;
+    private final int[] offsets;
+    private final byte[] arena;
+    private final int[] idTable;
+    private final int[] slugTable;
+
+    private CompactModStore(String[] symbols, byte[] words, int[] wordOffsets, int[] offsets, byte[] arena,
+                            int[] idTable, int[] slugTable) {
+        this.symbols = symbols;
+        this.words = words;
+        this.wordOffsets = wordOffsets;
+        this.offsets = offsets;
+        this.arena = arena;
+        this.idTable = idTable;
+        this.slugTable = slugTable;
+    }
+
+    /**
+     * Encode {@code mods}, which must have distinct non-null ids. For a repeated slug the first mod wins.
+     */
+    static CompactModStore of(List<Mod> mods) {
+        int n = mods.size();
+        Map<String, Integer> symbolCodes = new HashMap<>();
+        symbolCodes.put(null, 0);
+        Map<String, Integer> wordCodes = new HashMap<>();
+        Arena words = new Arena();
+        IntList wordOffsets = new IntList();
+        int[] offsets = new int[n];
+        int[] idTable = new int[tableSize(n)];
+        int[] slugTable = new int[tableSize(n)];
+        Arena arena = new Arena();
+
+        for (int i = 0; i < n; i++) {
+            Mod m = mods.get(i);
+            offsets[i] = arena.size;
+            byte[] checksum = hexBytes(m.getChecksum());
+            arena.put(checksum != null ? HEX_CHECKSUM : RAW_CHECKSUM);
+            arena.putString(m.getId());
+            arena.putString(m.getSlug());
+            arena.putVarint(code(symbolCodes, m.getVersion()));
+            arena.putVarint(code(symbolCodes, m.getChecksumAlgorithm()));
+            arena.putVarint(code(symbolCodes, m.getLicense()));
+            arena.putVarint(code(symbolCodes, m.getAuthor()));
+            arena.putVarint(code(symbolCodes, m.getSource()));
+            arena.putVarLong(m.getFileSize());
+            arena.putVarint(code(symbolCodes, BinaryCatalogFile.joinCategories(m.getCategories())));
+            arena.putVarLong(m.getDownloads());
+            putText(arena, m.getName(), wordCodes, words, wordOffsets);
+            putText(arena, m.getDescription(), wordCodes, words, wordOffsets);
+            String url = m.getDownloadUrl();
+            int split = urlPrefixLength(url);
+            arena.putVarint(code(symbolCodes, split == 0 ? null : url.substring(0, split)));
+            arena.putString(url == null ? null : url.substring(split));
+            if (checksum != null) arena.putBytes(checksum);
+            else arena.putString(m.getChecksum());
+
+            insert(idTable, m.getId(), i);
+            String slug = m.getSlug();
+            if (slug != null && !slug.isEmpty() && find(slugTable, true, slug, offsets, arena.bytes) < 0) {
+                insert(slugTable, slug, i);
+            }
+        }
+
+        String[] symbols = new String[symbolCodes.size()];
+        symbolCodes.forEach((value, code) -> symbols[code] = value);
+        wordOffsets.add(words.size);
+        return new CompactModStore(symbols, Arrays.copyOf(words.bytes, words.size), wordOffsets.toArray(),
+            offsets, Arrays.copyOf(arena.bytes, arena.size), idTable, slugTable);
+    }
+
+    int size() {
+        return offsets.length;
+    }
+
+    Mod mod(int index) {
+        int[] position = {offsets[index]};
+        byte checksumEncoding = arena[position[0]++];
+        String id = readString(arena, position);
+        String slug = readString(arena, position);
+        String version = symbols[readVarint(arena, position)];
+        String checksumAlgorithm = symbols[readVarint(arena, position)];
+        String license = symbols[readVarint(arena, position)];
+        String author = symbols[readVarint(arena, position)];
+        String source = symbols[readVarint(arena, position)];
+        long fileSize = readVarLong(position);
+        List<String> categories = BinaryCatalogFile.splitCategories(symbols[readVarint(arena, position)]);
+        long downloads = readVarLong(position);
+        String name = readText(position);
+        String description = readText(position);
+        String urlPrefix = symbols[readVarint(arena, position)];
+        String urlRest = readString(arena, position);
+        String downloadUrl = urlPrefix == null ? urlRest : urlPrefix + urlRest;
+        String checksum = checksumEncoding == HEX_CHECKSUM ? readHex(position) : readString(arena, position);
+
+        Mod mod = new Mod(id, name, version, description, downloadUrl, checksum, checksumAlgorithm, license,
+            author, source, fileSize);
+        mod.setSlug(slug);
+        mod.setCategories(categories);
+        mod.setDownloads(downloads);
+        return mod;
+    }
+
+    Mod findById(String id) {
+        int index = id == null ? -1 : find(idTable, false, id, offsets, arena);
+        return index < 0 ? null : mod(index);
+    }
+
+    Mod findBySlug(String slug) {
+        int index = slug == null ? -1 : find(slugTable, true, slug, offsets, arena);
+        return index < 0 ? null : mod(index);
+    }
+
+    /**
+     * All mods in store order, decoded on access. The list is unmodifiable.
+     */
+    List<Mod> mods() {
+        return new CompactModList(this);
+    }
+
+    private static int find(int[] table, boolean slug, String key, int[] offsets, byte[] arena) {
+        int mask = table.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) return -1;
+            // Skip the checksum encoding, and the id when looking for the slug
+            int[] position = {offsets[entry - 1] + 1};
+            if (slug) skipString(arena, position);
+            if (key.equals(readString(arena, position))) return entry - 1;
+        }
+    }
+
+    private static int urlPrefixLength(String url) {
+        if (url == null) return 0;
+        int slashes = 0;
+        for (int i = 0; i < url.length(); i++) {
+            if (url.charAt(i) == '/' && ++slashes == URL_PREFIX_SLASHES) return i + 1;
+        }
+        return 0;
+    }
+
+    private static void insert(int[] table, String key, int index) {
+        int mask = table.length - 1;
+        int slot = slot(key, mask);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    private static int slot(String key, int mask) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Power of two with a load factor of at most one half
+    private static int tableSize(int entries) {
+        return Integer.highestOneBit(Math.max(2, entries * 2 - 1)) << 1;
+    }
+
+    private static int code(Map<String, Integer> symbolCodes, String value) {
+        Integer code = symbolCodes.get(value);
+        if (code == null) {
+            code = symbolCodes.size();
+            symbolCodes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Text as word codes: a varint of the word count + 1 (0 = null), then a varint code per word. A word is a
+     * run of letters or digits plus one following space, or any other single character.
+     */
+    private static void putText(Arena arena, String text, Map<String, Integer> wordCodes, Arena words,
+                                IntList wordOffsets) {
+        if (text == null) {
+            arena.putVarint(0);
+            return;
+        }
+        IntList codes = new IntList();
+        int i = 0;
+        while (i < text.length()) {
+            int end = i + 1;
+            if (Character.isLetterOrDigit(text.charAt(i))) {
+                while (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) end++;
+                if (end < text.length() && text.charAt(end) == ' ') end++;
+            } else if (Character.isHighSurrogate(text.charAt(i)) && end < text.length()) {
+                end++;
+            }
+            String word = text.substring(i, end);
+            Integer code = wordCodes.get(word);
+            if (code == null) {
+                code = wordCodes.size();
+                wordCodes.put(word, code);
+                wordOffsets.add(words.size);
+                words.putRaw(word.getBytes(StandardCharsets.UTF_8));
+            }
+            codes.add(code);
+            i = end;
+        }
+        arena.putVarint(codes.size + 1);
+        for (int c = 0; c < codes.size; c++) {
+            arena.putVarint(codes.values[c]);
+        }
+    }
+
+    private String readText(int[] position) {
+        int count = readVarint(arena, position) - 1;
+        if (count < 0) return null;
+        int length = 0;
+        int start = position[0];
+        for (int c = 0; c < count; c++) {
+            int word = readVarint(arena, position);
+            length += wordOffsets[word + 1] - wordOffsets[word];
+        }
+        byte[] utf8 = new byte[length];
+        position[0] = start;
+        int n = 0;
+        for (int c = 0; c < count; c++) {
+            int word = readVarint(arena, position);
+            int from = wordOffsets[word];
+            int wordLength = wordOffsets[word + 1] - from;
+            System.arraycopy(words, from, utf8, n, wordLength);
+            n += wordLength;
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    // A string is a varint of its UTF-8 length + 1 (0 = null) followed by the bytes
+    private static String readString(byte[] arena, int[] position) {
+        int length = readVarint(arena, position) - 1;
+        if (length < 0) return null;
+        String value = new String(arena, position[0], length, StandardCharsets.UTF_8);
+        position[0] += length;
+        return value;
+    }
+
+    private static void skipString(byte[] arena, int[] position) {
+        int length = readVarint(arena, position) - 1;
+        if (length > 0) position[0] += length;
+    }
+
+    private String readHex(int[] position) {
+        int length = readVarint(arena, position) - 1;
+        char[] hex = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int b = arena[position[0] + i] & 0xFF;
+            hex[2 * i] = HEX_DIGITS[b >>> 4];
+            hex[2 * i + 1] = HEX_DIGITS[b & 0xF];
+        }
+        position[0] += length;
+        return new String(hex);
+    }
+
+    private static int readVarint(byte[] arena, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = arena[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    // File sizes and download counts are zigzag-encoded so an unknown (negative) value still round-trips
+    private long readVarLong(int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = arena[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * The raw bytes of a non-empty, even-length, lower-case hex string, or null if it is anything else
+     * (so decoding gives back exactly the same string).
+     */
+    private static byte[] hexBytes(String checksum) {
+        if (checksum == null || checksum.isEmpty() || checksum.length() % 2 != 0) return null;
+        byte[] bytes = new byte[checksum.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(checksum.charAt(2 * i), 16);
+            int low = Character.digit(checksum.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0 || Character.isUpperCase(checksum.charAt(2 * i))
+                || Character.isUpperCase(checksum.charAt(2 * i + 1))) {
+                return null;
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+
+    private static final class Arena {
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        void put(byte b) {
+            ensure(1);
+            bytes[size++] = b;
+        }
+
+        void putString(String value) {
+            if (value == null) {
+                putVarint(0);
+                return;
+            }
+            putBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void putBytes(byte[] value) {
+            putVarint(value.length + 1);
+            putRaw(value);
+        }
+
+        void putRaw(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        void putVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void putVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensure(10);
+            while ((zigzag & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            bytes[size++] = (byte) zigzag;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                long grown = Math.max((long) bytes.length * 2, (long) size + extra);
+                if (grown > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Mod catalog too large for an in-memory store");
+                }
+                bytes = Arrays.copyOf(bytes, (int) grown);
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class CompactModList extends AbstractList<Mod> implements RandomAccess {
+        private final CompactModStore store;
+
+        CompactModList(CompactModStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public Mod get(int index) {
+            if (index < 0 || index >= store.size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return store.mod(index);
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+    }
+}
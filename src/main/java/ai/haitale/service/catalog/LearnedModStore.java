@@ -0,0 +1,95 @@
+package ai.haitale.service.catalog;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.HaitaleDataDirectory;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.serde.ObjectMapper;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists the mods live search found since the last refresh, as a small overlay next to the catalog.
+ * Learning a mod rewrites only this file; the next refresh folds the overlay into the catalog and clears it.
+ */
+@Singleton
+public class LearnedModStore {
+    private static final Logger LOG = LoggerFactory.getLogger(LearnedModStore.class);
+    private static final String LEARNED_FILE = "catalog-learned.json";
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final boolean enabled;
+
+    public LearnedModStore(
+        ObjectMapper objectMapper,
+        HaitaleDataDirectory dataDirectory,
+        @Value("${mod.repository.cache.enabled:true}") boolean enabled
+    ) {
+        this.objectMapper = objectMapper;
+        this.file = dataDirectory.resolve(LEARNED_FILE);
+        this.enabled = enabled;
+    }
+
+    /**
+     * The learned mods, oldest first; empty if there are none (or persistence is disabled).
+     */
+    public List<Mod> load() {
+        if (!enabled || !Files.exists(file)) return List.of();
+        try (InputStream in = Files.newInputStream(file)) {
+            LearnedMods learned = objectMapper.readValue(in, LearnedMods.class);
+            return learned != null ? learned.getMods() : List.of();
+        } catch (IOException e) {
+            LOG.warn("Ignoring unreadable learned mods {}: {}", file, e.getMessage());
+            return List.of();
+        }
+    }
+
+    public void save(List<Mod> mods) {
+        if (!enabled) return;
+        LearnedMods learned = new LearnedMods();
+        learned.setMods(new ArrayList<>(mods));
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), "catalog-learned", ".tmp");
+            Files.write(tmp, objectMapper.writeValueAsBytes(learned));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Failed to persist learned mods: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Forget the overlay once a saved catalog contains its mods.
+     */
+    public void clear() {
+        if (!enabled) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Failed to clear learned mods {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Serdeable
+    public static class LearnedMods {
+        private List<Mod> mods = new ArrayList<>();
+
+        public List<Mod> getMods() {
+            return mods;
+        }
+
+        public void setMods(List<Mod> mods) {
+            this.mods = mods != null ? mods : new ArrayList<>();
+        }
+    }
+}
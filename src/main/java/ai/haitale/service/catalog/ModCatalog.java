@@ -0,0 +1,226 @@
+package ai.haitale.service.catalog;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.index.ModSearchIndex;
+import ai.haitale.service.recommend.RelevanceScorer;
+import ai.haitale.service.recommend.SemanticIndex;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Immutable snapshot of the mod catalog: the ordered list, hash lookups by id and by slug, and the
+ * full-text index, all built together. A refresh builds a new snapshot and publishes it with one
+ * reference swap, so readers never lock and never see a half-updated catalog.
+ * <p>
+ * A snapshot is either built on the heap by {@link #of}, with the mods held in a {@link CompactModStore},
+ * or backed by a memory-mapped {@link BinaryCatalogFile}. Either way mods are decoded on access, so callers
+ * get a fresh {@link Mod} per lookup.
+ */
+public final class ModCatalog {
+    private static final ModCatalog EMPTY = new ModCatalog(List.of(), id -> null, slug -> null,
+        ModSearchIndex.empty(), RelevanceScorer.empty(), Instant.EPOCH, List.of());
+
+    private final List<Mod> mods;
+    private final Function<String, Mod> byId;
+    private final Function<String, Mod> bySlug;
+    private final ModSearchIndex searchIndex;
+    private final RelevanceScorer relevanceScorer;
+    private final Instant refreshedAt;
+    private final List<String> partialSources;
+    private volatile SemanticIndex semanticIndex;
+
+    private ModCatalog(List<Mod> mods, Function<String, Mod> byId, Function<String, Mod> bySlug,
+                       ModSearchIndex searchIndex, RelevanceScorer relevanceScorer, Instant refreshedAt,
+                       List<String> partialSources) {
+        this.mods = mods;
+        this.byId = byId;
+        this.bySlug = bySlug;
+        this.searchIndex = searchIndex;
+        this.relevanceScorer = relevanceScorer;
+        this.refreshedAt = refreshedAt;
+        this.partialSources = partialSources;
+    }
+
+    public static ModCatalog empty() {
+        return EMPTY;
+    }
+
+    public static ModCatalog of(List<Mod> source) {
+        return of(source, Instant.now());
+    }
+
+    /**
+     * Build a snapshot of mods fetched at {@code refreshedAt}.
+     * Mods without an id are skipped; for duplicate ids the first one wins.
+     */
+    public static ModCatalog of(List<Mod> source, Instant refreshedAt) {
+        return of(source, refreshedAt, List.of());
+    }
+
+    /**
+     * As {@link #of(List, Instant)}, recording the sources that failed or timed out during the refresh.
+     */
+    public static ModCatalog of(List<Mod> source, Instant refreshedAt, List<String> partialSources) {
+        Set<String> ids = new HashSet<>(source.size() * 2);
+        List<Mod> unique = new ArrayList<>(source.size());
+        for (Mod m : source) {
+            if (m == null || m.getId() == null || !ids.add(m.getId())) continue;
+            unique.add(m);
+        }
+        // Held compactly; the source mods are only read here and can be collected afterwards
+        CompactModStore store = CompactModStore.of(unique);
+        List<Mod> mods = store.mods();
+        return new ModCatalog(mods, store::findById, store::findBySlug,
+            ModSearchIndex.over(mods, ModSearchIndex.buildDictionary(unique)),
+            RelevanceScorer.over(RelevanceScorer.columns(unique)),
+            refreshedAt, List.copyOf(partialSources));
+    }
+
+    /**
+     * A snapshot that reads straight from a mapped catalog file; nothing is decoded up front.
+     * {@code semanticIndex} is the one saved with the file, or null to build it on first use.
+     */
+    static ModCatalog mapped(BinaryCatalogFile file, SemanticIndex semanticIndex) {
+        List<Mod> mods = file.mods();
+        ModCatalog catalog = new ModCatalog(mods, file::findById, file::findBySlug,
+            ModSearchIndex.over(mods, file.termDictionary()), RelevanceScorer.over(file.relevanceColumns()),
+            file.refreshedAt(), file.partialSources());
+        catalog.semanticIndex = semanticIndex;
+        return catalog;
+    }
+
+    /**
+     * All mods in catalog order. The list is unmodifiable.
+     */
+    public List<Mod> mods() {
+        return mods;
+    }
+
+    public Mod byId(String id) {
+        return id == null ? null : byId.apply(id);
+    }
+
+    public Mod bySlug(String slug) {
+        return slug == null ? null : bySlug.apply(slug);
+    }
+
+    /**
+     * Look a mod up by id, falling back to slug.
+     */
+    public Mod find(String idOrSlug) {
+        Mod mod = byId(idOrSlug);
+        return mod != null ? mod : bySlug(idOrSlug);
+    }
+
+    /**
+     * The mods matching {@code filter} in catalog order, followed by {@code extra}. The list remembers the
+     * catalog slot of each of its catalog mods, so {@link #relevanceScorer()} scores them from the stored
+     * columns. The list is unmodifiable.
+     */
+    public List<Mod> select(Predicate<Mod> filter, List<Mod> extra) {
+        List<Mod> selected = new ArrayList<>();
+        int[] slots = new int[16];
+        for (int i = 0; i < mods.size(); i++) {
+            Mod mod = mods.get(i);
+            if (!filter.test(mod)) continue;
+            if (selected.size() == slots.length) slots = Arrays.copyOf(slots, slots.length * 2);
+            slots[selected.size()] = i;
+            selected.add(mod);
+        }
+        int catalogMods = selected.size();
+        selected.addAll(extra);
+        return new Selection(selected, Arrays.copyOf(slots, catalogMods), relevanceScorer);
+    }
+
+    public ModSearchIndex searchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Keyword relevance scorer over the normalized text and rule bits stored with each mod, by slot.
+     */
+    public RelevanceScorer relevanceScorer() {
+        return relevanceScorer;
+    }
+
+    /**
+     * Embeddings of every mod in a nearest-neighbour index. A loaded snapshot maps the index saved with it;
+     * otherwise it is built on first use (at refresh, when the snapshot is saved) and kept for the life of the snapshot.
+     */
+    public SemanticIndex semanticIndex() {
+        SemanticIndex index = semanticIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = semanticIndex;
+                if (index == null) {
+                    index = SemanticIndex.build(mods);
+                    semanticIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Sources whose data in this snapshot is stale because they failed or missed their deadline.
+     */
+    public List<String> partialSources() {
+        return partialSources;
+    }
+
+    public int size() {
+        return mods.size();
+    }
+
+    /**
+     * When the remote sources were last fetched; {@link Instant#EPOCH} for a catalog that never was.
+     */
+    public Instant refreshedAt() {
+        return refreshedAt;
+    }
+
+    /**
+     * Mods selected from a snapshot: the catalog mods first, with their slots, then any others.
+     */
+    private static final class Selection extends AbstractList<Mod>
+        implements RandomAccess, RelevanceScorer.CatalogSlots {
+        private final List<Mod> mods;
+        private final int[] slots;
+        private final RelevanceScorer scorer;
+
+        Selection(List<Mod> mods, int[] slots, RelevanceScorer scorer) {
+            this.mods = mods;
+            this.slots = slots;
+            this.scorer = scorer;
+        }
+
+        @Override
+        public Mod get(int index) {
+            return mods.get(index);
+        }
+
+        @Override
+        public int size() {
+            return mods.size();
+        }
+
+        @Override
+        public RelevanceScorer scorer() {
+            return scorer;
+        }
+
+        @Override
+        public int slot(int index) {
+            return index < slots.length ? slots[index] : -1;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package ai.haitale.service.catalog;
+
+import ai.haitale.service.HaitaleDataDirectory;
+import ai.haitale.service.recommend.SemanticIndex;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Persists the merged mod catalog under the haitale data directory as a {@link BinaryCatalogFile}, so the
+ * next run can memory-map it and answer lookups immediately, before (or without) contacting any remote
+ * repository.
+ * <p>
+ * A mapped file cannot be replaced or deleted on Windows, so every save writes a new generation
+ * (catalog-&lt;n&gt;.bin) and then atomically repoints catalog.current at it. Older generations are deleted
+ * once nothing maps them any more; one still mapped by a running process is retried on a later save.
+ * <p>
+ * Each generation has its {@link SemanticIndex} next to it (catalog-&lt;n&gt;.sem), built while saving, so a
+ * recommendation maps the embeddings instead of recomputing them in every process.
+ */
+@Singleton
+public class ModCatalogStore {
+    private static final Logger LOG = LoggerFactory.getLogger(ModCatalogStore.class);
+    private static final String CATALOG_FILE = "catalog.bin";
+    private static final String EXTENSION = ".bin";
+    private static final String SEMANTIC_EXTENSION = ".sem";
+    private static final String POINTER_EXTENSION = ".current";
+
+    // Catalog written before generations existed; still read when there is no pointer
+    private final Path legacyFile;
+    private final Path directory;
+    private final String prefix;
+    private final Path pointerFile;
+    private final boolean enabled;
+
+    public ModCatalogStore(
+        HaitaleDataDirectory dataDirectory,
+        @Value("${mod.repository.cache.enabled:true}") boolean enabled
+    ) {
+        this(dataDirectory.resolve(CATALOG_FILE), enabled);
+    }
+
+    ModCatalogStore(Path catalogFile, boolean enabled) {
+        String name = catalogFile.getFileName().toString();
+        this.legacyFile = catalogFile;
+        this.directory = catalogFile.toAbsolutePath().getParent();
+        this.prefix = name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length()) : name;
+        this.pointerFile = directory.resolve(prefix + POINTER_EXTENSION);
+        this.enabled = enabled;
+    }
+
+    /**
+     * The last saved catalog, mapped and decoded lazily, or null if there is none (or persistence is disabled).
+     * A damaged current generation falls back to an older one still on disk, else to null so a refresh rebuilds it.
+     */
+    public ModCatalog load() {
+        if (!enabled) return null;
+        for (Path file : candidateFiles()) {
+            try {
+                return ModCatalog.mapped(BinaryCatalogFile.open(file), loadSemanticIndex(file));
+            } catch (IOException e) {
+                LOG.warn("Ignoring unreadable catalog {}: {}", file, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // Null when the catalog was saved without one (legacy or empty catalog); it is then built on first use
+    private SemanticIndex loadSemanticIndex(Path catalogFile) {
+        Path file = semanticFile(catalogFile);
+        if (!Files.exists(file)) return null;
+        try {
+            return SemanticIndex.open(file);
+        } catch (IOException e) {
+            LOG.warn("Ignoring unreadable semantic index {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Save the catalog as a new generation and make it the current one. Readers that mapped an earlier
+     * generation keep a consistent view of it.
+     */
+    public synchronized void save(ModCatalog catalog) {
+        if (!enabled) return;
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            Path target = directory.resolve(prefix + "-" + nextGeneration() + EXTENSION);
+            tmp = Files.createTempFile(directory, prefix, ".tmp");
+            BinaryCatalogFile.write(tmp, catalog);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // Built here, once per refresh, and kept by the in-memory snapshot too
+            SemanticIndex semanticIndex = catalog.semanticIndex();
+            if (semanticIndex.size() > 0) {
+                tmp = Files.createTempFile(directory, prefix, ".tmp");
+                semanticIndex.write(tmp);
+                Files.move(tmp, semanticFile(target), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            // The pointer is never mapped, so replacing it works on every platform
+            tmp = Files.createTempFile(directory, prefix, ".tmp");
+            Files.writeString(tmp, target.getFileName().toString(), StandardCharsets.UTF_8);
+            Files.move(tmp, pointerFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+
+            deleteOtherGenerations(target);
+        } catch (IOException e) {
+            LOG.warn("Failed to persist mod catalog: {}", e.getMessage());
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            }
+        }
+    }
+
+    // The current catalog, then generations an earlier save could not delete (newest first), then the legacy file
+    private List<Path> candidateFiles() {
+        List<Path> files = new ArrayList<>();
+        Path current = currentFile();
+        if (current != null) files.add(current);
+        List<Path> others = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> found = Files.newDirectoryStream(directory, prefix + "-*" + EXTENSION)) {
+                for (Path file : found) {
+                    if (!file.equals(current) && generation(file.getFileName().toString()) >= 0) others.add(file);
+                }
+            } catch (IOException e) {
+                LOG.debug("Could not list old catalog generations: {}", e.getMessage());
+            }
+        }
+        others.sort(Comparator.comparingLong((Path file) -> generation(file.getFileName().toString())).reversed());
+        files.addAll(others);
+        if (!files.contains(legacyFile) && Files.exists(legacyFile)) files.add(legacyFile);
+        return files;
+    }
+
+    private Path currentFile() {
+        if (Files.exists(pointerFile)) {
+            try {
+                String name = Files.readString(pointerFile, StandardCharsets.UTF_8).trim();
+                Path file = directory.resolve(name);
+                // Only ever a generation file in this directory
+                boolean generationFile = name.endsWith(EXTENSION) && generation(name) >= 0
+                    && directory.equals(file.getParent());
+                if (generationFile && Files.exists(file)) return file;
+                LOG.warn("Catalog pointer {} names a missing file {}", pointerFile, name);
+            } catch (IOException e) {
+                LOG.warn("Ignoring unreadable catalog pointer {}: {}", pointerFile, e.getMessage());
+            }
+        }
+        return Files.exists(legacyFile) ? legacyFile : null;
+    }
+
+    private long nextGeneration() throws IOException {
+        long max = 0;
+        // A semantic index still mapped elsewhere can outlive its catalog; never reuse its number
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "-*")) {
+            for (Path file : files) {
+                max = Math.max(max, generation(file.getFileName().toString()));
+            }
+        }
+        return max + 1;
+    }
+
+    private Path semanticFile(Path catalogFile) {
+        String name = catalogFile.getFileName().toString();
+        String base = name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length()) : name;
+        return catalogFile.resolveSibling(base + SEMANTIC_EXTENSION);
+    }
+
+    // Generation number of a catalog-<n>.bin or catalog-<n>.sem name, or -1 for any other name
+    private long generation(String name) {
+        String extension = name.endsWith(SEMANTIC_EXTENSION) ? SEMANTIC_EXTENSION : EXTENSION;
+        if (!name.startsWith(prefix + "-") || !name.endsWith(extension)) return -1;
+        try {
+            return Long.parseLong(name.substring(prefix.length() + 1, name.length() - extension.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Files still mapped (by this or another process) cannot be deleted on Windows; a later save retries them
+    private void deleteOtherGenerations(Path current) {
+        List<Path> stale = new ArrayList<>();
+        Path currentSemantic = semanticFile(current);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "-*")) {
+            for (Path file : files) {
+                if (file.equals(current) || file.equals(currentSemantic)) continue;
+                if (generation(file.getFileName().toString()) >= 0) stale.add(file);
+            }
+        } catch (IOException e) {
+            LOG.debug("Could not list old catalog generations: {}", e.getMessage());
+        }
+        stale.add(legacyFile);
+        for (Path file : stale) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.debug("Keeping old catalog {} for now: {}", file, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package ai.haitale.service.http;
+
+import ai.haitale.service.HaitaleDataDirectory;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * Disk-backed HTTP cache shared by the catalog clients (Modrinth, GitHub, CurseForge).
+ * Successful GET bodies are stored together with their ETag / Last-Modified validators; later requests for the
+ * same URL are sent as conditional requests and a 304 is answered from disk. Survives across CLI invocations.
+ * Large bodies can be streamed with {@link #sendStreaming}, which copies them to disk as they are read.
+ */
+@Singleton
+public class HttpResponseCache {
+    private static final Logger LOG = LoggerFactory.getLogger(HttpResponseCache.class);
+
+    private final HttpTransport transport;
+    private final Path directory; // null when caching is disabled
+
+    @Inject
+    public HttpResponseCache(
+        HttpTransport transport,
+        HaitaleDataDirectory dataDirectory,
+        @Value("${http.cache.enabled:true}") boolean enabled
+    ) {
+        this(transport, enabled ? dataDirectory.resolve("cache", "http") : null);
+    }
+
+    HttpResponseCache(HttpTransport transport, Path directory) {
+        this.transport = transport;
+        this.directory = directory;
+    }
+
+    /**
+     * A cache that always goes to the network (used by tests and stand-alone client construction).
+     */
+    public static HttpResponseCache disabled(HttpTransport transport) {
+        return new HttpResponseCache(transport, null);
+    }
+
+    /**
+     * Send a request through the shared transport, revalidating any stored copy.
+     * A 304 is surfaced to callers as a 200 with the cached body. Requests that already carry their own
+     * If-None-Match are passed through untouched, so a caller keeping its own validators sees the 304.
+     */
+    public CachedResponse send(HttpRequest request) throws IOException, InterruptedException {
+        if (directory == null || !"GET".equals(request.method())
+            || request.headers().firstValue("If-None-Match").isPresent()) {
+            return fromNetwork(transport.send(request));
+        }
+
+        String key = cacheKey(request);
+        Path metaFile = directory.resolve(key + ".meta");
+        Path bodyFile = directory.resolve(key + ".body");
+        Properties meta = readMeta(metaFile);
+
+        boolean revalidating = meta != null && Files.exists(bodyFile);
+        HttpResponse<byte[]> resp = transport.send(revalidating ? conditional(request, meta) : request);
+
+        if (resp.statusCode() == 304 && revalidating) {
+            try {
+                byte[] body = Files.readAllBytes(bodyFile);
+                LOG.debug("HTTP cache revalidated {}", request.uri());
+                return new CachedResponse(200, body, resp.headers(), true);
+            } catch (IOException e) {
+                // Body vanished between the existence check and the read; refetch unconditionally
+                LOG.debug("Cached body missing for {}, refetching", request.uri());
+                return fromNetwork(transport.send(request));
+            }
+        }
+
+        if (resp.statusCode() == 200) {
+            store(request, resp, metaFile, bodyFile);
+        }
+        return fromNetwork(resp);
+    }
+
+    /**
+     * As {@link #send}, but the body is streamed: from disk after a 304, otherwise from the network. A cacheable
+     * 200 is copied to the cache file as the caller reads it and committed only once it was read to the end,
+     * so the body is never held in memory as a whole. The caller must close the response.
+     */
+    public StreamedResponse sendStreaming(HttpRequest request) throws IOException, InterruptedException {
+        if (directory == null || !"GET".equals(request.method())
+            || request.headers().firstValue("If-None-Match").isPresent()) {
+            HttpResponse<InputStream> resp = transport.sendStreaming(request);
+            return new StreamedResponse(resp.statusCode(), resp.body(), resp.headers(), false);
+        }
+
+        String key = cacheKey(request);
+        Path metaFile = directory.resolve(key + ".meta");
+        Path bodyFile = directory.resolve(key + ".body");
+        Properties meta = readMeta(metaFile);
+        boolean revalidating = meta != null && Files.exists(bodyFile);
+
+        HttpResponse<InputStream> resp = transport.sendStreaming(revalidating ? conditional(request, meta) : request);
+        if (resp.statusCode() == 304 && revalidating) {
+            resp.body().close();
+            try {
+                InputStream cached = Files.newInputStream(bodyFile);
+                LOG.debug("HTTP cache revalidated {}", request.uri());
+                return new StreamedResponse(200, cached, resp.headers(), true);
+            } catch (IOException e) {
+                LOG.debug("Cached body missing for {}, refetching", request.uri());
+                HttpResponse<InputStream> refetched = transport.sendStreaming(request);
+                return new StreamedResponse(refetched.statusCode(), refetched.body(), refetched.headers(), false);
+            }
+        }
+
+        InputStream body = resp.body();
+        Properties validators = resp.statusCode() == 200 ? validators(request, resp.headers()) : null;
+        if (validators != null) {
+            try {
+                Files.createDirectories(directory);
+                body = new CachingInputStream(body, Files.createTempFile(directory, "body", ".tmp"), bodyFile, metaFile, validators);
+            } catch (IOException e) {
+                LOG.debug("Not caching {}: {}", request.uri(), e.getMessage());
+            }
+        }
+        return new StreamedResponse(resp.statusCode(), body, resp.headers(), false);
+    }
+
+    private HttpRequest conditional(HttpRequest request, Properties meta) {
+        HttpRequest.Builder conditional = HttpRequest.newBuilder(request, (name, value) -> true);
+        String etag = meta.getProperty("etag");
+        String lastModified = meta.getProperty("last-modified");
+        if (etag != null) conditional.header("If-None-Match", etag);
+        if (lastModified != null) conditional.header("If-Modified-Since", lastModified);
+        return conditional.build();
+    }
+
+    // Meta of a response worth caching, or null when it has nothing to revalidate with
+    private Properties validators(HttpRequest request, HttpHeaders headers) {
+        String etag = headers.firstValue("ETag").orElse(null);
+        String lastModified = headers.firstValue("Last-Modified").orElse(null);
+        if (etag == null && lastModified == null) return null;
+        Properties meta = new Properties();
+        meta.setProperty("url", request.uri().toString());
+        if (etag != null) meta.setProperty("etag", etag);
+        if (lastModified != null) meta.setProperty("last-modified", lastModified);
+        return meta;
+    }
+
+    private void writeMeta(Path metaFile, Properties meta) throws IOException {
+        Path tmpMeta = Files.createTempFile(directory, "meta", ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmpMeta)) {
+            meta.store(out, null);
+        }
+        Files.move(tmpMeta, metaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private CachedResponse fromNetwork(HttpResponse<byte[]> resp) {
+        return new CachedResponse(resp.statusCode(), resp.body() != null ? resp.body() : new byte[0], resp.headers(), false);
+    }
+
+    private void store(HttpRequest request, HttpResponse<byte[]> resp, Path metaFile, Path bodyFile) {
+        Properties meta = validators(request, resp.headers());
+        if (meta == null) return; // nothing to revalidate with
+
+        try {
+            Files.createDirectories(directory);
+            // Write body before meta so a meta file never points at a missing or partial body
+            writeAtomically(bodyFile, resp.body());
+            writeMeta(metaFile, meta);
+        } catch (IOException e) {
+            LOG.debug("Failed to store HTTP cache entry for {}: {}", request.uri(), e.getMessage());
+        }
+    }
+
+    private void writeAtomically(Path target, byte[] data) throws IOException {
+        Path tmp = Files.createTempFile(directory, "body", ".tmp");
+        Files.write(tmp, data);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Properties readMeta(Path metaFile) {
+        if (!Files.exists(metaFile)) return null;
+        try (InputStream in = Files.newInputStream(metaFile)) {
+            Properties meta = new Properties();
+            meta.load(in);
+            return meta;
+        } catch (IOException e) {
+            LOG.debug("Ignoring unreadable HTTP cache entry {}: {}", metaFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private String cacheKey(HttpRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(request.uri().toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Fully-read response body plus metadata. {@code fromCache} is true when the body was served from disk after a 304.
+     */
+    public record CachedResponse(int statusCode, byte[] body, HttpHeaders headers, boolean fromCache) {
+        public String bodyAsString() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Response whose body is read as a stream. {@code fromCache} is true when the body comes from disk after a 304.
+     */
+    public record StreamedResponse(int statusCode, InputStream body, HttpHeaders headers, boolean fromCache)
+        implements Closeable {
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    /**
+     * Copies what the caller reads into a temp file. On close the copy becomes the cached body, followed by its
+     * meta, if the stream was read to the end; a partly read body is discarded.
+     */
+    private final class CachingInputStream extends FilterInputStream {
+        private static final int MAX_DRAIN = 64 * 1024;
+        private final OutputStream copy;
+        private final Path tmp;
+        private final Path bodyFile;
+        private final Path metaFile;
+        private final Properties meta;
+        private boolean complete;
+        private boolean failed;
+        private boolean closed;
+
+        CachingInputStream(InputStream in, Path tmp, Path bodyFile, Path metaFile, Properties meta) throws IOException {
+            super(in);
+            this.copy = Files.newOutputStream(tmp);
+            this.tmp = tmp;
+            this.bodyFile = bodyFile;
+            this.metaFile = metaFile;
+            this.meta = meta;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) complete = true;
+            else write(new byte[] {(byte) b}, 0, 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = super.read(buffer, off, len);
+            if (n < 0) complete = true;
+            else write(buffer, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes never reach the copy, so it can no longer be cached
+            failed = true;
+            return super.skip(n);
+        }
+
+        private void write(byte[] buffer, int off, int len) {
+            if (failed) return;
+            try {
+                copy.write(buffer, off, len);
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                // A decoder may stop right after the closing bracket; drain a short tail so the copy is whole
+                byte[] rest = new byte[8192];
+                for (int drained = 0; !complete && !failed && drained < MAX_DRAIN; ) {
+                    int n = read(rest, 0, rest.length);
+                    if (n > 0) drained += n;
+                }
+                super.close();
+            } finally {
+                commit();
+            }
+        }
+
+        private void commit() {
+            try {
+                copy.close();
+                if (complete && !failed) {
+                    Files.move(tmp, bodyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    writeMeta(metaFile, meta);
+                }
+            } catch (IOException e) {
+                LOG.debug("Failed to store HTTP cache entry {}: {}", bodyFile, e.getMessage());
+            } finally {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // left for the next write to the directory to overwrite
+                }
+            }
+        }
+    }
+}
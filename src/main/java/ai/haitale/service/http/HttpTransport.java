@@ -0,0 +1,227 @@
+package ai.haitale.service.http;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Single outbound HTTP transport shared by every remote client (Modrinth, GitHub, CurseForge, downloads, OpenRouter).
+ * <p>
+ * One {@link HttpClient} means one connection pool, one TLS session cache and one executor for the whole process.
+ * Requests prefer HTTP/2 (multiplexed over a single connection per host), advertise gzip and are transparently
+ * decompressed, and a per-host semaphore caps how many exchanges run against one host at a time.
+ * Every exchange also passes through the {@link RateLimiter}: requests are paced before they are sent, and
+ * 429s (or GitHub's 403 with an exhausted budget) are retried after the advertised reset.
+ */
+@Singleton
+public class HttpTransport {
+    private static final Logger LOG = LoggerFactory.getLogger(HttpTransport.class);
+    private static final String USER_AGENT = "haitale/0.1 (https://github.com/raultorres2603/haitale)";
+
+    private final HttpClient httpClient;
+    private final RateLimiter rateLimiter;
+    private final int maxConnectionsPerHost;
+    private final int maxRateLimitRetries;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    @Inject
+    public HttpTransport(
+        RateLimiter rateLimiter,
+        @Value("${http.transport.connect-timeout-seconds:30}") int connectTimeoutSeconds,
+        @Value("${http.transport.max-connections-per-host:8}") int maxConnectionsPerHost,
+        @Value("${http.ratelimit.max-retries:3}") int maxRateLimitRetries
+    ) {
+        this.rateLimiter = rateLimiter;
+        this.maxRateLimitRetries = Math.max(0, maxRateLimitRetries);
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+    }
+
+    /**
+     * Transport with default settings, for clients constructed outside the application context.
+     */
+    public static HttpTransport standalone() {
+        return new HttpTransport(RateLimiter.defaults(), 30, 8, 3);
+    }
+
+    /**
+     * Send a request and read the whole (decompressed) body.
+     */
+    public HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return send(request, maxRateLimitRetries);
+    }
+
+    /**
+     * Like {@link #send(HttpRequest)}, but a 429 is returned as is instead of being retried here. For callers
+     * that run their own retry loop, so the two do not multiply.
+     */
+    public HttpResponse<byte[]> sendOnce(HttpRequest request) throws IOException, InterruptedException {
+        return send(request, 0);
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request, int maxRetries) throws IOException, InterruptedException {
+        String host = request.uri().getHost();
+        HttpRequest prepared = withDefaults(request);
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire(host);
+            HttpResponse<byte[]> response;
+            Semaphore permits = permitsFor(host);
+            permits.acquire();
+            try {
+                response = httpClient.send(prepared, info -> HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofByteArray(), body -> decode(info, body)));
+            } finally {
+                permits.release();
+            }
+
+            long delay = retryDelay(host, response, attempt, maxRetries);
+            if (delay < 0) return response;
+            LOG.warn("Rate limited by {} (HTTP {}), retrying in {} ms", host, response.statusCode(), delay);
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * Send a request and stream the (decompressed) body. The per-host permit is held until the stream is closed.
+     */
+    public HttpResponse<InputStream> sendStreaming(HttpRequest request) throws IOException, InterruptedException {
+        String host = request.uri().getHost();
+        HttpRequest prepared = withDefaults(request);
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire(host);
+            Semaphore permits = permitsFor(host);
+            permits.acquire();
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(prepared, info ->
+                    HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(),
+                        in -> new ReleasingInputStream(isGzip(info) ? new LazyGzipInputStream(in) : in, permits)));
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+
+            long delay = retryDelay(host, response, attempt, maxRateLimitRetries);
+            if (delay < 0) return response;
+            response.body().close();
+            LOG.warn("Rate limited by {} (HTTP {}), retrying in {} ms", host, response.statusCode(), delay);
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * Records the response's rate-limit headers and returns how long to wait before retrying, or -1 to return it.
+     */
+    private long retryDelay(String host, HttpResponse<?> response, int attempt, int maxRetries) {
+        rateLimiter.update(host, response.headers());
+        int status = response.statusCode();
+        boolean rateLimited = status == 429 || (status == 403
+            && response.headers().firstValue("X-RateLimit-Remaining").map("0"::equals).orElse(false));
+        if (!rateLimited || attempt >= maxRetries) return -1;
+        return rateLimiter.retryDelayMillis(host, response.headers());
+    }
+
+    private HttpRequest withDefaults(HttpRequest request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+        if (request.headers().firstValue("Accept-Encoding").isEmpty()) builder.header("Accept-Encoding", "gzip");
+        if (request.headers().firstValue("User-Agent").isEmpty()) builder.header("User-Agent", USER_AGENT);
+        return builder.build();
+    }
+
+    private Semaphore permitsFor(String host) {
+        return hostPermits.computeIfAbsent(host == null ? "" : host, h -> new Semaphore(maxConnectionsPerHost));
+    }
+
+    private static boolean isGzip(HttpResponse.ResponseInfo info) {
+        return info.headers().firstValue("Content-Encoding").map(v -> v.equalsIgnoreCase("gzip")).orElse(false);
+    }
+
+    private static byte[] decode(HttpResponse.ResponseInfo info, byte[] body) {
+        if (!isGzip(info) || body.length == 0) return body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            LOG.debug("Failed to decompress gzip response body: {}", e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Defers reading the gzip header until the first read, so the mapping function never blocks the client executor.
+     */
+    private static final class LazyGzipInputStream extends InputStream {
+        private final InputStream raw;
+        private InputStream delegate;
+
+        LazyGzipInputStream(InputStream raw) {
+            this.raw = raw;
+        }
+
+        private InputStream delegate() throws IOException {
+            if (delegate == null) delegate = new GZIPInputStream(raw);
+            return delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return delegate().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return delegate().read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) delegate.close();
+            else raw.close();
+        }
+    }
+
+    private static final class ReleasingInputStream extends FilterInputStream {
+        private final Semaphore permits;
+        private boolean released;
+
+        ReleasingInputStream(InputStream in, Semaphore permits) {
+            super(in);
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                synchronized (this) {
+                    if (!released) {
+                        released = true;
+                        permits.release();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package ai.haitale.service.http;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-host client-side rate limiter.
+ * <p>
+ * Each host gets a token bucket seeded from its documented limit (Modrinth 300 req/min, anonymous GitHub
+ * 60 req/hour) and corrected from the X-Ratelimit-Remaining / X-Ratelimit-Reset headers of every response.
+ * When the server-reported budget runs low, requests are spaced evenly across the rest of the window; when it is
+ * exhausted, callers wait for the reset instead of being rejected. Waits longer than the configured maximum fail
+ * fast with {@link RateLimitExceededException} so a CLI run never hangs for an hour on GitHub's limit.
+ * <p>
+ * Only hosts with a configured limit are tracked. Headers from other hosts are ignored, as their reset
+ * semantics are unknown and their callers handle rejections themselves.
+ */
+@Singleton
+public class RateLimiter {
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimiter.class);
+    // Start spacing requests once fewer than this fraction of the window's budget remains
+    private static final double LOW_WATER_FRACTION = 0.1;
+    // Reset headers above this value are epoch seconds (GitHub), below it seconds-until-reset (Modrinth)
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+    // ...and above this one epoch milliseconds (OpenRouter)
+    private static final long EPOCH_MILLIS_THRESHOLD = 1_000_000_000_000L;
+
+    private final boolean enabled;
+    private final long maxWaitMs;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Inject
+    public RateLimiter(
+        @Value("${http.ratelimit.enabled:true}") boolean enabled,
+        @Value("${http.ratelimit.max-wait-seconds:120}") long maxWaitSeconds,
+        @Value("${http.ratelimit.modrinth-per-minute:300}") int modrinthPerMinute,
+        @Value("${http.ratelimit.github-per-hour:60}") int githubPerHour
+    ) {
+        this.enabled = enabled;
+        this.maxWaitMs = Duration.ofSeconds(maxWaitSeconds).toMillis();
+        buckets.put("api.modrinth.com", new Bucket(modrinthPerMinute, Duration.ofMinutes(1)));
+        buckets.put("api.github.com", new Bucket(githubPerHour, Duration.ofHours(1)));
+    }
+
+    public static RateLimiter defaults() {
+        return new RateLimiter(true, 120, 300, 60);
+    }
+
+    /**
+     * Block until a request to {@code host} may be sent.
+     */
+    public void acquire(String host) throws IOException, InterruptedException {
+        if (!enabled || host == null) return;
+        Bucket bucket = buckets.get(host);
+        if (bucket == null) return; // no documented limit and no headers seen yet
+
+        long waitMs = bucket.reserve(System.currentTimeMillis());
+        if (waitMs > maxWaitMs) {
+            bucket.cancelReservation();
+            throw new RateLimitExceededException(host, Instant.now().plusMillis(waitMs));
+        }
+        if (waitMs > 0) {
+            LOG.debug("Rate limiting {}: waiting {} ms", host, waitMs);
+            Thread.sleep(waitMs);
+        }
+    }
+
+    /**
+     * Feed the rate-limit headers of a response back into the host's bucket.
+     */
+    public void update(String host, HttpHeaders headers) {
+        if (!enabled || host == null) return;
+        long remaining = headerLong(headers, "X-Ratelimit-Remaining");
+        long reset = headerLong(headers, "X-Ratelimit-Reset");
+        if (remaining < 0 || reset < 0) return;
+        Bucket bucket = buckets.get(host);
+        if (bucket == null) return;
+
+        long limit = headerLong(headers, "X-Ratelimit-Limit");
+        long now = System.currentTimeMillis();
+        bucket.observe(remaining, limit, resetAt(reset, now), now);
+    }
+
+    /**
+     * How long to wait before retrying a rejected request, or -1 if it should not be retried within the max wait.
+     * Honours Retry-After first, then the rate-limit reset header.
+     */
+    public long retryDelayMillis(String host, HttpHeaders headers) {
+        long now = System.currentTimeMillis();
+        long delay = -1;
+        String retryAfter = headers.firstValue("Retry-After").orElse(null);
+        if (retryAfter != null) {
+            try {
+                delay = Long.parseLong(retryAfter.trim()) * 1000L;
+            } catch (NumberFormatException e) {
+                try {
+                    delay = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - now;
+                } catch (Exception ignore) {
+                    delay = -1;
+                }
+            }
+        }
+        if (delay < 0) {
+            long reset = headerLong(headers, "X-Ratelimit-Reset");
+            if (reset >= 0) delay = resetAt(reset, now) - now;
+        }
+        if (delay < 0) {
+            Bucket bucket = host != null ? buckets.get(host) : null;
+            delay = bucket != null ? bucket.millisUntilReset(now) : -1;
+        }
+        if (delay < 0 || delay > maxWaitMs) return -1;
+        return Math.max(delay, 250L);
+    }
+
+    /**
+     * Remaining server-reported budget for a host, or -1 if unknown.
+     */
+    public long remaining(String host) {
+        Bucket bucket = host != null ? buckets.get(host) : null;
+        return bucket == null ? -1 : bucket.remaining();
+    }
+
+    // Epoch milliseconds of a reset header given as epoch milliseconds, epoch seconds or seconds from now
+    private static long resetAt(long reset, long now) {
+        if (reset > EPOCH_MILLIS_THRESHOLD) return reset;
+        if (reset > EPOCH_SECONDS_THRESHOLD) return reset * 1000L;
+        return now + reset * 1000L;
+    }
+
+    private long headerLong(HttpHeaders headers, String name) {
+        // java.net.http.HttpHeaders lookups are case-insensitive, which covers X-RateLimit-* and X-Ratelimit-*
+        return headers.firstValue(name).map(v -> {
+            try {
+                return (long) Double.parseDouble(v.trim());
+            } catch (NumberFormatException e) {
+                return -1L;
+            }
+        }).orElse(-1L);
+    }
+
+    private static final class Bucket {
+        private double capacity;
+        private double refillPerMs;
+        private double tokens;
+        private long lastRefill;
+        // Server view of the current window
+        private long serverRemaining = -1;
+        private long serverResetAt;
+        private long nextPacedAt;
+
+        Bucket(long limit, Duration window) {
+            this.capacity = Math.max(1, limit);
+            this.refillPerMs = capacity / Math.max(1, window.toMillis());
+            this.tokens = capacity;
+            this.lastRefill = System.currentTimeMillis();
+        }
+
+        synchronized long reserve(long now) {
+            refill(now);
+            long wait = 0;
+
+            if (serverResetAt > now && serverRemaining >= 0) {
+                if (serverRemaining == 0) {
+                    wait = serverResetAt - now;
+                } else if (serverRemaining <= Math.max(1, capacity * LOW_WATER_FRACTION)) {
+                    // Spread what is left evenly over the rest of the window
+                    long spacing = (serverResetAt - now) / serverRemaining;
+                    wait = Math.max(0, nextPacedAt - now);
+                    nextPacedAt = now + wait + spacing;
+                }
+                if (serverRemaining > 0) serverRemaining--;
+            }
+
+            if (tokens < 1) {
+                wait = Math.max(wait, (long) Math.ceil((1 - tokens) / refillPerMs));
+            }
+            tokens -= 1;
+            return wait;
+        }
+
+        synchronized void cancelReservation() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+
+        synchronized void observe(long remaining, long limit, long resetAt, long now) {
+            if (limit > 0 && limit != (long) capacity) {
+                long window = Math.max(1000L, resetAt - now);
+                capacity = limit;
+                refillPerMs = capacity / window;
+            }
+            serverRemaining = remaining;
+            serverResetAt = resetAt;
+            // The server is authoritative: never believe we have more tokens than it says
+            refill(now);
+            tokens = Math.min(tokens, remaining);
+        }
+
+        synchronized long millisUntilReset(long now) {
+            return serverResetAt > now ? serverResetAt - now : -1;
+        }
+
+        synchronized long remaining() {
+            return serverResetAt > System.currentTimeMillis() ? serverRemaining : -1;
+        }
+
+        private void refill(long now) {
+            if (serverResetAt > 0 && now >= serverResetAt) {
+                // Server window rolled over
+                serverRemaining = -1;
+                serverResetAt = 0;
+                tokens = Math.max(tokens, capacity);
+            }
+            long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * refillPerMs);
+                lastRefill = now;
+            }
+        }
+    }
+
+    /**
+     * Thrown when a host's budget will not recover within the configured maximum wait.
+     */
+    public static class RateLimitExceededException extends IOException {
+        private final Instant retryAt;
+
+        public RateLimitExceededException(String host, Instant retryAt) {
+            super("Rate limit for " + host + " exhausted until " + retryAt);
+            this.retryAt = retryAt;
+        }
+
+        public Instant getRetryAt() {
+            return retryAt;
+        }
+    }
+}
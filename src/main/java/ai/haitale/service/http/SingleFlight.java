@@ -0,0 +1,75 @@
+package ai.haitale.service.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent requests: while a call for a key is in flight, further callers with the same key
+ * share its result instead of issuing their own request. Once the call completes the key is released, so results
+ * are not cached beyond the in-flight window.
+ * <p>
+ * Shared results are handed to every waiter, so values should be treated as read-only.
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Asynchronous form: the first caller's future is started, everyone else gets a copy of it.
+     * Copies isolate callers, so one caller cancelling does not cancel the shared call.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) return existing.copy();
+
+        try {
+            call.get().whenComplete((value, error) -> {
+                // Release the key first, so a caller woken by the result and retrying starts a fresh call
+                inFlight.remove(key, mine);
+                if (error != null) mine.completeExceptionally(error);
+                else mine.complete(value);
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+        }
+        return mine.copy();
+    }
+
+    /**
+     * Blocking form: the first caller runs the loader on its own thread, concurrent callers wait for its result.
+     */
+    public V call(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw e;
+            }
+        }
+
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, mine);
+        mine.complete(value);
+        return value;
+    }
+
+    /**
+     * Number of distinct keys currently in flight.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
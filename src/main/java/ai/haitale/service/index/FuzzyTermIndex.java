@@ -0,0 +1,225 @@
+package ai.haitale.service.index;
+
+import ai.haitale.service.index.TermDictionary.TrigramPostings;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Character-trigram index over the terms of a {@link TermDictionary}, for typo-tolerant lookups.
+ * <p>
+ * Terms are padded with a boundary marker, so "magic" yields {@code $ma mag agi gic ic$}. A lookup collects the
+ * terms sharing enough trigrams with the query term to possibly be within the edit distance (one edit changes
+ * at most three trigrams), then verifies each with a bounded Levenshtein distance. Only the vocabulary is
+ * indexed, not the documents, so the index stays small and a lookup touches a few postings lists; its work
+ * and garbage grow with those lists, not with the vocabulary.
+ * <p>
+ * Building walks the whole vocabulary, so a persisted catalog saves the postings and a new process reads them
+ * from the mapping through {@link #over}.
+ */
+final class FuzzyTermIndex {
+    private static final char BOUNDARY = '$';
+    private static final long EMPTY = -1L;
+
+    private final TermDictionary dictionary;
+    // Open-addressing table from packed trigram to slot; postings of slot s are ordinals[offsets[s]..offsets[s + 1])
+    private final LongBuffer keys;
+    private final IntBuffer offsets;
+    private final IntBuffer ordinals;
+
+    private FuzzyTermIndex(TermDictionary dictionary, LongBuffer keys, IntBuffer offsets, IntBuffer ordinals) {
+        this.dictionary = dictionary;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.ordinals = ordinals;
+    }
+
+    /**
+     * An index over postings saved with the dictionary by an earlier {@link #build}.
+     */
+    static FuzzyTermIndex over(TermDictionary dictionary, TrigramPostings postings) {
+        return new FuzzyTermIndex(dictionary, postings.keys(), postings.offsets(), postings.ordinals());
+    }
+
+    TrigramPostings postings() {
+        return new TrigramPostings(keys.duplicate(), offsets.duplicate(), ordinals.duplicate());
+    }
+
+    /**
+     * Two passes over the vocabulary on primitive arrays: count the terms per trigram, then fill the postings.
+     */
+    static FuzzyTermIndex build(TermDictionary dictionary) {
+        int size = dictionary.size();
+        String[] terms = new String[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            terms[ordinal] = dictionary.term(ordinal);
+        }
+        long[] keys = new long[1024];
+        Arrays.fill(keys, EMPTY);
+        int[] counts = new int[keys.length];
+        int used = 0;
+
+        long[] grams = new long[16];
+        for (String term : terms) {
+            grams = trigrams(term, grams);
+            for (int g = 1; g <= (int) grams[0]; g++) {
+                int slot = find(LongBuffer.wrap(keys), grams[g]);
+                if (slot < 0) {
+                    // Keep the table at most half full
+                    if (2 * (used + 1) > keys.length) {
+                        long[] oldKeys = keys;
+                        int[] oldCounts = counts;
+                        keys = new long[oldKeys.length * 2];
+                        Arrays.fill(keys, EMPTY);
+                        counts = new int[keys.length];
+                        for (int old = 0; old < oldKeys.length; old++) {
+                            if (oldKeys[old] != EMPTY) counts[insert(keys, oldKeys[old])] = oldCounts[old];
+                        }
+                    }
+                    slot = insert(keys, grams[g]);
+                    used++;
+                }
+                counts[slot]++;
+            }
+        }
+        int capacity = keys.length;
+        int[] offsets = new int[capacity + 1];
+        for (int slot = 0; slot < capacity; slot++) {
+            offsets[slot + 1] = offsets[slot] + counts[slot];
+        }
+        int[] ordinals = new int[offsets[capacity]];
+        int[] fill = Arrays.copyOf(offsets, capacity);
+        LongBuffer table = LongBuffer.wrap(keys);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            grams = trigrams(terms[ordinal], grams);
+            for (int g = 1; g <= (int) grams[0]; g++) {
+                ordinals[fill[find(table, grams[g])]++] = ordinal;
+            }
+        }
+        return new FuzzyTermIndex(dictionary, table, IntBuffer.wrap(offsets), IntBuffer.wrap(ordinals));
+    }
+
+    /**
+     * Dictionary terms within {@code maxDistance} edits of {@code term}, closest first (ties in dictionary
+     * order), at most {@code limit} of them. The term itself is included when it is in the dictionary.
+     */
+    List<Correction> lookup(String term, int maxDistance, int limit) {
+        long[] queryGrams = trigrams(term, new long[16]);
+        int minShared = Math.max(1, (int) queryGrams[0] - 3 * maxDistance);
+
+        // Count shared trigrams per term on the touched postings only: gather them, sort, and count each run.
+        // Only terms reaching the bound are verified.
+        int[] slots = new int[(int) queryGrams[0]];
+        int touched = 0;
+        for (int g = 0; g < slots.length; g++) {
+            slots[g] = find(keys, queryGrams[g + 1]);
+            if (slots[g] >= 0) touched += offsets.get(slots[g] + 1) - offsets.get(slots[g]);
+        }
+        int[] hits = new int[touched];
+        int n = 0;
+        for (int slot : slots) {
+            if (slot < 0) continue;
+            int length = offsets.get(slot + 1) - offsets.get(slot);
+            ordinals.get(offsets.get(slot), hits, n, length);
+            n += length;
+        }
+        Arrays.sort(hits);
+
+        List<Correction> matches = new ArrayList<>();
+        for (int start = 0, end; start < hits.length; start = end) {
+            int ordinal = hits[start];
+            end = start + 1;
+            while (end < hits.length && hits[end] == ordinal) end++;
+            if (end - start < minShared) continue;
+            String candidate = dictionary.term(ordinal);
+            if (Math.abs(candidate.length() - term.length()) > maxDistance) continue;
+            int distance = distance(term, candidate, maxDistance);
+            if (distance <= maxDistance) matches.add(new Correction(ordinal, distance));
+        }
+        matches.sort((a, b) -> a.distance != b.distance
+            ? Integer.compare(a.distance, b.distance)
+            : Integer.compare(a.ordinal, b.ordinal));
+        return matches.size() <= limit ? matches : matches.subList(0, limit);
+    }
+
+    /**
+     * Levenshtein distance, or {@code max + 1} as soon as it is known to exceed {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * The distinct trigrams of the padded term, three chars packed per long; the count is stored in
+     * element 0. {@code buffer} is reused when it is large enough.
+     */
+    private static long[] trigrams(String term, long[] buffer) {
+        int length = term.length() + 2;
+        long[] grams = buffer.length >= length - 1 ? buffer : new long[length - 1];
+        int count = 0;
+        for (int i = 0; i + 3 <= length; i++) {
+            long gram = (long) charAt(term, i) << 32 | (long) charAt(term, i + 1) << 16 | charAt(term, i + 2);
+            boolean seen = false;
+            for (int g = 1; g <= count && !seen; g++) {
+                seen = grams[g] == gram;
+            }
+            if (!seen) grams[++count] = gram;
+        }
+        grams[0] = count;
+        return grams;
+    }
+
+    // Character at position i of "$" + term + "$"
+    private static char charAt(String term, int i) {
+        return i == 0 || i == term.length() + 1 ? BOUNDARY : term.charAt(i - 1);
+    }
+
+    private static int insert(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        return slot;
+    }
+
+    private static int find(LongBuffer keys, long key) {
+        int mask = keys.capacity() - 1;
+        int slot = hash(key) & mask;
+        while (keys.get(slot) != EMPTY) {
+            if (keys.get(slot) == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    record Correction(int ordinal, int distance) {
+    }
+}
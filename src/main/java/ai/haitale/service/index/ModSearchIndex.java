@@ -0,0 +1,544 @@
+package ai.haitale.service.index;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.index.TermDictionary.Postings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable inverted index over mod names, slugs and descriptions, ranked with BM25.
+ * <p>
+ * Text is lower-cased and split into alphanumeric tokens once, at build time. Each term maps to a postings
+ * list of document ids with per-field term frequencies. A query is tokenized the same way. Every query term
+ * must occur in a mod (AND semantics), and a term of three or more characters also matches index terms it
+ * is a prefix of, so "build" still finds "building". Name hits weigh more than description hits; slug words
+ * missing from the name count as name words.
+ * <p>
+ * When the exact query leaves room under the limit, terms of four or more characters are retried with their
+ * misspellings allowed ("magik" finds "magic"), scored lower per edit. Those hits are appended after the
+ * exact ones, so exact matches always stay on top.
+ */
+public final class ModSearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_PREFIX_EXPANSION = 64;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_FUZZY_EXPANSION = 16;
+    // Score multiplier per edit for a misspelled term match
+    private static final float FUZZY_PENALTY = 0.5f;
+    // correct() allows one edit per this many characters of the word
+    private static final int CORRECTION_CHARS_PER_EDIT = 4;
+
+    private static final ModSearchIndex EMPTY = build(List.of());
+
+    private final List<Mod> mods;
+    private final TermDictionary dictionary;
+    // Trigram index over the dictionary: the one saved with it, else built on the first query that needs it
+    private volatile FuzzyTermIndex fuzzy;
+
+    private ModSearchIndex(List<Mod> mods, TermDictionary dictionary) {
+        this.mods = mods;
+        this.dictionary = dictionary;
+    }
+
+    public static ModSearchIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * An index over an existing dictionary, e.g. one read from a persisted catalog. Doc ids in the
+     * dictionary's postings are positions in {@code mods}.
+     */
+    public static ModSearchIndex over(List<Mod> mods, TermDictionary dictionary) {
+        return new ModSearchIndex(mods, dictionary);
+    }
+
+    /**
+     * Tokenize every mod and build the postings lists. The list is copied; the index never changes afterwards.
+     */
+    public static ModSearchIndex build(List<Mod> source) {
+        List<Mod> mods = List.copyOf(source);
+        return new ModSearchIndex(mods, buildDictionary(mods));
+    }
+
+    /**
+     * The term dictionary {@link #build} would create, for pairing with another list of the same mods
+     * in the same order via {@link #over}.
+     */
+    public static TermDictionary buildDictionary(List<Mod> mods) {
+        int n = mods.size();
+        int[] nameLength = new int[n];
+        int[] descriptionLength = new int[n];
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+
+        for (int doc = 0; doc < n; doc++) {
+            Mod mod = mods.get(doc);
+            List<String> nameTokens = new ArrayList<>(tokenize(mod.getName()));
+            for (String t : tokenize(mod.getSlug())) {
+                if (!nameTokens.contains(t)) nameTokens.add(t);
+            }
+            List<String> descriptionTokens = tokenize(mod.getDescription());
+            nameLength[doc] = nameTokens.size();
+            descriptionLength[doc] = descriptionTokens.size();
+            for (String t : nameTokens) {
+                builders.computeIfAbsent(t, k -> new PostingsBuilder()).add(doc, true);
+            }
+            for (String t : descriptionTokens) {
+                builders.computeIfAbsent(t, k -> new PostingsBuilder()).add(doc, false);
+            }
+        }
+
+        // BM25 per (term, mod) does not depend on the query, so it is computed once here
+        double avgName = Math.max(1.0, Arrays.stream(nameLength).average().orElse(1.0));
+        double avgDescription = Math.max(1.0, Arrays.stream(descriptionLength).average().orElse(1.0));
+        String[] terms = builders.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        Postings[] postings = new Postings[terms.length];
+        for (int t = 0; t < terms.length; t++) {
+            PostingsBuilder b = builders.get(terms[t]);
+            int df = b.size;
+            double idf = Math.log(1.0 + (n - df + 0.5) / (df + 0.5));
+            float[] scores = new float[df];
+            for (int i = 0; i < df; i++) {
+                int doc = b.docs[i];
+                double name = saturate(b.nameTf[i], nameLength[doc], avgName);
+                double description = saturate(b.descriptionTf[i], descriptionLength[doc], avgDescription);
+                scores[i] = (float) (idf * (NAME_WEIGHT * name + DESCRIPTION_WEIGHT * description));
+            }
+            postings[t] = new Postings(Arrays.copyOf(b.docs, df), scores);
+        }
+        return new ArrayTermDictionary(terms, postings);
+    }
+
+    public int size() {
+        return mods.size();
+    }
+
+    public List<Mod> mods() {
+        return mods;
+    }
+
+    public TermDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Trigram postings for typo-tolerant lookups, for saving with the dictionary; built here if it has none.
+     */
+    public TermDictionary.TrigramPostings trigrams() {
+        return fuzzy().postings();
+    }
+
+    /**
+     * Mods matching every term of {@code query}, best BM25 score first.
+     * A query without any tokens matches everything, in index order.
+     */
+    public List<Mod> search(String query) {
+        return search(query, Integer.MAX_VALUE);
+    }
+
+    public List<Mod> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query).stream().distinct().toList();
+        if (queryTerms.isEmpty()) {
+            return mods.size() <= limit ? mods : mods.subList(0, limit);
+        }
+
+        List<Expansion> exact = new ArrayList<>(queryTerms.size());
+        for (String term : queryTerms) {
+            exact.add(new Expansion(expand(term), null));
+        }
+        int[] ranked = rank(exact, limit);
+        if (ranked.length < limit) {
+            List<Expansion> fuzzy = withCorrections(queryTerms, exact);
+            // The widened query matches the exact hits again; rank enough to still fill the limit after them
+            if (fuzzy != null) {
+                ranked = append(ranked, rank(fuzzy, (int) Math.min(Integer.MAX_VALUE, (long) limit + ranked.length)), limit);
+            }
+        }
+
+        List<Mod> result = new ArrayList<>(ranked.length);
+        for (int doc : ranked) {
+            result.add(mods.get(doc));
+        }
+        return result;
+    }
+
+    /**
+     * {@code text} with each token the index does not know replaced by its closest indexed spelling,
+     * e.g. "a medival world" becomes "a medieval world". Only close spellings count: at most one edit per
+     * four characters, with the first letter kept, so an ordinary word the catalog lacks ("fools") is not
+     * turned into a different one it has ("tools"). Tokens without a close match are left alone.
+     */
+    public String correct(String text) {
+        if (text == null || text.isEmpty()) return text;
+        StringBuilder result = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                result.append(text.charAt(i++));
+                continue;
+            }
+            int end = i;
+            while (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) end++;
+            String token = text.substring(i, end);
+            result.append(correctToken(token.toLowerCase(), token));
+            i = end;
+        }
+        return result.toString();
+    }
+
+    private String correctToken(String term, String original) {
+        if (term.length() < MIN_FUZZY_LENGTH || expand(term).length > 0) return original;
+        FuzzyTermIndex.Correction best = null;
+        int bestFrequency = -1;
+        int maxEdits = Math.min(maxDistance(term), term.length() / CORRECTION_CHARS_PER_EDIT);
+        for (FuzzyTermIndex.Correction c : fuzzy().lookup(term, maxEdits, MAX_FUZZY_EXPANSION)) {
+            if (best != null && c.distance() > best.distance()) break;
+            if (dictionary.term(c.ordinal()).charAt(0) != term.charAt(0)) continue;
+            // Among equally close spellings, prefer the one more mods use
+            int frequency = dictionary.postings(c.ordinal()).docs().length;
+            if (frequency > bestFrequency) {
+                best = c;
+                bestFrequency = frequency;
+            }
+        }
+        return best == null ? original : dictionary.term(best.ordinal());
+    }
+
+    /**
+     * The query terms again, each widened with its misspellings, or null when no term has any.
+     */
+    private List<Expansion> withCorrections(List<String> queryTerms, List<Expansion> exact) {
+        List<Expansion> result = new ArrayList<>(queryTerms.size());
+        boolean widened = false;
+        for (int t = 0; t < queryTerms.size(); t++) {
+            String term = queryTerms.get(t);
+            int[] ordinals = exact.get(t).ordinals();
+            if (term.length() < MIN_FUZZY_LENGTH) {
+                result.add(exact.get(t));
+                continue;
+            }
+            int[] sorted = ordinals.clone();
+            Arrays.sort(sorted);
+            List<FuzzyTermIndex.Correction> corrections = new ArrayList<>();
+            for (FuzzyTermIndex.Correction c : fuzzy().lookup(term, maxDistance(term), MAX_FUZZY_EXPANSION)) {
+                if (Arrays.binarySearch(sorted, c.ordinal()) < 0) corrections.add(c);
+            }
+            if (corrections.isEmpty()) {
+                result.add(exact.get(t));
+                continue;
+            }
+            widened = true;
+            int[] widenedOrdinals = Arrays.copyOf(ordinals, ordinals.length + corrections.size());
+            float[] weights = new float[widenedOrdinals.length];
+            Arrays.fill(weights, 0, ordinals.length, 1f);
+            for (int i = 0; i < corrections.size(); i++) {
+                FuzzyTermIndex.Correction c = corrections.get(i);
+                widenedOrdinals[ordinals.length + i] = c.ordinal();
+                weights[ordinals.length + i] = (float) Math.pow(FUZZY_PENALTY, c.distance());
+            }
+            result.add(new Expansion(widenedOrdinals, weights));
+        }
+        return widened ? result : null;
+    }
+
+    // One edit for short terms, two from six characters on
+    private static int maxDistance(String term) {
+        return term.length() < 6 ? 1 : 2;
+    }
+
+    private FuzzyTermIndex fuzzy() {
+        FuzzyTermIndex index = fuzzy;
+        if (index == null) {
+            synchronized (this) {
+                index = fuzzy;
+                if (index == null) {
+                    TermDictionary.TrigramPostings saved = dictionary.trigrams();
+                    index = saved != null ? FuzzyTermIndex.over(dictionary, saved) : FuzzyTermIndex.build(dictionary);
+                    fuzzy = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    // ranked followed by the docs of more that it does not already contain, up to limit
+    private static int[] append(int[] ranked, int[] more, int limit) {
+        int[] seen = ranked.clone();
+        Arrays.sort(seen);
+        int[] result = Arrays.copyOf(ranked, (int) Math.min(limit, (long) ranked.length + more.length));
+        int n = ranked.length;
+        for (int i = 0; i < more.length && n < result.length; i++) {
+            if (Arrays.binarySearch(seen, more[i]) < 0) result[n++] = more[i];
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Doc ids matching every expansion, best BM25 score first, at most {@code limit}.
+     */
+    private int[] rank(List<Expansion> expansions, int limit) {
+        // Accumulate scores term by term; candidates must survive every term
+        int[] candidates = null;
+        double[] scores = null;
+        for (Expansion expansion : expansions) {
+            if (expansion.ordinals().length == 0) return new int[0];
+
+            TermScores termScores = scoreTerm(expansion);
+            if (candidates == null) {
+                candidates = termScores.docs;
+                scores = termScores.scores;
+            } else {
+                int[] merged = new int[Math.min(candidates.length, termScores.docs.length)];
+                double[] mergedScores = new double[merged.length];
+                int i = 0, j = 0, k = 0;
+                while (i < candidates.length && j < termScores.docs.length) {
+                    int a = candidates[i], b = termScores.docs[j];
+                    if (a == b) {
+                        merged[k] = a;
+                        mergedScores[k++] = scores[i++] + termScores.scores[j++];
+                    } else if (a < b) {
+                        i++;
+                    } else {
+                        j++;
+                    }
+                }
+                candidates = Arrays.copyOf(merged, k);
+                scores = Arrays.copyOf(mergedScores, k);
+            }
+            if (candidates.length == 0) return new int[0];
+        }
+
+        // Rank on primitive keys: score (non-negative float bits order like the floats) above the
+        // complemented slot, so equal scores keep index order when read back from the top
+        int count = Math.min(limit, candidates.length);
+        long[] top = count == candidates.length ? rankAll(scores) : rankTop(scores, count);
+
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = candidates[~(int) top[top.length - 1 - i]];
+        }
+        return result;
+    }
+
+    private static long rankKey(double score, int slot) {
+        return ((long) Float.floatToIntBits((float) score) << 32) | (~slot & 0xFFFFFFFFL);
+    }
+
+    private static long[] rankAll(double[] scores) {
+        long[] ranked = new long[scores.length];
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = rankKey(scores[i], i);
+        }
+        Arrays.sort(ranked);
+        return ranked;
+    }
+
+    /**
+     * The {@code k} best keys in ascending order, via a bounded min-heap: O(n log k) instead of a full sort.
+     */
+    private static long[] rankTop(double[] scores, int k) {
+        long[] heap = new long[k];
+        int size = 0;
+        for (int i = 0; i < scores.length; i++) {
+            long key = rankKey(scores[i], i);
+            if (size < k) {
+                heap[size] = key;
+                siftUp(heap, size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, k);
+            }
+        }
+        Arrays.sort(heap);
+        return heap;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= heap[i]) return;
+            long tmp = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = tmp;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) return;
+            int smallest = left + 1 < size && heap[left + 1] < heap[left] ? left + 1 : left;
+            if (heap[i] <= heap[smallest]) return;
+            long tmp = heap[smallest];
+            heap[smallest] = heap[i];
+            heap[i] = tmp;
+            i = smallest;
+        }
+    }
+
+    /**
+     * Sum the (weighted) BM25 contributions of every index term a query term expands to, per document.
+     * Returned doc ids are ascending so term results can be intersected with a linear merge.
+     */
+    private TermScores scoreTerm(Expansion expansion) {
+        int[] expanded = expansion.ordinals();
+        if (expanded.length == 1) {
+            Postings p = dictionary.postings(expanded[0]);
+            double weight = expansion.weight(0);
+            double[] scores = new double[p.scores().length];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = p.scores()[i] * weight;
+            }
+            return new TermScores(p.docs(), scores);
+        }
+
+        // Several terms: pack (doc, posting) pairs, sort by doc and fold duplicates
+        int total = 0;
+        Postings[] lists = new Postings[expanded.length];
+        for (int t = 0; t < lists.length; t++) {
+            lists[t] = dictionary.postings(expanded[t]);
+            total += lists[t].docs().length;
+        }
+        long[] pairs = new long[total];
+        double[] pairScores = new double[total];
+        int n = 0;
+        for (int t = 0; t < lists.length; t++) {
+            Postings p = lists[t];
+            double weight = expansion.weight(t);
+            for (int i = 0; i < p.docs().length; i++, n++) {
+                pairs[n] = ((long) p.docs()[i] << 32) | n;
+                pairScores[n] = p.scores()[i] * weight;
+            }
+        }
+        Arrays.sort(pairs);
+
+        int[] docs = new int[total];
+        double[] scores = new double[total];
+        int k = -1;
+        for (long pair : pairs) {
+            int doc = (int) (pair >>> 32);
+            double score = pairScores[(int) pair];
+            if (k >= 0 && docs[k] == doc) {
+                scores[k] += score;
+            } else {
+                docs[++k] = doc;
+                scores[k] = score;
+            }
+        }
+        return new TermScores(Arrays.copyOf(docs, k + 1), Arrays.copyOf(scores, k + 1));
+    }
+
+    private static double saturate(int tf, int length, double avgLength) {
+        if (tf == 0) return 0.0;
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+    }
+
+    /**
+     * Ordinals of the index terms a query term stands for: itself, plus terms it prefixes when long enough.
+     */
+    private int[] expand(String term) {
+        int from = lowerBound(term);
+        int size = dictionary.size();
+        if (term.length() < MIN_PREFIX_LENGTH) {
+            return from < size && dictionary.term(from).equals(term) ? new int[] {from} : new int[0];
+        }
+        int to = from;
+        while (to < size && to - from < MAX_PREFIX_EXPANSION && dictionary.term(to).startsWith(term)) {
+            to++;
+        }
+        int[] result = new int[to - from];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = from + i;
+        }
+        return result;
+    }
+
+    // First ordinal whose term is >= term
+    private int lowerBound(String term) {
+        int lo = 0, hi = dictionary.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dictionary.term(mid).compareTo(term) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Lower-case alphanumeric tokens. Anything else separates tokens.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) return List.of();
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) tokens.add(current.toString());
+        return tokens;
+    }
+
+    private record TermScores(int[] docs, double[] scores) {
+    }
+
+    // Index terms a query term stands for, with a score weight each (null: all 1)
+    private record Expansion(int[] ordinals, float[] weights) {
+        double weight(int i) {
+            return weights == null ? 1.0 : weights[i];
+        }
+    }
+
+    private record ArrayTermDictionary(String[] terms, Postings[] postings) implements TermDictionary {
+        @Override
+        public int size() {
+            return terms.length;
+        }
+
+        @Override
+        public String term(int ordinal) {
+            return terms[ordinal];
+        }
+
+        @Override
+        public Postings postings(int ordinal) {
+            return postings[ordinal];
+        }
+    }
+
+    private static final class PostingsBuilder {
+        private int[] docs = new int[4];
+        private int[] nameTf = new int[4];
+        private int[] descriptionTf = new int[4];
+        private int size;
+
+        // Documents are added in ascending order, so a repeat is always the last entry
+        void add(int doc, boolean inName) {
+            if (size == 0 || docs[size - 1] != doc) {
+                if (size == docs.length) {
+                    docs = Arrays.copyOf(docs, size * 2);
+                    nameTf = Arrays.copyOf(nameTf, size * 2);
+                    descriptionTf = Arrays.copyOf(descriptionTf, size * 2);
+                }
+                docs[size++] = doc;
+            }
+            if (inName) nameTf[size - 1]++;
+            else descriptionTf[size - 1]++;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ai.haitale.service.index;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Sorted term dictionary behind a {@link ModSearchIndex}. Terms are addressed by ordinal in ascending
+ * order, so exact and prefix lookups are binary searches. Implementations may hold everything on the heap
+ * or decode entries on demand from a mapped file.
+ */
+public interface TermDictionary {
+
+    int size();
+
+    /**
+     * The term at {@code ordinal}; ordinals follow ascending term order.
+     */
+    String term(int ordinal);
+
+    Postings postings(int ordinal);
+
+    /**
+     * Trigram postings over the terms, saved with the dictionary, or null when they are built on the first
+     * fuzzy lookup.
+     */
+    default TrigramPostings trigrams() {
+        return null;
+    }
+
+    /**
+     * Postings list of one term: ascending doc ids with the precomputed BM25 score of each.
+     */
+    record Postings(int[] docs, float[] scores) {
+    }
+
+    /**
+     * Trigram postings of the fuzzy term index: an open-addressing table of packed trigrams ({@code -1} = empty
+     * slot); the term ordinals of slot s are {@code ordinals[offsets[s]..offsets[s + 1])}.
+     */
+    record TrigramPostings(LongBuffer keys, IntBuffer offsets, IntBuffer ordinals) {
+    }
+}
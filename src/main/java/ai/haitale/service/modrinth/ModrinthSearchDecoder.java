@@ -0,0 +1,91 @@
+package ai.haitale.service.modrinth;
+
+import ai.haitale.service.modrinth.dto.ModrinthProject;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming decoder for Modrinth /search responses.
+ * Reads the "hits" array token by token straight from the response stream and binds each hit
+ * directly to a {@link ModrinthProject}, without building an intermediate String, Map or byte[] per hit.
+ */
+public final class ModrinthSearchDecoder {
+    private static final ObjectMapper JACKSON = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final JsonFactory FACTORY = JACKSON.getFactory();
+    private static final ObjectReader PROJECT_READER = JACKSON.readerFor(ModrinthProject.class);
+
+    private ModrinthSearchDecoder() {
+    }
+
+    /**
+     * Decode every hit into a list, stopping early once {@code limit} projects have been read.
+     */
+    public static List<ModrinthProject> decodeHits(InputStream in, int limit) throws IOException {
+        return decodePage(in, limit).hits();
+    }
+
+    /**
+     * Decode hits plus the page's total_hits counter (needed to plan paged crawls).
+     * total_hits is -1 when the response does not carry it.
+     */
+    public static Page decodePage(InputStream in, int limit) throws IOException {
+        List<ModrinthProject> projects = new ArrayList<>();
+        int totalHits = forEachHit(in, limit, projects::add);
+        return new Page(projects, totalHits);
+    }
+
+    /**
+     * Stream hits to the consumer one at a time. Fields other than "hits" are skipped without being materialized.
+     * Returns total_hits if it was seen, otherwise -1.
+     */
+    public static int forEachHit(InputStream in, int limit, Consumer<ModrinthProject> consumer) throws IOException {
+        int totalHits = -1;
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected Modrinth search response format");
+            }
+
+            int count = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("total_hits".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    totalHits = parser.getIntValue();
+                    continue;
+                }
+                if (!"hits".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    if (count >= limit) {
+                        // Nothing more is needed from the hits; keep scanning in case total_hits follows
+                        parser.skipChildren();
+                        continue;
+                    }
+                    ModrinthProject project = PROJECT_READER.readValue(parser);
+                    if (project != null) {
+                        consumer.accept(project);
+                        count++;
+                    }
+                }
+            }
+        }
+        return totalHits;
+    }
+
+    public record Page(List<ModrinthProject> hits, int totalHits) {
+    }
+}
@@ -0,0 +1,111 @@
+package ai.haitale.service.modrinth;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Server-side filter for Modrinth /search, rendered as the {@code facets} query parameter.
+ * <p>
+ * Facets are an AND of OR-groups. Every category becomes its own group, so a project has to carry all of
+ * them. Licenses, project types and game versions each form a single group, so any one of the listed
+ * values matches. Instances are immutable; the {@code with*} methods return a copy.
+ */
+public record ModrinthSearchFilter(
+    List<String> categories,
+    List<String> licenses,
+    List<String> projectTypes,
+    List<String> gameVersions
+) {
+    public static final ModrinthSearchFilter NONE = new ModrinthSearchFilter(List.of(), List.of(), List.of(), List.of());
+
+    /**
+     * SPDX ids of the licenses {@link ai.haitale.model.Mod#isFreeLicense()} accepts, as Modrinth reports them.
+     */
+    public static final List<String> FREE_LICENSES = List.of(
+        "MIT", "Apache-2.0",
+        "GPL-2.0-only", "GPL-2.0-or-later", "GPL-3.0-only", "GPL-3.0-or-later",
+        "LGPL-2.1-only", "LGPL-2.1-or-later", "LGPL-3.0-only", "LGPL-3.0-or-later",
+        "AGPL-3.0-only", "AGPL-3.0-or-later",
+        "BSD-2-Clause", "BSD-3-Clause", "MPL-2.0", "CC0-1.0", "Unlicense"
+    );
+
+    public ModrinthSearchFilter {
+        categories = clean(categories);
+        licenses = clean(licenses);
+        projectTypes = clean(projectTypes);
+        gameVersions = clean(gameVersions);
+    }
+
+    public ModrinthSearchFilter withCategories(String... values) {
+        return new ModrinthSearchFilter(Arrays.asList(values), licenses, projectTypes, gameVersions);
+    }
+
+    public ModrinthSearchFilter withLicenses(Collection<String> values) {
+        return new ModrinthSearchFilter(categories, new ArrayList<>(values), projectTypes, gameVersions);
+    }
+
+    public ModrinthSearchFilter withFreeLicenses() {
+        return withLicenses(FREE_LICENSES);
+    }
+
+    public ModrinthSearchFilter withProjectTypes(String... values) {
+        return new ModrinthSearchFilter(categories, licenses, Arrays.asList(values), gameVersions);
+    }
+
+    public ModrinthSearchFilter withGameVersions(String... values) {
+        return new ModrinthSearchFilter(categories, licenses, projectTypes, Arrays.asList(values));
+    }
+
+    public boolean isEmpty() {
+        return categories.isEmpty() && licenses.isEmpty() && projectTypes.isEmpty() && gameVersions.isEmpty();
+    }
+
+    /**
+     * The facets JSON, e.g. {@code [["categories:magic"],["license:MIT","license:Apache-2.0"]]},
+     * or null when the filter is empty and no facets parameter should be sent.
+     */
+    public String toFacets() {
+        if (isEmpty()) return null;
+        List<List<String>> groups = new ArrayList<>();
+        for (String category : categories) {
+            groups.add(List.of("categories:" + category));
+        }
+        addGroup(groups, "license", licenses);
+        addGroup(groups, "project_type", projectTypes);
+        addGroup(groups, "versions", gameVersions);
+
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        StringBuilder json = new StringBuilder("[");
+        for (int g = 0; g < groups.size(); g++) {
+            if (g > 0) json.append(',');
+            json.append('[');
+            List<String> group = groups.get(g);
+            for (int i = 0; i < group.size(); i++) {
+                if (i > 0) json.append(',');
+                json.append('"').append(encoder.quoteAsString(group.get(i))).append('"');
+            }
+            json.append(']');
+        }
+        return json.append(']').toString();
+    }
+
+    private static void addGroup(List<List<String>> groups, String facet, List<String> values) {
+        if (values.isEmpty()) return;
+        groups.add(values.stream().map(v -> facet + ":" + v).toList());
+    }
+
+    private static List<String> clean(List<String> values) {
+        if (values == null) return List.of();
+        return values.stream()
+            .filter(Objects::nonNull)
+            .map(String::trim)
+            .filter(v -> !v.isEmpty())
+            .distinct()
+            .toList();
+    }
+}
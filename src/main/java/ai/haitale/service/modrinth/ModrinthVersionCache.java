@@ -0,0 +1,176 @@
+package ai.haitale.service.modrinth;
+
+import ai.haitale.service.HaitaleDataDirectory;
+import ai.haitale.service.modrinth.dto.ModrinthVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.serde.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-tier cache for Modrinth version objects, keyed by version id.
+ * <p>
+ * Published versions are immutable, so positive entries never expire: a Caffeine layer keeps hot versions in
+ * memory and every version is also written to a small per-version JSON file on disk. Versions that returned 404
+ * or had no downloadable files go into a negative cache with a TTL (persisted too), so broken projects are not
+ * re-fetched on every refresh.
+ */
+@Singleton
+public class ModrinthVersionCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ModrinthVersionCache.class);
+    private static final String NEGATIVE_FILE = "missing.properties";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory; // null for memory-only caches
+    private final long negativeTtlMs;
+    private final Cache<String, ModrinthVersion> memory;
+    // version id -> epoch millis at which the negative entry expires
+    private final Map<String, Long> missing = new ConcurrentHashMap<>();
+    private volatile boolean negativeLoaded;
+
+    @Inject
+    public ModrinthVersionCache(
+        ObjectMapper objectMapper,
+        HaitaleDataDirectory dataDirectory,
+        @Value("${modrinth.version-cache.memory-entries:10000}") int memoryEntries,
+        @Value("${modrinth.version-cache.negative-ttl-minutes:360}") long negativeTtlMinutes
+    ) {
+        this(objectMapper, dataDirectory.resolve("cache", "modrinth-versions"), memoryEntries,
+            Duration.ofMinutes(negativeTtlMinutes));
+    }
+
+    ModrinthVersionCache(ObjectMapper objectMapper, Path directory, int memoryEntries, Duration negativeTtl) {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.negativeTtlMs = negativeTtl.toMillis();
+        this.memory = Caffeine.newBuilder().maximumSize(Math.max(1, memoryEntries)).build();
+    }
+
+    /**
+     * A cache without a disk tier (used when a client is constructed outside the application context).
+     */
+    public static ModrinthVersionCache inMemory(ObjectMapper objectMapper) {
+        return new ModrinthVersionCache(objectMapper, null, 10_000, Duration.ofMinutes(10));
+    }
+
+    /**
+     * Cached version or null. Checks memory first, then disk (promoting disk hits into memory).
+     */
+    public ModrinthVersion get(String versionId) {
+        ModrinthVersion cached = memory.getIfPresent(versionId);
+        if (cached != null || directory == null) return cached;
+
+        Path file = versionFile(versionId);
+        if (!Files.exists(file)) return null;
+        try (InputStream in = Files.newInputStream(file)) {
+            ModrinthVersion version = objectMapper.readValue(in, ModrinthVersion.class);
+            if (version != null) memory.put(versionId, version);
+            return version;
+        } catch (IOException e) {
+            LOG.debug("Ignoring unreadable cached version {}: {}", versionId, e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(ModrinthVersion version) {
+        if (version == null || version.id == null) return;
+        memory.put(version.id, version);
+        missing.remove(version.id);
+        if (directory == null) return;
+
+        Path file = versionFile(version.id);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), "version", ".tmp");
+            Files.write(tmp, objectMapper.writeValueAsBytes(version));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.debug("Failed to persist Modrinth version {}: {}", version.id, e.getMessage());
+        }
+    }
+
+    /**
+     * True while a 404 / no-files result for this id is still within its negative TTL.
+     */
+    public boolean isKnownMissing(String versionId) {
+        loadNegative();
+        Long expiresAt = missing.get(versionId);
+        if (expiresAt == null) return false;
+        if (expiresAt > System.currentTimeMillis()) return true;
+        missing.remove(versionId, expiresAt);
+        return false;
+    }
+
+    public void putMissing(String versionId) {
+        loadNegative();
+        missing.put(versionId, System.currentTimeMillis() + negativeTtlMs);
+    }
+
+    /**
+     * Persist the negative cache. Called once per batch rather than per entry.
+     */
+    public synchronized void flushMissing() {
+        if (directory == null) return;
+        long now = System.currentTimeMillis();
+        Properties props = new Properties();
+        missing.forEach((id, expiresAt) -> {
+            if (expiresAt > now) props.setProperty(id, Long.toString(expiresAt));
+        });
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, "missing", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, null);
+            }
+            Files.move(tmp, directory.resolve(NEGATIVE_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.debug("Failed to persist Modrinth negative cache: {}", e.getMessage());
+        }
+    }
+
+    private void loadNegative() {
+        if (negativeLoaded) return;
+        synchronized (this) {
+            if (negativeLoaded) return;
+            Path file = directory != null ? directory.resolve(NEGATIVE_FILE) : null;
+            if (file != null && Files.exists(file)) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    Properties props = new Properties();
+                    props.load(in);
+                    for (String id : props.stringPropertyNames()) {
+                        try {
+                            missing.putIfAbsent(id, Long.parseLong(props.getProperty(id)));
+                        } catch (NumberFormatException ignore) {
+                            // skip corrupt entry
+                        }
+                    }
+                } catch (IOException e) {
+                    LOG.debug("Ignoring unreadable Modrinth negative cache: {}", e.getMessage());
+                }
+            }
+            negativeLoaded = true;
+        }
+    }
+
+    private Path versionFile(String versionId) {
+        // Shard by the first two characters to keep directories small on full-catalog syncs
+        String safe = versionId.replaceAll("[^A-Za-z0-9_-]", "_");
+        String shard = safe.length() >= 2 ? safe.substring(0, 2) : "_" + safe;
+        return directory.resolve(shard).resolve(safe + ".json");
+    }
+}
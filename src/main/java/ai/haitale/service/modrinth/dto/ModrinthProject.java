@@ -13,6 +13,10 @@ public class ModrinthProject {
     public String description;
     public List<String> versions;
     public String latest_version;
+    public String date_modified; // ISO-8601, present on search hits
+    public String license; // SPDX id, present on search hits
+    public List<String> categories; // category slugs, present on search hits
+    public long downloads;
     public List<ModrinthAuthor> authors;
 
     @Serdeable
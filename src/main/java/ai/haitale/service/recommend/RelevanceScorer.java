@@ -0,0 +1,338 @@
+package ai.haitale.service.recommend;
+
+import ai.haitale.model.Mod;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Keyword relevance of mods to a world description, for the recommendation pre-filter and the rule-based fallback.
+ * <p>
+ * When a catalog is built, each mod's name and description are lower-cased and stored as UTF-8, with the bits
+ * of the category/theme rules the mod satisfies, in {@link Columns} indexed by catalog slot. A description is
+ * compiled once per request into its keywords and the bits of the rules it triggers, so scoring a catalog mod
+ * is a few byte searches and a mask test, with no allocation. Lists that know the slots of their mods
+ * ({@link CatalogSlots}) are scored that way; other mods (e.g. live Modrinth results) are normalized on the fly.
+ */
+public final class RelevanceScorer {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final long ONES = 0x0101010101010101L;
+    private static final RelevanceScorer EMPTY = new RelevanceScorer(columns(List.of()));
+
+    // A rule adds its weight when the description contains a trigger and the mod's name or description a term
+    private static final Rule[] RULES = {
+        // Categories
+        new Rule(0.3, List.of("build", "construct", "creat"),
+            List.of("build"), List.of("build", "construction")),
+        new Rule(0.3, List.of("adventure", "quest", "explore"),
+            List.of("adventure", "quest"), List.of("adventure", "quest", "dungeon")),
+        new Rule(0.3, List.of("tech", "machine", "automat"),
+            List.of("tech", "machine"), List.of("tech", "machine", "automation")),
+        new Rule(0.3, List.of("magic", "spell", "wizard"),
+            List.of("magic", "spell", "mystic"), List.of("magic", "spell", "enchant")),
+        // Themes
+        new Rule(0.2, List.of("medieval", "castle", "knight"),
+            List.of("medieval"), List.of("medieval", "castle")),
+        new Rule(0.2, List.of("fantasy", "dragon", "mythical"),
+            List.of("fantasy"), List.of("fantasy", "dragon")),
+        new Rule(0.2, List.of("sci-fi", "futuristic", "space"),
+            List.of("tech"), List.of("futuristic", "space"))
+    };
+
+    private final Columns columns;
+
+    private RelevanceScorer(Columns columns) {
+        this.columns = columns;
+    }
+
+    public static RelevanceScorer empty() {
+        return EMPTY;
+    }
+
+    /**
+     * A scorer over the stored columns of a catalog, e.g. ones read from a catalog file.
+     */
+    public static RelevanceScorer over(Columns columns) {
+        return new RelevanceScorer(columns);
+    }
+
+    /**
+     * Normalize {@code mods} into columns by slot: lower-cased UTF-8 names and descriptions, and rule bits.
+     */
+    public static Columns columns(List<Mod> mods) {
+        int n = mods.size();
+        byte[][] texts = new byte[2 * n][];
+        int[] offsets = new int[2 * n + 1];
+        int[] rules = new int[n];
+        long length = 0;
+        for (int i = 0; i < n; i++) {
+            Mod mod = mods.get(i);
+            String name = lower(mod.getName());
+            String description = lower(mod.getDescription());
+            rules[i] = rules(name, description);
+            texts[2 * i] = name.getBytes(StandardCharsets.UTF_8);
+            texts[2 * i + 1] = description.getBytes(StandardCharsets.UTF_8);
+            for (int t = 2 * i; t <= 2 * i + 1; t++) {
+                offsets[t] = (int) length;
+                length += texts[t].length;
+            }
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Mod catalog too large for the relevance columns");
+            }
+        }
+        offsets[2 * n] = (int) length;
+        byte[] text = new byte[(int) length];
+        for (int t = 0; t < texts.length; t++) {
+            System.arraycopy(texts[t], 0, text, offsets[t], texts[t].length);
+        }
+        return new Columns(ByteBuffer.wrap(text), IntBuffer.wrap(offsets), IntBuffer.wrap(rules));
+    }
+
+    /**
+     * The stored columns, for saving with the catalog.
+     */
+    public Columns columns() {
+        return columns;
+    }
+
+    /**
+     * Compile a world description: lower-cased, split into keywords of at least three characters, and matched
+     * against the rule triggers.
+     */
+    public static Query query(String description) {
+        String lower = description == null ? "" : description.toLowerCase(Locale.ROOT);
+        List<String> keywords = new ArrayList<>();
+        for (String keyword : WHITESPACE.split(lower)) {
+            if (keyword.length() >= 3) keywords.add(keyword);
+        }
+        int rules = 0;
+        for (int r = 0; r < RULES.length; r++) {
+            if (containsAny(lower, RULES[r].triggers())) rules |= 1 << r;
+        }
+        byte[][] utf8 = new byte[keywords.size()][];
+        for (int k = 0; k < utf8.length; k++) {
+            utf8[k] = keywords.get(k).getBytes(StandardCharsets.UTF_8);
+        }
+        return new Query(keywords.toArray(String[]::new), utf8, rules);
+    }
+
+    /**
+     * Score in [0, 1]: 0.2 per keyword in the name, 0.1 per keyword in the description, plus the weights of
+     * the rules both the query and the mod satisfy.
+     */
+    public double score(Mod mod, Query query) {
+        String name = lower(mod.getName());
+        String description = lower(mod.getDescription());
+        double score = 0.0;
+        for (String keyword : query.keywords()) {
+            if (name.contains(keyword)) {
+                score += 0.2;
+            }
+            if (description.contains(keyword)) {
+                score += 0.1;
+            }
+        }
+        if (query.rules() == 0) return Math.min(score, 1.0);
+        return withRules(score, query.rules() & rules(name, description));
+    }
+
+    /**
+     * As {@link #score(Mod, Query)}, for the catalog mod in {@code slot}, read from the stored columns.
+     */
+    public double score(int slot, Query query) {
+        ByteBuffer text = columns.text();
+        int nameStart = columns.offsets().get(2 * slot);
+        int descriptionStart = columns.offsets().get(2 * slot + 1);
+        int end = columns.offsets().get(2 * slot + 2);
+        double score = 0.0;
+        for (byte[] keyword : query.utf8()) {
+            if (contains(text, nameStart, descriptionStart, keyword)) {
+                score += 0.2;
+            }
+            if (contains(text, descriptionStart, end, keyword)) {
+                score += 0.1;
+            }
+        }
+        if (query.rules() == 0) return Math.min(score, 1.0);
+        return withRules(score, query.rules() & columns.rules().get(slot));
+    }
+
+    private static double withRules(double score, int matched) {
+        for (int r = 0; matched != 0; r++, matched >>>= 1) {
+            if ((matched & 1) != 0) score += RULES[r].weight();
+        }
+        return Math.min(score, 1.0);
+    }
+
+    // Mods of a list from this scorer's catalog are scored by slot, any other mod from its own text
+    private double score(List<Mod> mods, CatalogSlots slots, int index, Query query) {
+        int slot = slots != null ? slots.slot(index) : -1;
+        return slot >= 0 ? score(slot, query) : score(mods.get(index), query);
+    }
+
+    private CatalogSlots slots(List<Mod> mods) {
+        return mods instanceof CatalogSlots slots && slots.scorer() == this ? slots : null;
+    }
+
+    /**
+     * The {@code limit} best mods scoring above {@code threshold}, best first; equal scores keep list order.
+     * Each mod is scored once and only the current best {@code limit} are held, in a min-heap.
+     */
+    public List<Scored> top(List<Mod> mods, Query query, double threshold, int limit) {
+        if (limit <= 0) return List.of();
+        // Worst at the head: lowest score, then latest in the list
+        PriorityQueue<Scored> heap = new PriorityQueue<>(Math.min(limit, mods.size()) + 1,
+            Comparator.comparingDouble(Scored::score).thenComparing(Scored::position, Comparator.reverseOrder()));
+        CatalogSlots slots = slots(mods);
+        for (int i = 0; i < mods.size(); i++) {
+            double score = score(mods, slots, i, query);
+            if (score <= threshold) continue;
+            if (heap.size() < limit) {
+                heap.add(new Scored(mods.get(i), score, i));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new Scored(mods.get(i), score, i));
+            }
+        }
+        List<Scored> result = new ArrayList<>(heap);
+        result.sort(BEST_FIRST);
+        return result;
+    }
+
+    /**
+     * Every mod scoring above {@code threshold}, best first; equal scores keep list order.
+     */
+    public List<Scored> above(List<Mod> mods, Query query, double threshold) {
+        List<Scored> result = new ArrayList<>();
+        CatalogSlots slots = slots(mods);
+        for (int i = 0; i < mods.size(); i++) {
+            double score = score(mods, slots, i, query);
+            if (score > threshold) result.add(new Scored(mods.get(i), score, i));
+        }
+        result.sort(BEST_FIRST);
+        return result;
+    }
+
+    private static final Comparator<Scored> BEST_FIRST =
+        Comparator.comparingDouble(Scored::score).reversed().thenComparingInt(Scored::position);
+
+    /**
+     * The terms of each rule, triggers and mod terms together: words the rules treat as one concept.
+     */
+    static List<List<String>> concepts() {
+        List<List<String>> concepts = new ArrayList<>(RULES.length);
+        for (Rule rule : RULES) {
+            Set<String> terms = new LinkedHashSet<>(rule.triggers());
+            terms.addAll(rule.nameTerms());
+            terms.addAll(rule.descriptionTerms());
+            concepts.add(List.copyOf(terms));
+        }
+        return concepts;
+    }
+
+    private static int rules(String name, String description) {
+        int rules = 0;
+        for (int r = 0; r < RULES.length; r++) {
+            if (containsAny(name, RULES[r].nameTerms()) || containsAny(description, RULES[r].descriptionTerms())) {
+                rules |= 1 << r;
+            }
+        }
+        return rules;
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean containsAny(String text, List<String> terms) {
+        for (String term : terms) {
+            if (text.contains(term)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Byte search in {@code text[from, to)}; on UTF-8 it matches exactly when {@link String#contains} does.
+     * Eight candidate positions are tested at a time against the keyword's first and last bytes: XOR with a
+     * byte zeroes the bytes equal to it, and the zero-byte test flags them (plus, rarely, a 0x01 byte before
+     * one, which the full compare rejects).
+     */
+    private static boolean contains(ByteBuffer text, int from, int to, byte[] keyword) {
+        int last = to - keyword.length;
+        int tail = keyword.length - 1;
+        long firstPattern = (keyword[0] & 0xFFL) * ONES;
+        long lastPattern = (keyword[tail] & 0xFFL) * ONES;
+        int i = from;
+        for (; i + tail + Long.BYTES <= to; i += Long.BYTES) {
+            long found = zeroBytes(text.getLong(i) ^ firstPattern) & zeroBytes(text.getLong(i + tail) ^ lastPattern);
+            while (found != 0) {
+                // Big-endian: the highest flag is the earliest position
+                int candidate = i + Long.numberOfLeadingZeros(found) / Byte.SIZE;
+                if (matchesAt(text, candidate, keyword)) return true;
+                found ^= Long.highestOneBit(found);
+            }
+        }
+        for (; i <= last; i++) {
+            if (text.get(i) == keyword[0] && matchesAt(text, i, keyword)) return true;
+        }
+        return false;
+    }
+
+    private static long zeroBytes(long x) {
+        return (x - ONES) & ~x & 0x8080808080808080L;
+    }
+
+    private static boolean matchesAt(ByteBuffer text, int position, byte[] keyword) {
+        for (int k = 1; k < keyword.length; k++) {
+            if (text.get(position + k) != keyword[k]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * A compiled world description; keywords are also kept as UTF-8 for matching the stored columns.
+     */
+    public record Query(String[] keywords, byte[][] utf8, int rules) {
+    }
+
+    /**
+     * Per-mod scoring data of a catalog, by slot: {@code text} holds each mod's lower-cased name then
+     * description as UTF-8, mod {@code s} spanning {@code offsets[2s]..offsets[2s + 2]} with the description
+     * starting at {@code offsets[2s + 1]}, and {@code rules} the bits of the rules each mod satisfies.
+     */
+    public record Columns(ByteBuffer text, IntBuffer offsets, IntBuffer rules) {
+    }
+
+    /**
+     * A mod list that knows which of its mods come from a scorer's catalog, and in which slot.
+     */
+    public interface CatalogSlots {
+        /**
+         * The scorer of the catalog the slots refer to.
+         */
+        RelevanceScorer scorer();
+
+        /**
+         * The catalog slot of the mod at {@code index} in the list, or -1 if it is not from the catalog.
+         */
+        int slot(int index);
+    }
+
+    /**
+     * A mod with its score and its position in the scored list.
+     */
+    public record Scored(Mod mod, double score, int position) {
+    }
+
+    private record Rule(double weight, List<String> triggers, List<String> nameTerms, List<String> descriptionTerms) {
+    }
+}
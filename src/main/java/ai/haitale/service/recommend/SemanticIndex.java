@@ -0,0 +1,356 @@
+package ai.haitale.service.recommend;
+
+import ai.haitale.model.Mod;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Approximate nearest-neighbour index over mod embeddings, for finding mods close in meaning to a world
+ * description that shares no keyword with them.
+ * <p>
+ * An inverted-file (IVF) index: a spherical k-means over a sample of the vectors picks about sqrt(n) / 2
+ * centroids, and every mod is filed under its nearest one. A query is compared with the centroids and only
+ * the mods of the closest few lists are scanned. Vectors are stored as signed bytes in list order, so a scan
+ * reads one contiguous block per list and 100k mods take 12.5 MB. Small catalogs use a single list, i.e. an
+ * exact scan.
+ * <p>
+ * Building takes seconds on a large catalog, so the index is built at refresh and {@link #write written} next
+ * to the catalog. Layout, all big-endian, sections in this order:
+ * <pre>
+ *   header      magic, version, dimensions, feature buckets, mod count, list count, id data length
+ *   idf         float[buckets], the embedder's inverse document frequencies
+ *   centroids   float[lists * dimensions]
+ *   offsets     int[lists + 1], first position of each list
+ *   id offsets  int[count + 1] into the id data
+ *   id data     UTF-8 bytes of the mod ids in list order
+ *   vectors     signed bytes, count * dimensions in list order
+ * </pre>
+ * {@link #open} maps the file; idf, ids and vectors are read from the mapping on access.
+ */
+public final class SemanticIndex {
+    static final int MAGIC = 0x48545349; // "HTSI"
+    static final int VERSION = 1;
+
+    private static final SemanticIndex EMPTY =
+        new SemanticIndex(null, new float[0], new int[] {0}, i -> null, 0, ByteBuffer.allocate(0));
+    private static final int D = TextEmbedder.DIMENSIONS;
+    // Below this many mods every list would be tiny; scan them all instead
+    private static final int MIN_CLUSTERED = 4096;
+    private static final int TRAINING_PER_LIST = 32;
+    private static final int ITERATIONS = 5;
+    private static final float SCALE = 127f;
+    private static final int HEADER_SIZE = 28;
+
+    private final TextEmbedder embedder;
+    private final float[] centroids;
+    // Mods of list l are at positions offsets[l]..offsets[l + 1] of ids and vectors
+    private final int[] offsets;
+    private final IntFunction<String> ids;
+    private final int size;
+    private final ByteBuffer vectors;
+
+    private SemanticIndex(TextEmbedder embedder, float[] centroids, int[] offsets, IntFunction<String> ids, int size,
+                          ByteBuffer vectors) {
+        this.embedder = embedder;
+        this.centroids = centroids;
+        this.offsets = offsets;
+        this.ids = ids;
+        this.size = size;
+        this.vectors = vectors;
+    }
+
+    public static SemanticIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Embed every mod with an id and cluster the vectors.
+     */
+    public static SemanticIndex build(List<Mod> source) {
+        List<Mod> mods = source.stream().filter(m -> m.getId() != null).toList();
+        int n = mods.size();
+        if (n == 0) return EMPTY;
+
+        TextEmbedder embedder = TextEmbedder.fit(mods);
+        byte[] all = new byte[n * D];
+        for (int i = 0; i < n; i++) {
+            float[] vector = embedder.embed(mods.get(i));
+            for (int d = 0; d < D; d++) all[i * D + d] = (byte) Math.round(vector[d] * SCALE);
+        }
+
+        int lists = n < MIN_CLUSTERED ? 1 : (int) Math.sqrt(n) / 2;
+        float[] centroids = lists == 1 ? new float[D] : train(all, n, lists);
+        int[] assignment = new int[n];
+        int[] offsets = new int[lists + 1];
+        for (int i = 0; i < n; i++) {
+            assignment[i] = lists == 1 ? 0 : nearest(centroids, lists, all, i);
+            offsets[assignment[i] + 1]++;
+        }
+        for (int l = 0; l < lists; l++) offsets[l + 1] += offsets[l];
+
+        // Counting sort into list order
+        int[] next = Arrays.copyOf(offsets, lists);
+        String[] ids = new String[n];
+        byte[] vectors = new byte[n * D];
+        for (int i = 0; i < n; i++) {
+            int position = next[assignment[i]]++;
+            ids[position] = mods.get(i).getId();
+            System.arraycopy(all, i * D, vectors, position * D, D);
+        }
+        return new SemanticIndex(embedder, centroids, offsets, i -> ids[i], n, ByteBuffer.wrap(vectors));
+    }
+
+    /**
+     * Map an index written by {@link #write}. Fails with an IOException for foreign files, other format
+     * versions, another embedder layout or truncated files, so callers can build the index instead.
+     */
+    public static SemanticIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("not a semantic index (size " + size + ")");
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("not a semantic index");
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("unsupported semantic index version " + version);
+            }
+            if (buffer.getInt(8) != D || buffer.getInt(12) != TextEmbedder.BUCKETS) {
+                throw new IOException("semantic index of another embedder layout");
+            }
+            int n = buffer.getInt(16);
+            int lists = buffer.getInt(20);
+            int idDataLength = buffer.getInt(24);
+            long idfPos = HEADER_SIZE;
+            long centroidsPos = idfPos + 4L * TextEmbedder.BUCKETS;
+            long offsetsPos = centroidsPos + 4L * lists * D;
+            long idOffsetsPos = offsetsPos + 4L * (lists + 1);
+            long idDataPos = idOffsetsPos + 4L * (n + 1);
+            long vectorsPos = idDataPos + idDataLength;
+            if (n < 0 || lists < 1 || idDataLength < 0 || vectorsPos + (long) n * D != size) {
+                throw new IOException("truncated semantic index");
+            }
+
+            // Centroids and list offsets are small and read on every query; the rest stays in the mapping
+            float[] centroids = new float[lists * D];
+            buffer.slice((int) centroidsPos, 4 * lists * D).asFloatBuffer().get(centroids);
+            int[] offsets = new int[lists + 1];
+            buffer.slice((int) offsetsPos, 4 * (lists + 1)).asIntBuffer().get(offsets);
+            TextEmbedder embedder = TextEmbedder.over(
+                buffer.slice((int) idfPos, 4 * TextEmbedder.BUCKETS).asFloatBuffer());
+            IntFunction<String> ids = i -> {
+                int from = buffer.getInt((int) idOffsetsPos + 4 * i);
+                byte[] bytes = new byte[buffer.getInt((int) idOffsetsPos + 4 * (i + 1)) - from];
+                buffer.get((int) idDataPos + from, bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            };
+            return new SemanticIndex(embedder, centroids, offsets, ids, n,
+                buffer.slice((int) vectorsPos, n * D));
+        }
+    }
+
+    /**
+     * Write the index to {@code file}, replacing its contents. The empty index has no embedder and is not written.
+     */
+    public void write(Path file) throws IOException {
+        if (embedder == null) throw new IOException("the empty semantic index is not written");
+        int lists = lists();
+        byte[][] idBytes = new byte[size][];
+        int idDataLength = 0;
+        for (int i = 0; i < size; i++) {
+            idBytes[i] = ids.apply(i).getBytes(StandardCharsets.UTF_8);
+            idDataLength += idBytes[i].length;
+        }
+        long length = HEADER_SIZE + 4L * TextEmbedder.BUCKETS + 4L * lists * D + 4L * (lists + 1) + 4L * (size + 1)
+            + idDataLength + (long) size * D;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("semantic index too large for a single mapping: " + length + " bytes");
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(D);
+            out.writeInt(TextEmbedder.BUCKETS);
+            out.writeInt(size);
+            out.writeInt(lists);
+            out.writeInt(idDataLength);
+            for (int b = 0; b < TextEmbedder.BUCKETS; b++) out.writeFloat(embedder.idf(b));
+            for (float c : centroids) out.writeFloat(c);
+            for (int offset : offsets) out.writeInt(offset);
+            int offset = 0;
+            for (byte[] id : idBytes) {
+                out.writeInt(offset);
+                offset += id.length;
+            }
+            out.writeInt(offset);
+            for (byte[] id : idBytes) out.write(id);
+            byte[] row = new byte[D];
+            for (int i = 0; i < size; i++) {
+                vectors.get(i * D, row);
+                out.write(row);
+            }
+
+            if (out.size() != length) {
+                throw new IOException("semantic index layout mismatch: wrote " + out.size() + " of " + length + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Ids of up to {@code limit} mods most similar to {@code text}, most similar first. Only the
+     * {@code probes} closest lists are scanned; mods below {@code minSimilarity} (cosine) or rejected by
+     * {@code accept} are skipped.
+     */
+    public List<Neighbour> nearest(String text, int limit, double minSimilarity, int probes, Predicate<String> accept) {
+        if (embedder == null || limit <= 0) return List.of();
+        float[] query = embedder.embed(text, null);
+
+        int lists = offsets.length - 1;
+        Integer[] order = new Integer[lists];
+        float[] closeness = new float[lists];
+        for (int l = 0; l < lists; l++) {
+            order[l] = l;
+            closeness[l] = dot(centroids, l * D, query);
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(closeness[b], closeness[a]));
+
+        // Worst at the head
+        PriorityQueue<Neighbour> heap = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Neighbour::similarity));
+        for (int p = 0; p < Math.min(Math.max(1, probes), lists); p++) {
+            int list = order[p];
+            for (int i = offsets[list]; i < offsets[list + 1]; i++) {
+                double similarity = dot(vectors, i * D, query) / SCALE;
+                if (similarity < minSimilarity) continue;
+                if (heap.size() == limit && similarity <= heap.peek().similarity()) continue;
+                String id = ids.apply(i);
+                if (!accept.test(id)) continue;
+                heap.add(new Neighbour(id, similarity));
+                if (heap.size() > limit) heap.poll();
+            }
+        }
+        List<Neighbour> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingDouble(Neighbour::similarity).reversed());
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    int lists() {
+        return offsets.length - 1;
+    }
+
+    // Spherical k-means on an evenly spread random sample
+    private static float[] train(byte[] all, int n, int lists) {
+        Random random = new Random(42);
+        int sampleSize = Math.min(n, lists * TRAINING_PER_LIST);
+        int[] sample = new int[n];
+        for (int i = 0; i < n; i++) sample[i] = i;
+        for (int i = 0; i < sampleSize; i++) {
+            int j = i + random.nextInt(n - i);
+            int t = sample[i];
+            sample[i] = sample[j];
+            sample[j] = t;
+        }
+
+        float[] centroids = new float[lists * D];
+        for (int l = 0; l < lists; l++) {
+            for (int d = 0; d < D; d++) centroids[l * D + d] = all[sample[l] * D + d];
+            normalize(centroids, l);
+        }
+        float[] sums = new float[lists * D];
+        int[] counts = new int[lists];
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            Arrays.fill(sums, 0f);
+            Arrays.fill(counts, 0);
+            for (int s = 0; s < sampleSize; s++) {
+                int row = sample[s];
+                int l = nearest(centroids, lists, all, row);
+                counts[l]++;
+                for (int d = 0; d < D; d++) sums[l * D + d] += all[row * D + d];
+            }
+            for (int l = 0; l < lists; l++) {
+                // An empty list keeps its centroid
+                if (counts[l] == 0) continue;
+                System.arraycopy(sums, l * D, centroids, l * D, D);
+                normalize(centroids, l);
+            }
+        }
+        return centroids;
+    }
+
+    private static int nearest(float[] centroids, int lists, byte[] vectors, int row) {
+        float[] vector = new float[D];
+        for (int d = 0; d < D; d++) vector[d] = vectors[row * D + d];
+        int best = 0;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int l = 0; l < lists; l++) {
+            float score = dot(centroids, l * D, vector);
+            if (score > bestScore) {
+                bestScore = score;
+                best = l;
+            }
+        }
+        return best;
+    }
+
+    private static void normalize(float[] centroids, int list) {
+        double norm = 0;
+        for (int d = 0; d < D; d++) norm += centroids[list * D + d] * centroids[list * D + d];
+        if (norm == 0) return;
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int d = 0; d < D; d++) centroids[list * D + d] *= scale;
+    }
+
+    // Four independent sums, so the additions do not wait on each other
+    private static float dot(float[] vectors, int from, float[] query) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        for (int d = 0; d < D; d += 4) {
+            s0 += vectors[from + d] * query[d];
+            s1 += vectors[from + d + 1] * query[d + 1];
+            s2 += vectors[from + d + 2] * query[d + 2];
+            s3 += vectors[from + d + 3] * query[d + 3];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static float dot(ByteBuffer vectors, int from, float[] query) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        for (int d = 0; d < D; d += 4) {
+            s0 += vectors.get(from + d) * query[d];
+            s1 += vectors.get(from + d + 1) * query[d + 1];
+            s2 += vectors.get(from + d + 2) * query[d + 2];
+            s3 += vectors.get(from + d + 3) * query[d + 3];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * A mod id and its cosine similarity to the query.
+     */
+    public record Neighbour(String id, double similarity) {
+    }
+}
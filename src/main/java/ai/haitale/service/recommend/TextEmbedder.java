@@ -0,0 +1,190 @@
+package ai.haitale.service.recommend;
+
+import ai.haitale.model.Mod;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns mod text into dense unit vectors without a model or the network.
+ * <p>
+ * A text becomes hashed features: its words, the character trigrams of each word (so "wizardry" shares most
+ * of its features with "wizard", and a typo costs only a few), and one feature per recommendation concept it
+ * mentions (so "wizardry" and "enchanting" meet on the magic concept). Features are weighted by term frequency
+ * times the inverse document frequency over the catalog, then folded into {@link #DIMENSIONS}
+ * dimensions by a sparse random projection: each feature adds its weight, with a hashed sign, to a few hashed
+ * dimensions. Cosine similarity of the results approximates that of the TF-IDF vectors.
+ */
+final class TextEmbedder {
+    static final int DIMENSIONS = 128;
+    static final int BUCKETS = 1 << 18;
+    // Non-zero dimensions per feature
+    private static final int SPREAD = 4;
+    // Name features count this many times, so the name outweighs a long description
+    private static final int NAME_WEIGHT = 2;
+    // Concept features carry the synonyms, so they outweigh any single word or trigram
+    private static final float CONCEPT_BOOST = 4f;
+    private static final long WORD = 0x9E3779B97F4A7C15L;
+    private static final long TRIGRAM = 0xC2B2AE3D27D4EB4FL;
+    // Concept c is bucket c; hashed features use the buckets after them
+    private static final List<List<String>> CONCEPTS = RelevanceScorer.concepts();
+    // The SPREAD dimensions of each bucket, with the sign in the high bit
+    private static final byte[] PROJECTION = projection();
+
+    private final FloatBuffer idf;
+
+    private TextEmbedder(FloatBuffer idf) {
+        this.idf = idf;
+    }
+
+    /**
+     * An embedder with the {@link #BUCKETS} document frequencies learnt earlier, e.g. mapped from a saved index.
+     */
+    static TextEmbedder over(FloatBuffer idf) {
+        return new TextEmbedder(idf);
+    }
+
+    /**
+     * Learn the document frequency of every feature bucket over {@code mods}.
+     */
+    static TextEmbedder fit(List<Mod> mods) {
+        int[] df = new int[BUCKETS];
+        // The last document that counted each bucket, so a bucket counts once per document
+        int[] seenIn = new int[BUCKETS];
+        Arrays.fill(seenIn, -1);
+        for (int doc = 0; doc < mods.size(); doc++) {
+            Mod mod = mods.get(doc);
+            for (int feature : features(mod.getName(), mod.getDescription())) {
+                if (seenIn[feature] != doc) {
+                    seenIn[feature] = doc;
+                    df[feature]++;
+                }
+            }
+        }
+        float[] idf = new float[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) {
+            idf[b] = (float) (Math.log((mods.size() + 1.0) / (df[b] + 1.0)) + 1.0);
+        }
+        return new TextEmbedder(FloatBuffer.wrap(idf));
+    }
+
+    float idf(int bucket) {
+        return idf.get(bucket);
+    }
+
+    float[] embed(Mod mod) {
+        return embed(mod.getName(), mod.getDescription());
+    }
+
+    /**
+     * Unit vector of the text, or all zeros when it has no features.
+     */
+    float[] embed(String name, String description) {
+        float[] vector = new float[DIMENSIONS];
+        // Every occurrence adds the feature's weight, so repeated features count by term frequency
+        for (int feature : features(name, description)) {
+            float weight = feature < CONCEPTS.size() ? idf.get(feature) * CONCEPT_BOOST : idf.get(feature);
+            for (int s = feature * SPREAD; s < (feature + 1) * SPREAD; s++) {
+                int target = PROJECTION[s];
+                vector[target & (DIMENSIONS - 1)] += target < 0 ? -weight : weight;
+            }
+        }
+        double norm = 0;
+        for (float v : vector) norm += v * v;
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int d = 0; d < DIMENSIONS; d++) vector[d] *= scale;
+        }
+        return vector;
+    }
+
+    // Feature buckets of the text, repeated as often as they occur
+    private static int[] features(String name, String description) {
+        Features out = new Features();
+        String lowerName = name == null ? "" : name.toLowerCase(Locale.ROOT);
+        String lowerDescription = description == null ? "" : description.toLowerCase(Locale.ROOT);
+        addWords(lowerName, out);
+        int nameFeatures = out.size;
+        for (int n = 1; n < NAME_WEIGHT; n++) {
+            for (int i = 0; i < nameFeatures; i++) out.add(out.buckets[i]);
+        }
+        addWords(lowerDescription, out);
+        addConcepts(lowerName, out);
+        addConcepts(lowerDescription, out);
+        return Arrays.copyOf(out.buckets, out.size);
+    }
+
+    private static void addWords(String text, Features out) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                addWord(text, start, i, out);
+                start = -1;
+            }
+        }
+    }
+
+    private static void addWord(String text, int from, int to, Features out) {
+        if (to - from < 2) return;
+        long word = WORD;
+        for (int i = from; i < to; i++) word = 31 * word + text.charAt(i);
+        out.add(bucket(word));
+        // Trigrams of the word padded with a boundary, "^wizard$" -> ^wi wiz iza zar ard rd$
+        for (int i = from - 1; i + 2 <= to; i++) {
+            long c0 = i < from ? '^' : text.charAt(i);
+            long c1 = text.charAt(i + 1);
+            long c2 = i + 2 < to ? text.charAt(i + 2) : '$';
+            out.add(bucket(TRIGRAM ^ (c0 << 32 | c1 << 16 | c2)));
+        }
+    }
+
+    private static void addConcepts(String text, Features out) {
+        if (text.isEmpty()) return;
+        for (int c = 0; c < CONCEPTS.size(); c++) {
+            for (String term : CONCEPTS.get(c)) {
+                if (text.contains(term)) {
+                    out.add(c);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int bucket(long key) {
+        return CONCEPTS.size() + (int) ((mix(key) >>> 40) % (BUCKETS - CONCEPTS.size()));
+    }
+
+    private static byte[] projection() {
+        byte[] projection = new byte[BUCKETS * SPREAD];
+        for (int i = 0; i < projection.length; i++) {
+            long h = mix(i);
+            projection[i] = (byte) (((h >>> 32) & (DIMENSIONS - 1)) | ((h & 1) << 7));
+        }
+        return projection;
+    }
+
+    // MurmurHash3 finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Features {
+        int[] buckets = new int[64];
+        int size;
+
+        void add(int bucket) {
+            if (size == buckets.length) buckets = Arrays.copyOf(buckets, size * 2);
+            buckets[size++] = bucket;
+        }
+    }
+}
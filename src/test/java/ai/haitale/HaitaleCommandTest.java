@@ -1,5 +1,8 @@
 package ai.haitale;
 
+import ai.haitale.service.ModInstallationService;
+import ai.haitale.service.ModRepositoryService;
+import ai.haitale.service.http.HttpTransport;
 import io.micronaut.configuration.picocli.PicocliRunner;
 import io.micronaut.context.ApplicationContext;
 import io.micronaut.context.env.Environment;
@@ -43,4 +46,21 @@ public class HaitaleCommandTest {
             assertTrue(output.contains("Usage:"));
         }
     }
+
+    @Test
+    public void testHelpDoesNotCreateServices() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(baos));
+
+        try (ApplicationContext ctx = ApplicationContext.run(Environment.CLI, Environment.TEST)) {
+            // Building the command line instantiates every subcommand; their services must stay unresolved
+            PicocliRunner.run(HaitaleCommand.class, ctx, "--help");
+            PicocliRunner.run(HaitaleCommand.class, ctx, "list", "--help");
+            PicocliRunner.run(HaitaleCommand.class, ctx, "search", "--help");
+
+            assertTrue(ctx.getActiveBeanRegistrations(HttpTransport.class).isEmpty());
+            assertTrue(ctx.getActiveBeanRegistrations(ModRepositoryService.class).isEmpty());
+            assertTrue(ctx.getActiveBeanRegistrations(ModInstallationService.class).isEmpty());
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package ai.haitale.service;
+
+import ai.haitale.model.Mod;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class CurseForgeClientTest {
+    private MockWebServer server;
+    private final Queue<String> fileLookups = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    public void start() throws IOException {
+        server = new MockWebServer();
+        // Pages may arrive in any order, so answer by path instead of from a queue
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.startsWith("/mods/files")) {
+                    fileLookups.add(request.getBody().readUtf8());
+                    return new MockResponse().setResponseCode(200).setBody("{\"data\":[" + file(7) + "]}");
+                }
+                if (path.contains("index=0&")) return new MockResponse().setResponseCode(200).setBody(page(0, 50, 55));
+                if (path.contains("index=50&")) return new MockResponse().setResponseCode(200).setBody(page(50, 5, 55));
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() throws IOException {
+        server.shutdown();
+    }
+
+    // Hit 7 lists no files of its own, so only its main file needs the bulk lookup
+    private static String page(int from, int count, int total) {
+        StringBuilder hits = new StringBuilder();
+        for (int i = from; i < from + count; i++) {
+            if (i > from) hits.append(',');
+            hits.append("{\"id\":").append(i).append(",\"name\":\"Mod ").append(i).append("\",\"slug\":\"mod-").append(i)
+                .append("\",\"summary\":\"Summary\",\"authors\":[{\"name\":\"dev\"}],\"mainFileId\":").append(1000 + i)
+                .append(",\"latestFiles\":[").append(i == 7 ? "" : file(i)).append("]}");
+        }
+        return "{\"data\":[" + hits + "],\"pagination\":{\"index\":" + from + ",\"totalCount\":" + total + "}}";
+    }
+
+    private static String file(int mod) {
+        return "{\"id\":" + (1000 + mod) + ",\"modId\":" + mod + ",\"displayName\":\"Mod " + mod + " 1.0\"," +
+            "\"fileName\":\"mod-" + mod + ".jar\",\"fileLength\":" + (100 + mod) + "," +
+            "\"downloadUrl\":\"https://edge.example.com/mod-" + mod + ".jar\"," +
+            "\"hashes\":[{\"value\":\"md5-" + mod + "\",\"algo\":2},{\"value\":\"sha1-" + mod + "\",\"algo\":1}]}";
+    }
+
+    @Test
+    public void testSearchPagesAndResolvesFilesInBulk() {
+        CurseForgeClient client = new CurseForgeClient(server.url("/").toString(), "key");
+
+        List<Mod> mods = client.search("dragons", 60);
+
+        Assertions.assertEquals(55, mods.size());
+        for (int i = 0; i < mods.size(); i++) {
+            Mod mod = mods.get(i);
+            Assertions.assertEquals(String.valueOf(i), mod.getId());
+            Assertions.assertEquals("https://edge.example.com/mod-" + i + ".jar", mod.getDownloadUrl());
+            Assertions.assertEquals("sha1-" + i, mod.getChecksum());
+            Assertions.assertEquals("SHA-1", mod.getChecksumAlgorithm());
+            Assertions.assertEquals("Mod " + i + " 1.0", mod.getVersion());
+            Assertions.assertEquals(100L + i, mod.getFileSize());
+            Assertions.assertEquals("mod-" + i, mod.getSlug());
+            Assertions.assertEquals("curseforge", mod.getSource());
+        }
+        // Two search pages plus a single bulk lookup for the one file the hits did not carry
+        Assertions.assertEquals(3, server.getRequestCount());
+        Assertions.assertEquals(List.of("{\"fileIds\":[1007]}"), List.copyOf(fileLookups));
+    }
+
+    @Test
+    public void testSearchWithoutApiKeyMakesNoRequests() {
+        CurseForgeClient client = new CurseForgeClient(server.url("/").toString(), "");
+
+        Assertions.assertTrue(client.search("dragons", 10).isEmpty());
+        Assertions.assertEquals(0, server.getRequestCount());
+    }
+}
@@ -0,0 +1,113 @@
+package ai.haitale.service;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.GitHubClient.ReleasePoll;
+import ai.haitale.service.http.HttpResponseCache;
+import ai.haitale.service.http.HttpTransport;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class GitHubClientTest {
+    private MockWebServer server;
+
+    @BeforeEach
+    public void start() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() throws IOException {
+        server.shutdown();
+    }
+
+    private GitHubClient client(String token, int batchSize) {
+        return new GitHubClient(HttpResponseCache.disabled(HttpTransport.standalone()), server.url("/").toString(), token, batchSize);
+    }
+
+    @Test
+    public void testBatchedReleasesMapLikeRest() throws Exception {
+        String graphql = "{\"data\":{" +
+            "\"r0\":{\"latestRelease\":{\"tagName\":\"v1.2\",\"name\":\"Dragons\",\"description\":\"Adds dragons\"," +
+            "\"author\":{\"login\":\"alice\"},\"releaseAssets\":{\"nodes\":[" +
+            "{\"name\":\"dragons.jar\",\"downloadUrl\":\"https://example.com/dragons.jar\",\"size\":1234}]}}}," +
+            "\"r1\":{\"latestRelease\":null}," +
+            "\"r2\":null}," +
+            "\"errors\":[{\"type\":\"NOT_FOUND\",\"path\":[\"r2\"]}]}";
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(graphql));
+
+        Map<String, List<Mod>> releases = client("secret", 50)
+            .fetchLatestReleases(List.of("alice/dragons", "bob/no-releases", "carol/missing"));
+
+        RecordedRequest req = server.takeRequest(1, TimeUnit.SECONDS);
+        Assertions.assertNotNull(req);
+        Assertions.assertEquals("POST", req.getMethod());
+        Assertions.assertEquals("/graphql", req.getPath());
+        Assertions.assertEquals("Bearer secret", req.getHeader("Authorization"));
+        String body = req.getBody().readUtf8();
+        Assertions.assertTrue(body.contains("r2: repository(owner: $o2, name: $n2)"));
+        Assertions.assertTrue(body.contains("\"n2\":\"missing\""));
+
+        Assertions.assertEquals(2, releases.size());
+        Assertions.assertTrue(releases.get("bob/no-releases").isEmpty());
+        Assertions.assertFalse(releases.containsKey("carol/missing"));
+        Mod mod = releases.get("alice/dragons").get(0);
+        Assertions.assertEquals("alice/dragons:dragons.jar", mod.getId());
+        Assertions.assertEquals("Dragons", mod.getName());
+        Assertions.assertEquals("v1.2", mod.getVersion());
+        Assertions.assertEquals("Adds dragons", mod.getDescription());
+        Assertions.assertEquals("https://example.com/dragons.jar", mod.getDownloadUrl());
+        Assertions.assertEquals("alice", mod.getAuthor());
+        Assertions.assertEquals("github", mod.getSource());
+        Assertions.assertEquals(1234L, mod.getFileSize());
+    }
+
+    @Test
+    public void testReposAreSplitIntoBatches() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{\"data\":{\"r0\":{\"latestRelease\":null},\"r1\":{\"latestRelease\":null}}}"));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{\"data\":{\"r0\":{\"latestRelease\":null}}}"));
+
+        Map<String, List<Mod>> releases = client("secret", 2).fetchLatestReleases(List.of("a/one", "b/two", "c/three", "a/one"));
+
+        Assertions.assertEquals(2, server.getRequestCount());
+        Assertions.assertEquals(List.of("a/one", "b/two", "c/three"), List.copyOf(releases.keySet()));
+    }
+
+    @Test
+    public void testBatchingNeedsToken() {
+        GitHubClient anonymous = client("", 50);
+
+        Assertions.assertFalse(anonymous.supportsBatching());
+        Assertions.assertTrue(anonymous.fetchLatestReleases(List.of("a/one")).isEmpty());
+        Assertions.assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void testPollSendsStoredEtagAndSkipsUnchangedRelease() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(304)
+            .setHeader("X-RateLimit-Remaining", "41")
+            .setHeader("X-RateLimit-Reset", "1900000000"));
+
+        ReleasePoll poll = client("", 50).pollLatestRelease("alice/dragons", "\"abc\"");
+
+        RecordedRequest req = server.takeRequest(1, TimeUnit.SECONDS);
+        Assertions.assertNotNull(req);
+        Assertions.assertEquals("/repos/alice/dragons/releases/latest", req.getPath());
+        Assertions.assertEquals("\"abc\"", req.getHeader("If-None-Match"));
+        Assertions.assertNotNull(poll);
+        Assertions.assertFalse(poll.changed());
+        Assertions.assertEquals("\"abc\"", poll.etag());
+        Assertions.assertEquals(41L, poll.rateLimitRemaining());
+        Assertions.assertEquals(1900000000L, poll.rateLimitReset());
+    }
+}
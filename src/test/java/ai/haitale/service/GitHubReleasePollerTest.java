@@ -0,0 +1,73 @@
+package ai.haitale.service;
+
+import ai.haitale.service.http.HttpResponseCache;
+import ai.haitale.service.http.HttpTransport;
+import ai.haitale.service.http.RateLimiter;
+import io.micronaut.serde.ObjectMapper;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@MicronautTest
+public class GitHubReleasePollerTest {
+    @Inject
+    ObjectMapper objectMapper;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    public void testInterruptedPollSavesTheReposThatFinished() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                MockResponse release = new MockResponse().setResponseCode(200).setHeader("ETag", "\"e1\"")
+                    .setBody("{\"tag_name\":\"v1\",\"name\":\"Dragons\",\"assets\":[{\"name\":\"dragons.jar\"," +
+                        "\"browser_download_url\":\"https://example.com/dragons.jar\",\"size\":1}]}");
+                return request.getPath().contains("/slow/") ? release.setHeadersDelay(30, TimeUnit.SECONDS) : release;
+            }
+        });
+        server.start();
+        try {
+            GitHubClient client = new GitHubClient(HttpResponseCache.disabled(HttpTransport.standalone()),
+                server.url("/").toString(), "", 50);
+            GitHubReleasePoller poller = new GitHubReleasePoller(client, new RateLimiter(true, 120, 300, 60),
+                objectMapper, new HaitaleDataDirectory(dataDir.toString()), 4, 50, 10);
+
+            AtomicReference<Throwable> outcome = new AtomicReference<>();
+            Thread polling = Thread.ofVirtual().start(() -> {
+                try {
+                    poller.poll(List.of("alice/dragons", "bob/slow"));
+                } catch (Throwable e) {
+                    outcome.set(e);
+                }
+            });
+            // One repo answers, the other hangs until the refresh deadline interrupts the poll
+            server.takeRequest(5, TimeUnit.SECONDS);
+            server.takeRequest(5, TimeUnit.SECONDS);
+            Thread.sleep(500);
+            polling.interrupt();
+            polling.join(5_000);
+
+            Assertions.assertTrue(outcome.get() instanceof InterruptedException);
+            String state = Files.readString(dataDir.resolve("github-releases.json"));
+            Assertions.assertTrue(state.contains("dragons.jar"));
+            Assertions.assertFalse(state.contains("bob/slow"));
+        } finally {
+            server.shutdown();
+        }
+    }
+}
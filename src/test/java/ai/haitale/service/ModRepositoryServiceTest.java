@@ -0,0 +1,269 @@
+package ai.haitale.service;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.env.Environment;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ModRepositoryServiceTest {
+    @TempDir
+    Path dataDir;
+
+    // No remote source is enabled, so a refresh only merges and persists the sample mods
+    private ApplicationContext start(long ttlMinutes) {
+        return ApplicationContext.run(properties(ttlMinutes), Environment.TEST);
+    }
+
+    private Map<String, Object> properties(long ttlMinutes) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("haitale.data-dir", dataDir.toString());
+        properties.put("mod.repository.refresh.ttl-minutes", ttlMinutes);
+        properties.put("mod.repository.modrinth.enabled", false);
+        properties.put("mod.repository.curseforge.enabled", false);
+        properties.put("mod.repository.github.enabled", false);
+        return properties;
+    }
+
+    @Test
+    public void testColdStartWaitsForTheFirstRefresh() {
+        try (ApplicationContext ctx = start(60)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+
+            Assertions.assertFalse(repository.getAllMods().isEmpty());
+            Assertions.assertTrue(repository.getCatalogRefreshedAt().isAfter(Instant.EPOCH));
+            Assertions.assertFalse(repository.isCatalogStale());
+            Assertions.assertTrue(Files.exists(dataDir.resolve("catalog.current")));
+        }
+    }
+
+    @Test
+    public void testColdStartWaitForAHungRefreshIsBounded() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(200).setBody("{\"total_hits\":0,\"hits\":[]}")
+                    .setHeadersDelay(30, TimeUnit.SECONDS);
+            }
+        });
+        server.start();
+        Map<String, Object> properties = properties(60);
+        properties.put("mod.repository.modrinth.enabled", true);
+        properties.put("modrinth.api.base", server.url("/").toString());
+        properties.put("mod.repository.refresh.cold-start-wait-seconds", 1);
+        properties.put("mod.repository.refresh.shutdown-grace-seconds", 0);
+
+        try (ApplicationContext ctx = ApplicationContext.run(properties, Environment.TEST)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+            long started = System.nanoTime();
+
+            // The sample mods are served while the crawl keeps running
+            Assertions.assertFalse(repository.getAllMods().isEmpty());
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started) < 10);
+            Assertions.assertEquals(Instant.EPOCH, repository.getCatalogRefreshedAt());
+            Assertions.assertTrue(repository.isCatalogStale());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testFreshCatalogIsServedWithoutRefresh() {
+        Instant persisted;
+        try (ApplicationContext ctx = start(60)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+            repository.getAllMods();
+            persisted = repository.getCatalogRefreshedAt();
+        }
+
+        try (ApplicationContext ctx = start(60)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+            Assertions.assertEquals(persisted.toEpochMilli(), repository.getCatalogRefreshedAt().toEpochMilli());
+            Assertions.assertFalse(repository.isCatalogStale());
+        }
+    }
+
+    @Test
+    public void testStaleCatalogIsRefreshedInBackground() throws Exception {
+        Instant persisted;
+        try (ApplicationContext ctx = start(60)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+            repository.getAllMods();
+            persisted = repository.getCatalogRefreshedAt();
+        }
+
+        // A zero TTL makes the persisted catalog stale as soon as it is loaded
+        try (ApplicationContext ctx = start(0)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!repository.getCatalogRefreshedAt().isAfter(persisted) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertTrue(repository.getCatalogRefreshedAt().isAfter(persisted));
+        }
+    }
+
+    @Test
+    public void testRefreshWaitsForAndPersistsANewCatalog() throws Exception {
+        Instant before;
+        try (ApplicationContext ctx = start(60)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+            repository.getAllMods();
+            before = repository.getCatalogRefreshedAt();
+            Thread.sleep(5);
+
+            // What --refresh does
+            repository.refreshModCache();
+            Assertions.assertTrue(repository.getCatalogRefreshedAt().isAfter(before));
+        }
+
+        try (ApplicationContext ctx = start(60)) {
+            Assertions.assertTrue(ctx.getBean(ModRepositoryService.class).getCatalogRefreshedAt().isAfter(before));
+        }
+    }
+
+    @Test
+    public void testLiveSearchHitsAreLearnedWithoutRewritingTheCatalog() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().startsWith("/versions")) {
+                    return new MockResponse().setResponseCode(200).setBody("[{\"id\":\"v-xylo\",\"version_number\":\"1.0\"," +
+                        "\"files\":[{\"url\":\"https://cdn.example.com/xylo.jar\",\"size\":1,\"hashes\":{\"sha512\":\"aa\"}," +
+                        "\"filename\":\"xylo.jar\"}]}]");
+                }
+                return new MockResponse().setResponseCode(200).setBody("{\"total_hits\":1,\"hits\":[{\"project_id\":\"xylo\"," +
+                    "\"slug\":\"xylo\",\"title\":\"Xylophone Blocks\",\"description\":\"d\",\"license\":\"MIT\"," +
+                    "\"latest_version\":\"v-xylo\"}]}");
+            }
+        });
+        server.start();
+        Map<String, Object> properties = properties(60);
+        properties.put("mod.repository.refresh.background", false);
+        properties.put("mod.repository.modrinth.enabled", true);
+        properties.put("modrinth.api.base", server.url("/").toString());
+        Path overlay = dataDir.resolve("catalog-learned.json");
+
+        try (ApplicationContext ctx = ApplicationContext.run(properties, Environment.TEST)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+            Assertions.assertEquals("xylo", repository.searchMods("xylophone").get(0).getId());
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!Files.exists(overlay) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertTrue(Files.exists(overlay));
+            // Only the overlay was written; the catalog waits for the next refresh
+            Assertions.assertFalse(Files.exists(dataDir.resolve("catalog.current")));
+        } finally {
+            server.shutdown();
+        }
+
+        properties = properties(60);
+        properties.put("mod.repository.refresh.background", false);
+        try (ApplicationContext ctx = ApplicationContext.run(properties, Environment.TEST)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+            Assertions.assertEquals("xylo", repository.getModById("xylo").getId());
+
+            // The refresh folds the learned mod into the saved catalog and clears the overlay
+            repository.refreshModCache();
+            Assertions.assertFalse(Files.exists(overlay));
+            Assertions.assertEquals("xylo", repository.getModById("xylo").getId());
+        }
+        try (ApplicationContext ctx = start(60)) {
+            Assertions.assertEquals("xylo", ctx.getBean(ModRepositoryService.class).getModById("xylo").getId());
+        }
+    }
+
+    @Test
+    public void testModsCrawledBeforeTheDeadlineAreServed() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().startsWith("/versions")) {
+                    return new MockResponse().setResponseCode(200).setBody("[{\"id\":\"v-xylo\",\"version_number\":\"1.0\"," +
+                        "\"files\":[{\"url\":\"https://cdn.example.com/xylo.jar\",\"size\":1,\"hashes\":{\"sha512\":\"aa\"}," +
+                        "\"filename\":\"xylo.jar\"}]}]");
+                }
+                if (request.getPath().contains("offset=")) {
+                    return new MockResponse().setResponseCode(200).setBody("{\"total_hits\":2,\"hits\":[]}")
+                        .setHeadersDelay(30, TimeUnit.SECONDS);
+                }
+                return new MockResponse().setResponseCode(200).setBody("{\"total_hits\":2,\"hits\":[{\"project_id\":\"xylo\"," +
+                    "\"slug\":\"xylo\",\"title\":\"Xylophone Blocks\",\"description\":\"d\",\"license\":\"MIT\"," +
+                    "\"latest_version\":\"v-xylo\",\"date_modified\":\"2026-03-04T00:00:00Z\"}]}");
+            }
+        });
+        server.start();
+        Map<String, Object> properties = properties(60);
+        properties.put("mod.repository.refresh.background", false);
+        properties.put("mod.repository.modrinth.enabled", true);
+        properties.put("mod.repository.modrinth.deadline-seconds", 2);
+        properties.put("modrinth.api.base", server.url("/").toString());
+        properties.put("modrinth.sync.page-size", 1);
+        properties.put("modrinth.sync.parallel-pages", 1);
+
+        try (ApplicationContext ctx = ApplicationContext.run(properties, Environment.TEST)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+
+            // Page 1 is crawled, page 2 hangs past the deadline
+            repository.refreshModCache();
+            Assertions.assertEquals(List.of("Modrinth (timed out)"), repository.getPartialSources());
+            Assertions.assertEquals("xylo", repository.getModById("xylo").getId());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testHungSourceIsInterruptedAndReleasesItsBulkhead() throws Exception {
+        MockWebServer server = new MockWebServer();
+        for (int i = 0; i < 2; i++) {
+            server.enqueue(new MockResponse().setResponseCode(200).setBody("{\"total_hits\":0,\"hits\":[]}")
+                .setHeadersDelay(30, TimeUnit.SECONDS));
+        }
+        server.start();
+        Map<String, Object> properties = properties(60);
+        properties.put("mod.repository.refresh.background", false);
+        properties.put("mod.repository.modrinth.enabled", true);
+        properties.put("mod.repository.modrinth.deadline-seconds", 1);
+        properties.put("modrinth.api.base", server.url("/").toString());
+
+        try (ApplicationContext ctx = ApplicationContext.run(properties, Environment.TEST)) {
+            ModRepositoryService repository = ctx.getBean(ModRepositoryService.class);
+
+            repository.refreshModCache();
+            Assertions.assertEquals(List.of("Modrinth (timed out)"), repository.getPartialSources());
+            // The interrupted sync stops waiting on the hung page and checkpoints its crawl
+            Path syncState = dataDir.resolve("modrinth-sync.json");
+            long deadline = System.currentTimeMillis() + 2_000;
+            while (!Files.exists(syncState) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertTrue(Files.exists(syncState));
+
+            // A bulkhead still held by the first sync would fail this one outright instead of timing out
+            repository.refreshModCache();
+            Assertions.assertEquals(List.of("Modrinth (timed out)"), repository.getPartialSources());
+            // An incomplete refresh is retried on the next run rather than after the TTL
+            Assertions.assertTrue(repository.isCatalogStale());
+        } finally {
+            server.shutdown();
+        }
+    }
+}
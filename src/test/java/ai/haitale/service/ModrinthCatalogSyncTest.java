@@ -0,0 +1,170 @@
+package ai.haitale.service;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.ModrinthCatalogSync.SyncState;
+import io.micronaut.serde.ObjectMapper;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@MicronautTest
+public class ModrinthCatalogSyncTest {
+    @Inject
+    ObjectMapper objectMapper;
+
+    @TempDir
+    Path dataDir;
+
+    private static String hit(String id, String modified) {
+        return "{\"project_id\":\"" + id + "\",\"slug\":\"" + id + "\",\"title\":\"" + id + "\",\"description\":\"d\"," +
+            "\"license\":\"MIT\",\"latest_version\":\"v-" + id + "\",\"date_modified\":\"" + modified + "\"}";
+    }
+
+    private static String version(String id) {
+        return "{\"id\":\"v-" + id + "\",\"version_number\":\"1.0\",\"files\":[{\"url\":\"https://cdn.example.com/" + id +
+            ".jar\",\"size\":1,\"hashes\":{\"sha512\":\"aa\"},\"filename\":\"" + id + ".jar\"}]}";
+    }
+
+    @Test
+    public void testRateLimitedPageKeepsWatermark() throws Exception {
+        AtomicBoolean rateLimited = new AtomicBoolean(true);
+        AtomicInteger firstPageRequests = new AtomicInteger();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.startsWith("/versions")) {
+                    return new MockResponse().setResponseCode(200).setBody("[" + version("a") + "," + version("b") + "," +
+                        version("c") + "," + version("d") + "]");
+                }
+                if (!path.contains("offset=")) {
+                    firstPageRequests.incrementAndGet();
+                    return new MockResponse().setResponseCode(200).setBody("{\"total_hits\":4,\"hits\":[" +
+                        hit("a", "2026-03-04T00:00:00Z") + "," + hit("b", "2026-03-03T00:00:00Z") + "]}");
+                }
+                if (rateLimited.get()) return new MockResponse().setResponseCode(429);
+                return new MockResponse().setResponseCode(200).setBody("{\"total_hits\":4,\"hits\":[" +
+                    hit("c", "2026-03-02T00:00:00Z") + "," + hit("d", "2026-03-01T00:00:00Z") + "]}");
+            }
+        });
+        server.start();
+        try {
+            ModrinthClient client = new ModrinthClient(objectMapper, server.url("/").toString());
+            ModrinthCatalogSync sync = new ModrinthCatalogSync(client, objectMapper,
+                new HaitaleDataDirectory(dataDir.toString()), 2, 1, 0);
+
+            // Page 2 is rate limited: the first page is kept, but the crawl must run again
+            List<Mod> partial = sync.sync();
+            Assertions.assertEquals(List.of("a", "b"), partial.stream().map(Mod::getId).toList());
+            Assertions.assertNull(state().getWatermark());
+
+            rateLimited.set(false);
+            List<Mod> full = sync.sync();
+            Assertions.assertEquals(List.of("a", "b", "c", "d"), full.stream().map(Mod::getId).toList());
+            Assertions.assertEquals(Instant.parse("2026-03-04T00:00:00Z"), state().getWatermark());
+            // The second run resumed the cut-off crawl at page 2 instead of starting over
+            Assertions.assertEquals(1, firstPageRequests.get());
+            Assertions.assertEquals(0, state().getCrawlOffset());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testProgressHoldsThePagesCrawledBeforeAHungOne() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.startsWith("/versions")) {
+                    return new MockResponse().setResponseCode(200).setBody("[" + version("a") + "," + version("b") + "]");
+                }
+                if (!path.contains("offset=")) {
+                    return new MockResponse().setResponseCode(200).setBody("{\"total_hits\":4,\"hits\":[" +
+                        hit("a", "2026-03-04T00:00:00Z") + "," + hit("b", "2026-03-03T00:00:00Z") + "]}");
+                }
+                return new MockResponse().setResponseCode(200).setBody("{\"total_hits\":4,\"hits\":[]}")
+                    .setHeadersDelay(30, TimeUnit.SECONDS);
+            }
+        });
+        server.start();
+        try {
+            ModrinthClient client = new ModrinthClient(objectMapper, server.url("/").toString());
+            ModrinthCatalogSync sync = new ModrinthCatalogSync(client, objectMapper,
+                new HaitaleDataDirectory(dataDir.toString()), 2, 1, 0);
+
+            Thread worker = Thread.ofVirtual().start(() -> {
+                try {
+                    sync.sync();
+                } catch (InterruptedException e) {
+                    // the deadline
+                }
+            });
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (sync.progress().size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // Available while the sync still waits on page 2, before any checkpoint
+            Assertions.assertEquals(List.of("a", "b"), sync.progress().stream().map(Mod::getId).toList());
+            worker.interrupt();
+            Assertions.assertTrue(worker.join(Duration.ofSeconds(2)));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testInterruptStopsSyncWaitingOnHungSource() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{\"total_hits\":0,\"hits\":[]}")
+            .setHeadersDelay(30, TimeUnit.SECONDS));
+        server.start();
+        try {
+            ModrinthClient client = new ModrinthClient(objectMapper, server.url("/").toString());
+            ModrinthCatalogSync sync = new ModrinthCatalogSync(client, objectMapper,
+                new HaitaleDataDirectory(dataDir.toString()), 2, 1, 0);
+
+            AtomicReference<Throwable> outcome = new AtomicReference<>();
+            Thread worker = Thread.ofVirtual().start(() -> {
+                try {
+                    sync.sync();
+                } catch (Throwable t) {
+                    outcome.set(t);
+                }
+            });
+            Assertions.assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+
+            // What a refresh does when the source misses its deadline
+            worker.interrupt();
+            Assertions.assertTrue(worker.join(Duration.ofSeconds(2)));
+            Assertions.assertTrue(outcome.get() instanceof InterruptedException, String.valueOf(outcome.get()));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private SyncState state() throws Exception {
+        try (InputStream in = Files.newInputStream(dataDir.resolve("modrinth-sync.json"))) {
+            return objectMapper.readValue(in, SyncState.class);
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package ai.haitale.service;
 
 import ai.haitale.model.Mod;
+import ai.haitale.service.modrinth.ModrinthSearchFilter;
+import ai.haitale.service.modrinth.ModrinthVersionCache;
 import ai.haitale.service.modrinth.dto.ModrinthProject;
 import ai.haitale.service.modrinth.dto.ModrinthProject.ModrinthAuthor;
+import ai.haitale.service.http.HttpResponseCache;
+import ai.haitale.service.http.HttpTransport;
+import ai.haitale.service.modrinth.dto.ModrinthVersion;
 import io.micronaut.serde.ObjectMapper;
 import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
 import jakarta.inject.Inject;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -15,8 +22,13 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @MicronautTest
 public class ModrinthClientTest {
@@ -77,4 +89,175 @@ public class ModrinthClientTest {
         Assertions.assertEquals("https://cdn.example.com/file2.jar", mod.getDownloadUrl());
         Assertions.assertEquals("abcd1234", mod.getChecksum());
     }
+
+    @Test
+    public void testSearchResolvesVersionsWithSingleBulkRequest() throws Exception {
+        String searchResponse = "{\"hits\":[" +
+            "{\"project_id\":\"p1\",\"id\":\"p1\",\"slug\":\"first\",\"title\":\"First\",\"description\":\"one\",\"latest_version\":\"va\"}," +
+            "{\"project_id\":\"p2\",\"id\":\"p2\",\"slug\":\"second\",\"title\":\"Second\",\"description\":\"two\",\"latest_version\":\"vb\"}" +
+            "]}";
+        String versionsResponse = "[" +
+            "{\"id\":\"va\",\"version_number\":\"1.0\",\"files\":[{\"url\":\"https://cdn.example.com/a.jar\",\"size\":1,\"hashes\":{\"sha512\":\"aa\"},\"filename\":\"a.jar\"}]}," +
+            "{\"id\":\"vb\",\"version_number\":\"2.0\",\"files\":[{\"url\":\"https://cdn.example.com/b.jar\",\"size\":2,\"hashes\":{\"sha256\":\"bb\"},\"filename\":\"b.jar\"}]}" +
+            "]";
+        // Neither hit carries a license, so both are hydrated by one bulk project lookup; p2 is not returned
+        String projectsResponse = "[" +
+            "{\"id\":\"p1\",\"slug\":\"first\",\"license\":{\"id\":\"MIT\",\"name\":\"MIT License\"}," +
+            "\"categories\":[\"magic\",\"adventure\"],\"downloads\":4200}" +
+            "]";
+
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(searchResponse));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(versionsResponse));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(projectsResponse));
+
+        ModrinthClient client = new ModrinthClient(objectMapper, server.url("/").toString());
+        List<Mod> mods = client.search("", 10);
+
+        RecordedRequest searchReq = server.takeRequest(1, TimeUnit.SECONDS);
+        RecordedRequest versionsReq = server.takeRequest(1, TimeUnit.SECONDS);
+        RecordedRequest projectsReq = server.takeRequest(1, TimeUnit.SECONDS);
+        Assertions.assertNotNull(searchReq);
+        Assertions.assertNotNull(versionsReq);
+        Assertions.assertNotNull(projectsReq);
+        Assertions.assertTrue(searchReq.getPath().startsWith("/search"));
+        Assertions.assertTrue(versionsReq.getPath().startsWith("/versions?ids="));
+        Assertions.assertEquals("[\"p1\",\"p2\"]", projectsReq.getRequestUrl().queryParameter("ids"));
+
+        Assertions.assertEquals(2, mods.size());
+        Assertions.assertEquals("p1", mods.get(0).getId());
+        Assertions.assertEquals("SHA-512", mods.get(0).getChecksumAlgorithm());
+        Assertions.assertEquals("https://cdn.example.com/b.jar", mods.get(1).getDownloadUrl());
+        Assertions.assertEquals("bb", mods.get(1).getChecksum());
+
+        Assertions.assertEquals("MIT", mods.get(0).getLicense());
+        Assertions.assertTrue(mods.get(0).isFreeLicense());
+        Assertions.assertEquals(List.of("magic", "adventure"), mods.get(0).getCategories());
+        Assertions.assertEquals(4200L, mods.get(0).getDownloads());
+        Assertions.assertEquals("", mods.get(1).getLicense());
+    }
+
+    @Test
+    public void testAsyncCallsStayWithinTheConcurrencyLimitAndMatchSearch() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        MockWebServer limited = new MockWebServer();
+        limited.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    // Long enough for every request the client lets through to overlap
+                    Thread.sleep(50);
+                    HttpUrl url = request.getRequestUrl();
+                    if (request.getPath().startsWith("/versions")) {
+                        StringBuilder body = new StringBuilder("[");
+                        for (String id : url.queryParameter("ids").replaceAll("[\\[\\]\"]", "").split(",")) {
+                            if (body.length() > 1) body.append(',');
+                            body.append("{\"id\":\"").append(id).append("\",\"version_number\":\"1.0\",\"files\":[{")
+                                .append("\"url\":\"https://cdn.example.com/").append(id).append(".jar\",\"size\":1,")
+                                .append("\"hashes\":{\"sha512\":\"aa\"},\"filename\":\"").append(id).append(".jar\"}]}");
+                        }
+                        return new MockResponse().setResponseCode(200).setBody(body.append(']').toString());
+                    }
+                    String q = url.queryParameter("query");
+                    return new MockResponse().setResponseCode(200).setBody("{\"total_hits\":1,\"hits\":[{\"project_id\":\"p-" +
+                        q + "\",\"slug\":\"" + q + "\",\"title\":\"" + q + "\",\"description\":\"d\",\"license\":\"MIT\"," +
+                        "\"latest_version\":\"v-" + q + "\"}]}");
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+        limited.start();
+        try {
+            ModrinthClient client = new ModrinthClient(objectMapper, HttpResponseCache.disabled(HttpTransport.standalone()),
+                ModrinthVersionCache.inMemory(objectMapper), limited.url("/").toString(), 2);
+
+            List<CompletableFuture<List<Mod>>> searches = new ArrayList<>();
+            for (int i = 0; i < 8; i++) searches.add(client.searchAsync("q" + i, 5));
+            CompletableFuture<Map<String, ModrinthVersion>> versions =
+                client.fetchVersionsAsync(List.of("v-x1", "v-x2", "v-x3"));
+            CompletableFuture.allOf(searches.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+            Assertions.assertTrue(maxInFlight.get() <= 2, "in flight: " + maxInFlight.get());
+            Assertions.assertEquals(Set.of("v-x1", "v-x2", "v-x3"), versions.get(10, TimeUnit.SECONDS).keySet());
+            for (int i = 0; i < 8; i++) {
+                List<Mod> async = searches.get(i).join();
+                List<Mod> sync = client.search("q" + i, 5);
+                Assertions.assertEquals(1, async.size());
+                Assertions.assertEquals(sync.stream().map(Mod::getId).toList(), async.stream().map(Mod::getId).toList());
+                Assertions.assertEquals(sync.get(0).getDownloadUrl(), async.get(0).getDownloadUrl());
+            }
+            Assertions.assertTrue(maxInFlight.get() <= 2, "in flight: " + maxInFlight.get());
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    public void testMissingVersionIsNegativelyCached() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        ModrinthClient client = new ModrinthClient(objectMapper, server.url("/").toString());
+
+        ModrinthProject proj = new ModrinthProject();
+        proj.id = "broken";
+        proj.latest_version = "gone";
+
+        int before = server.getRequestCount();
+        Assertions.assertNull(client.projectToMod(proj, null));
+        Assertions.assertNull(client.projectToMod(proj, null));
+        Assertions.assertEquals(1, server.getRequestCount() - before);
+
+        server.takeRequest(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testUnparseableVersionChunkIsNotNegativelyCached() throws Exception {
+        String versionsResponse = "[" +
+            "{\"id\":\"vz\",\"version_number\":\"1.0\",\"files\":[{\"url\":\"https://cdn.example.com/z.jar\",\"size\":1,\"hashes\":{\"sha512\":\"zz\"},\"filename\":\"z.jar\"}]}" +
+            "]";
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("<html>maintenance</html>"));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(versionsResponse));
+
+        ModrinthClient client = new ModrinthClient(objectMapper, server.url("/").toString());
+
+        // A body that cannot be parsed is treated like a failed request: nothing is remembered as missing
+        Assertions.assertTrue(client.fetchVersions(List.of("vz")).isEmpty());
+        Assertions.assertEquals("https://cdn.example.com/z.jar", client.fetchVersions(List.of("vz")).get("vz").files.get(0).url);
+
+        server.takeRequest(1, TimeUnit.SECONDS);
+        server.takeRequest(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSearchFilterIsSentAsFacets() throws Exception {
+        String searchResponse = "{\"hits\":[" +
+            "{\"id\":\"p3\",\"slug\":\"third\",\"title\":\"Third\",\"description\":\"magic\",\"license\":\"MIT\",\"latest_version\":\"vc\"}" +
+            "],\"total_hits\":1}";
+        String versionsResponse = "[" +
+            "{\"id\":\"vc\",\"version_number\":\"3.0\",\"files\":[{\"url\":\"https://cdn.example.com/c.jar\",\"size\":3,\"hashes\":{\"sha512\":\"cc\"},\"filename\":\"c.jar\"}]}" +
+            "]";
+
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(searchResponse));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(versionsResponse));
+
+        ModrinthClient client = new ModrinthClient(objectMapper, server.url("/").toString());
+        ModrinthSearchFilter filter = ModrinthSearchFilter.NONE
+            .withCategories("magic")
+            .withLicenses(List.of("MIT", "Apache-2.0"))
+            .withGameVersions("1.0");
+        List<Mod> mods = client.search("", 10, filter);
+
+        RecordedRequest searchReq = server.takeRequest(1, TimeUnit.SECONDS);
+        server.takeRequest(1, TimeUnit.SECONDS);
+        Assertions.assertNotNull(searchReq);
+        Assertions.assertEquals(
+            "[[\"categories:magic\"],[\"license:MIT\",\"license:Apache-2.0\"],[\"versions:1.0\"]]",
+            searchReq.getRequestUrl().queryParameter("facets"));
+
+        Assertions.assertEquals(1, mods.size());
+        Assertions.assertEquals("MIT", mods.get(0).getLicense());
+        Assertions.assertTrue(mods.get(0).isFreeLicense());
+    }
 }
@@ -0,0 +1,161 @@
+package ai.haitale.service.catalog;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.recommend.RelevanceScorer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+public class BinaryCatalogFileTest {
+
+    @TempDir
+    Path dir;
+
+    private static Mod mod(String id, String slug, String name, String description) {
+        Mod mod = new Mod(id, name, "1.0", description, "https://cdn.example.com/" + id + ".jar",
+            "abc", "SHA-512", "MIT", "dev", "modrinth", 4096);
+        mod.setSlug(slug);
+        return mod;
+    }
+
+    @Test
+    public void testRoundTripThroughMappedFile() throws Exception {
+        Instant refreshedAt = Instant.parse("2026-01-02T03:04:05Z");
+        Mod withCategories = mod("AANobbMI", "sodium", "Sodium", "Rendering engine ✨ optimizations");
+        withCategories.setCategories(List.of("optimization", "utility"));
+        withCategories.setDownloads(12_345_678_901L);
+        ModCatalog original = ModCatalog.of(List.of(
+            withCategories,
+            mod("P7dR8mSH", "fabric-api", "Fabric API", "Core library for fabric mods"),
+            mod("no-slug", null, "Magic Realms", null)
+        ), refreshedAt, List.of("GitHub a/b (timed out)"));
+
+        ModCatalogStore store = new ModCatalogStore(dir.resolve("catalog.bin"), true);
+        store.save(original);
+        ModCatalog loaded = store.load();
+
+        Assertions.assertNotNull(loaded);
+        Assertions.assertEquals(3, loaded.size());
+        Assertions.assertEquals(refreshedAt, loaded.refreshedAt());
+        Assertions.assertEquals(List.of("GitHub a/b (timed out)"), loaded.partialSources());
+
+        Mod sodium = loaded.byId("AANobbMI");
+        Assertions.assertEquals("Rendering engine ✨ optimizations", sodium.getDescription());
+        Assertions.assertEquals("SHA-512", sodium.getChecksumAlgorithm());
+        Assertions.assertEquals(4096, sodium.getFileSize());
+        Assertions.assertEquals(List.of("optimization", "utility"), sodium.getCategories());
+        Assertions.assertEquals(12_345_678_901L, sodium.getDownloads());
+        Assertions.assertTrue(loaded.byId("P7dR8mSH").getCategories().isEmpty());
+        Assertions.assertEquals("P7dR8mSH", loaded.find("fabric-api").getId());
+        Assertions.assertNull(loaded.byId("missing"));
+        Assertions.assertNull(loaded.byId("no-slug").getDescription());
+        Assertions.assertNull(loaded.byId("no-slug").getSlug());
+
+        Assertions.assertEquals("Fabric API", loaded.searchIndex().search("fabric").get(0).getName());
+        Assertions.assertEquals("Sodium", loaded.searchIndex().search("optim").get(0).getName());
+        // Typo tolerance reads the trigram postings saved with the catalog instead of building them
+        Assertions.assertNotNull(loaded.searchIndex().dictionary().trigrams());
+        Assertions.assertEquals("Sodium", loaded.searchIndex().search("renderng").get(0).getName());
+        Assertions.assertEquals("fabric", loaded.searchIndex().correct("fabrik"));
+        // Scoring reads the lower-cased text and rule bits saved for each slot: "Magic Realms" satisfies the magic rule
+        RelevanceScorer scorer = loaded.relevanceScorer();
+        Assertions.assertEquals(0.3, scorer.score(2, RelevanceScorer.query("wizard")), 1e-9);
+        Assertions.assertEquals(0.2, scorer.score(0, RelevanceScorer.query("RENDERING optimizations")), 1e-9);
+        Assertions.assertEquals(0.3, scorer.score(1, RelevanceScorer.query("fabric")), 1e-9);
+        Assertions.assertEquals(original.mods().get(2).getName(), loaded.mods().get(2).getName());
+    }
+
+    @Test
+    public void testSaveWritesNewGenerationWhileOldOneIsMapped() throws Exception {
+        ModCatalogStore store = new ModCatalogStore(dir.resolve("catalog.bin"), true);
+        store.save(ModCatalog.of(List.of(mod("a", "a", "First", "one")), Instant.parse("2026-01-01T00:00:00Z")));
+        ModCatalog first = store.load();
+
+        // The mapped file is never moved over or truncated; the new catalog goes to the next generation
+        store.save(ModCatalog.of(List.of(mod("b", "b", "Second", "two"), mod("c", "c", "Third", "three")),
+            Instant.parse("2026-01-02T00:00:00Z")));
+        ModCatalog second = store.load();
+
+        Assertions.assertEquals("First", first.byId("a").getName());
+        Assertions.assertEquals(2, second.size());
+        Assertions.assertEquals(Instant.parse("2026-01-02T00:00:00Z"), second.refreshedAt());
+        Assertions.assertEquals("catalog-2.bin", Files.readString(dir.resolve("catalog.current")));
+        Assertions.assertFalse(Files.exists(dir.resolve("catalog-1.bin")));
+        Assertions.assertFalse(Files.exists(dir.resolve("catalog-1.sem")));
+    }
+
+    @Test
+    public void testSemanticIndexIsSavedWithTheCatalogAndMappedOnLoad() throws Exception {
+        ModCatalogStore store = new ModCatalogStore(dir.resolve("catalog.bin"), true);
+        store.save(ModCatalog.of(List.of(mod("arcane", "arcane", "Arcane Arts", "Learn magic and enchanting"),
+            mod("farm", "farm", "Farming Plus", "More crops and animals")), Instant.EPOCH));
+        Assertions.assertTrue(Files.exists(dir.resolve("catalog-1.sem")));
+
+        ModCatalog loaded = store.load();
+        Assertions.assertEquals(2, loaded.semanticIndex().size());
+        Assertions.assertEquals("arcane",
+            loaded.semanticIndex().nearest("a world full of wizardry", 1, 0.1, 1, id -> true).get(0).id());
+
+        // A damaged index is rebuilt from the mods rather than failing the catalog
+        Files.writeString(dir.resolve("catalog-1.sem"), "damaged");
+        Assertions.assertEquals(2, store.load().semanticIndex().size());
+    }
+
+    @Test
+    public void testLegacyCatalogIsReadUntilTheFirstSave() throws Exception {
+        Path legacy = dir.resolve("catalog.bin");
+        BinaryCatalogFile.write(legacy, ModCatalog.of(List.of(mod("old", "old", "Old", "legacy")), Instant.EPOCH));
+        ModCatalogStore store = new ModCatalogStore(legacy, true);
+        Assertions.assertEquals("Old", store.load().byId("old").getName());
+
+        store.save(ModCatalog.of(List.of(mod("new", "new", "New", "current")), Instant.EPOCH));
+        Assertions.assertEquals("New", store.load().byId("new").getName());
+        Assertions.assertFalse(Files.exists(legacy));
+    }
+
+    @Test
+    public void testDamagedCatalogIsRejectedWhenOpened() throws Exception {
+        Path file = dir.resolve("catalog-1.bin");
+        BinaryCatalogFile.write(file, ModCatalog.of(List.of(mod("a", "a", "First", "one")), Instant.EPOCH));
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length / 2] ^= 1;
+        Files.write(file, flipped);
+        Assertions.assertThrows(IOException.class, () -> BinaryCatalogFile.open(file));
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        Assertions.assertThrows(IOException.class, () -> BinaryCatalogFile.open(file));
+    }
+
+    @Test
+    public void testDamagedGenerationFallsBackToAnOlderOne() throws Exception {
+        ModCatalogStore store = new ModCatalogStore(dir.resolve("catalog.bin"), true);
+        store.save(ModCatalog.of(List.of(mod("a", "a", "First", "one")), Instant.EPOCH));
+        byte[] first = Files.readAllBytes(dir.resolve("catalog-1.bin"));
+        store.save(ModCatalog.of(List.of(mod("b", "b", "Second", "two")), Instant.EPOCH));
+
+        // An older generation a save could not delete (still mapped elsewhere), and a damaged current one
+        Files.write(dir.resolve("catalog-1.bin"), first);
+        Files.writeString(dir.resolve("catalog-2.bin"), "damaged");
+        Assertions.assertEquals("First", store.load().byId("a").getName());
+
+        Files.delete(dir.resolve("catalog-1.bin"));
+        Assertions.assertNull(store.load());
+    }
+
+    @Test
+    public void testUnreadableFileIsIgnored() throws Exception {
+        Path file = dir.resolve("catalog.bin");
+        Files.writeString(file, "{\"mods\":[]}");
+        Assertions.assertNull(new ModCatalogStore(file, true).load());
+        Assertions.assertNull(new ModCatalogStore(dir.resolve("absent.bin"), true).load());
+    }
+}
@@ -0,0 +1,69 @@
+package ai.haitale.service.catalog;
+
+import ai.haitale.model.Mod;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class CompactModStoreTest {
+
+    private static Mod mod(String id, String slug, String description, String checksum, long fileSize) {
+        Mod mod = new Mod(id, "Name of " + id, "1.0", description, "https://cdn.modrinth.com/data/" + id + "/a.jar",
+            checksum, "SHA-512", "MIT", "dev", "modrinth", fileSize);
+        mod.setSlug(slug);
+        return mod;
+    }
+
+    private static void assertSameMod(Mod expected, Mod actual) {
+        Assertions.assertEquals(expected.getId(), actual.getId());
+        Assertions.assertEquals(expected.getName(), actual.getName());
+        Assertions.assertEquals(expected.getVersion(), actual.getVersion());
+        Assertions.assertEquals(expected.getDescription(), actual.getDescription());
+        Assertions.assertEquals(expected.getDownloadUrl(), actual.getDownloadUrl());
+        Assertions.assertEquals(expected.getChecksum(), actual.getChecksum());
+        Assertions.assertEquals(expected.getChecksumAlgorithm(), actual.getChecksumAlgorithm());
+        Assertions.assertEquals(expected.getLicense(), actual.getLicense());
+        Assertions.assertEquals(expected.getAuthor(), actual.getAuthor());
+        Assertions.assertEquals(expected.getSource(), actual.getSource());
+        Assertions.assertEquals(expected.getSlug(), actual.getSlug());
+        Assertions.assertEquals(expected.getFileSize(), actual.getFileSize());
+        Assertions.assertEquals(expected.getCategories(), actual.getCategories());
+        Assertions.assertEquals(expected.getDownloads(), actual.getDownloads());
+    }
+
+    @Test
+    public void testEveryFieldRoundTrips() {
+        List<Mod> mods = List.of(
+            mod("a", "alpha", "Dragons,  castles & knights. Ünïcödé 🐉 too!", "0a1b2c3d", 2048),
+            mod("b", null, null, "ABCDEF", -1),
+            mod("c", "gamma", "", "not-hex", 0),
+            new Mod("d", null, null, null, null, null, null, null, null, null, 5)
+        );
+        mods.get(0).setCategories(List.of("adventure", "magic"));
+        mods.get(0).setDownloads(1_000_000);
+        mods.get(2).setDownloads(-1);
+        CompactModStore store = CompactModStore.of(mods);
+
+        Assertions.assertEquals(4, store.size());
+        for (int i = 0; i < mods.size(); i++) {
+            assertSameMod(mods.get(i), store.mod(i));
+        }
+        Assertions.assertEquals(4, store.mods().size());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> store.mods().clear());
+    }
+
+    @Test
+    public void testLookups() {
+        CompactModStore store = CompactModStore.of(List.of(
+            mod("AANobbMI", "sodium", "Fast", "00", 1),
+            mod("P7dR8mSH", "fabric-api", "Hooks", "11", 1),
+            mod("dup", "sodium", "Same slug", "22", 1)
+        ));
+
+        Assertions.assertEquals("fabric-api", store.findById("P7dR8mSH").getSlug());
+        Assertions.assertEquals("AANobbMI", store.findBySlug("sodium").getId());
+        Assertions.assertNull(store.findById("missing"));
+        Assertions.assertNull(store.findBySlug(null));
+    }
+}
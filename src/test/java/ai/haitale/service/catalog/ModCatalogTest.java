@@ -0,0 +1,33 @@
+package ai.haitale.service.catalog;
+
+import ai.haitale.model.Mod;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ModCatalogTest {
+
+    private static Mod mod(String id, String slug, String name) {
+        Mod mod = new Mod(id, name, "1.0", name + " description", "", "", "SHA-256", "MIT", "dev", "modrinth", 1);
+        mod.setSlug(slug);
+        return mod;
+    }
+
+    @Test
+    public void testLookupsByIdAndSlug() {
+        ModCatalog catalog = ModCatalog.of(List.of(
+            mod("AANobbMI", "sodium", "Sodium"),
+            mod("P7dR8mSH", "fabric-api", "Fabric API"),
+            mod("AANobbMI", "sodium-copy", "Duplicate")
+        ));
+
+        Assertions.assertEquals(2, catalog.size());
+        Assertions.assertEquals("Sodium", catalog.byId("AANobbMI").getName());
+        Assertions.assertEquals("P7dR8mSH", catalog.find("fabric-api").getId());
+        Assertions.assertNull(catalog.find("sodium-copy"));
+        Assertions.assertNull(catalog.find(null));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> catalog.mods().clear());
+        Assertions.assertEquals(1, catalog.searchIndex().search("fabric").size());
+    }
+}
@@ -0,0 +1,111 @@
+package ai.haitale.service.http;
+
+import ai.haitale.service.http.HttpResponseCache.CachedResponse;
+import ai.haitale.service.http.HttpResponseCache.StreamedResponse;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+public class HttpResponseCacheTest {
+    @TempDir
+    Path cacheDir;
+
+    private MockWebServer server;
+    private HttpResponseCache cache;
+
+    @BeforeEach
+    public void start() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        cache = new HttpResponseCache(HttpTransport.standalone(), cacheDir);
+    }
+
+    @AfterEach
+    public void stop() throws IOException {
+        server.shutdown();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(server.url(path).toString())).GET().build();
+    }
+
+    @Test
+    public void testNotModifiedIsServedFromDisk() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v1\"").setBody("{\"hits\":[]}"));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+
+        CachedResponse first = cache.send(get("/search"));
+        CachedResponse second = cache.send(get("/search"));
+
+        Assertions.assertFalse(first.fromCache());
+        Assertions.assertNull(server.takeRequest(1, TimeUnit.SECONDS).getHeader("If-None-Match"));
+        Assertions.assertEquals("\"v1\"", server.takeRequest(1, TimeUnit.SECONDS).getHeader("If-None-Match"));
+        Assertions.assertEquals(200, second.statusCode());
+        Assertions.assertTrue(second.fromCache());
+        Assertions.assertEquals("{\"hits\":[]}", second.bodyAsString());
+    }
+
+    @Test
+    public void testOwnIfNoneMatchPassesThrough() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v1\"").setBody("cached"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        cache.send(get("/release"));
+
+        HttpRequest own = HttpRequest.newBuilder(URI.create(server.url("/release").toString()))
+            .header("If-None-Match", "\"mine\"").GET().build();
+        CachedResponse resp = cache.send(own);
+
+        server.takeRequest(1, TimeUnit.SECONDS);
+        RecordedRequest sent = server.takeRequest(1, TimeUnit.SECONDS);
+        Assertions.assertEquals("\"mine\"", sent.getHeader("If-None-Match"));
+        Assertions.assertEquals(304, resp.statusCode());
+        Assertions.assertFalse(resp.fromCache());
+    }
+
+    @Test
+    public void testStreamedBodyIsCachedOnceReadToTheEnd() throws Exception {
+        String body = "x".repeat(100_000);
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v2\"").setBody(body));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        try (StreamedResponse first = cache.sendStreaming(get("/page"))) {
+            Assertions.assertEquals(body, new String(first.body().readAllBytes(), StandardCharsets.UTF_8));
+        }
+        try (StreamedResponse second = cache.sendStreaming(get("/page"))) {
+            Assertions.assertTrue(second.fromCache());
+            Assertions.assertEquals(body, new String(second.body().readAllBytes(), StandardCharsets.UTF_8));
+        }
+        server.takeRequest(1, TimeUnit.SECONDS);
+        Assertions.assertEquals("\"v2\"", server.takeRequest(1, TimeUnit.SECONDS).getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testPartlyReadStreamIsNotCached() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v3\"").setBody("y".repeat(500_000)));
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v3\"").setBody("whole"));
+
+        try (StreamedResponse first = cache.sendStreaming(get("/big"))) {
+            InputStream in = first.body();
+            Assertions.assertEquals('y', in.read());
+        }
+        try (StreamedResponse second = cache.sendStreaming(get("/big"))) {
+            Assertions.assertFalse(second.fromCache());
+            Assertions.assertEquals("whole", new String(second.body().readAllBytes(), StandardCharsets.UTF_8));
+        }
+        server.takeRequest(1, TimeUnit.SECONDS);
+        Assertions.assertNull(server.takeRequest(1, TimeUnit.SECONDS).getHeader("If-None-Match"));
+    }
+}
@@ -0,0 +1,56 @@
+package ai.haitale.service.http;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+
+public class RateLimiterTest {
+
+    private static HttpHeaders headers(long remaining, long reset) {
+        return HttpHeaders.of(Map.of(
+            "X-RateLimit-Remaining", List.of(String.valueOf(remaining)),
+            "X-RateLimit-Reset", List.of(String.valueOf(reset))
+        ), (name, value) -> true);
+    }
+
+    @Test
+    public void testEpochSecondsReset() {
+        RateLimiter limiter = new RateLimiter(true, 120, 300, 60);
+        long resetSeconds = System.currentTimeMillis() / 1000 + 30;
+        HttpHeaders github = headers(0, resetSeconds);
+
+        limiter.update("api.github.com", github);
+
+        long delay = limiter.retryDelayMillis("api.github.com", github);
+        Assertions.assertTrue(delay > 28_000 && delay <= 31_000, "delay " + delay);
+        Assertions.assertEquals(0, limiter.remaining("api.github.com"));
+    }
+
+    @Test
+    public void testEpochMillisecondsReset() throws Exception {
+        RateLimiter limiter = new RateLimiter(true, 5, 300, 60);
+        HttpHeaders exhausted = headers(0, System.currentTimeMillis() + 300);
+
+        limiter.update("api.modrinth.com", exhausted);
+
+        long delay = limiter.retryDelayMillis("api.modrinth.com", exhausted);
+        Assertions.assertTrue(delay >= 250 && delay <= 300, "delay " + delay);
+        // Waits for the reset instead of failing fast on a reset read as thousands of years away
+        long start = System.nanoTime();
+        limiter.acquire("api.modrinth.com");
+        Assertions.assertTrue((System.nanoTime() - start) / 1_000_000 < 5_000);
+    }
+
+    @Test
+    public void testUnconfiguredHostIsNotTracked() throws Exception {
+        RateLimiter limiter = new RateLimiter(true, 5, 300, 60);
+
+        limiter.update("openrouter.ai", headers(0, System.currentTimeMillis() + 3_600_000));
+
+        Assertions.assertEquals(-1, limiter.remaining("openrouter.ai"));
+        limiter.acquire("openrouter.ai");
+    }
+}
@@ -0,0 +1,42 @@
+package ai.haitale.service.http;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallersShareOneCall() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(flight.execute("search|magic", () -> {
+                calls.incrementAndGet();
+                return pending;
+            }));
+        }
+        Assertions.assertEquals(1, flight.inFlightCount());
+
+        pending.complete("result");
+        for (CompletableFuture<String> r : results) {
+            Assertions.assertEquals("result", r.join());
+        }
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(0, flight.inFlightCount());
+
+        // Once completed the key is released and the next call goes through again
+        flight.execute("search|magic", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("again");
+        }).join();
+        Assertions.assertEquals(2, calls.get());
+    }
+}
@@ -0,0 +1,82 @@
+package ai.haitale.service.index;
+
+import ai.haitale.model.Mod;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ModSearchIndexTest {
+
+    private static Mod mod(String id, String name, String description) {
+        return new Mod(id, name, "1.0", description, "", "", "SHA-256", "MIT", "dev", "modrinth", 1);
+    }
+
+    private final ModSearchIndex index = ModSearchIndex.build(List.of(
+        mod("a", "Magic Realms", "Spells, enchantments and mystical creatures"),
+        mod("b", "Tech Revolution", "Machinery and automation, with a little magic"),
+        mod("c", "Enhanced Building Tools", "Advanced building tools and blueprints"),
+        mod("d", "Dragon Castles", "Medieval castles guarded by dragons")
+    ));
+
+    @Test
+    public void testNameMatchesRankAboveDescriptionMatches() {
+        List<Mod> result = index.search("magic");
+        Assertions.assertEquals(List.of("a", "b"), result.stream().map(Mod::getId).toList());
+    }
+
+    @Test
+    public void testAllTermsMustMatch() {
+        Assertions.assertEquals(List.of("d"), index.search("medieval DRAGON").stream().map(Mod::getId).toList());
+        Assertions.assertTrue(index.search("medieval magic").isEmpty());
+    }
+
+    @Test
+    public void testPrefixesExpand() {
+        Assertions.assertEquals(List.of("c"), index.search("build").stream().map(Mod::getId).toList());
+        Assertions.assertEquals(List.of("b"), index.search("automat").stream().map(Mod::getId).toList());
+        // Short terms only match whole tokens
+        Assertions.assertTrue(index.search("dr").isEmpty());
+    }
+
+    @Test
+    public void testBlankQueryReturnsEverything() {
+        Assertions.assertEquals(4, index.search("  ").size());
+        Assertions.assertEquals(2, index.search("", 2).size());
+        Assertions.assertTrue(ModSearchIndex.empty().search("magic").isEmpty());
+    }
+
+    @Test
+    public void testMisspellingsMatchAfterExactHits() {
+        Assertions.assertEquals(List.of("a", "b"), index.search("magik").stream().map(Mod::getId).toList());
+        Assertions.assertEquals(List.of("d"), index.search("medival dragons").stream().map(Mod::getId).toList());
+
+        ModSearchIndex withTypoNeighbour = ModSearchIndex.build(List.of(
+            mod("x", "Manic Miners", "Dig fast"),
+            mod("y", "Mana Magic", "Spells for everyone")
+        ));
+        // "manic" is an exact hit and stays first; "magic" is one edit away
+        Assertions.assertEquals(List.of("x", "y"), withTypoNeighbour.search("manic").stream().map(Mod::getId).toList());
+    }
+
+    @Test
+    public void testSlugWordsAreSearchable() {
+        Mod mod = mod("s", "EBT", "Tools");
+        mod.setSlug("enhanced-building-tools");
+        Assertions.assertEquals(List.of("s"), ModSearchIndex.build(List.of(mod)).search("enhanced").stream().map(Mod::getId).toList());
+    }
+
+    @Test
+    public void testCorrectReplacesUnknownWords() {
+        Assertions.assertEquals("A medieval world with Magic", index.correct("A medival world with Magic"));
+        Assertions.assertEquals("qwertyuiop", index.correct("qwertyuiop"));
+    }
+
+    @Test
+    public void testCorrectOnlyAppliesCloseSpellings() {
+        // Two edits in seven characters, and a changed first letter, are too far to rewrite
+        Assertions.assertEquals("draagun", index.correct("draagun"));
+        Assertions.assertEquals("fools", index.correct("fools"));
+        Assertions.assertEquals("dragon", index.correct("dragun"));
+    }
+}
@@ -0,0 +1,30 @@
+package ai.haitale.service.modrinth;
+
+import ai.haitale.service.modrinth.dto.ModrinthProject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class ModrinthSearchDecoderTest {
+
+    @Test
+    public void testDecodesHitsAndSkipsOtherFields() throws Exception {
+        String json = "{\"total_hits\":3,\"meta\":{\"nested\":[1,2,{\"a\":true}]}," +
+            "\"hits\":[" +
+            "{\"id\":\"p1\",\"slug\":\"one\",\"title\":\"One\",\"latest_version\":\"v1\",\"categories\":[\"magic\"],\"downloads\":10}," +
+            "{\"id\":\"p2\",\"slug\":\"two\",\"authors\":[{\"username\":\"dev\"}]}," +
+            "{\"id\":\"p3\"}" +
+            "],\"offset\":0}";
+
+        List<ModrinthProject> projects = ModrinthSearchDecoder.decodeHits(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 2);
+
+        Assertions.assertEquals(2, projects.size());
+        Assertions.assertEquals("p1", projects.get(0).id);
+        Assertions.assertEquals("v1", projects.get(0).latest_version);
+        Assertions.assertEquals("dev", projects.get(1).authors.get(0).username);
+    }
+}
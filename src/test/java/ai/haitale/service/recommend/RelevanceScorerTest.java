@@ -0,0 +1,92 @@
+package ai.haitale.service.recommend;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.catalog.ModCatalog;
+import ai.haitale.service.recommend.RelevanceScorer.Query;
+import ai.haitale.service.recommend.RelevanceScorer.Scored;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RelevanceScorerTest {
+
+    private static Mod mod(String id, String name, String description) {
+        return new Mod(id, name, "1.0", description, "", "", "SHA-1", "MIT", "dev", "modrinth", 1);
+    }
+
+    @Test
+    public void testScoreAddsKeywordAndRuleMatches() {
+        Mod castles = mod("a", "Castle Builder", "Build medieval CASTLES");
+        RelevanceScorer scorer = ModCatalog.of(List.of(castles)).relevanceScorer();
+        Query query = RelevanceScorer.query("A medieval  world with castles");
+
+        // "medieval" and "castles" in the description: 0.1 each; medieval theme: 0.2
+        Assertions.assertEquals(0.4, scorer.score(castles, query), 1e-9);
+        Assertions.assertEquals(0.0, scorer.score(mod("b", "Farming", "Crops"), query), 1e-9);
+    }
+
+    @Test
+    public void testScoreIsCappedAndCategoryNeedsBothSides() {
+        Mod magic = mod("a", "Magic Spells", "magic spells wizard enchant");
+        Query query = RelevanceScorer.query("magic spells wizard enchant");
+
+        Assertions.assertEquals(1.0, RelevanceScorer.empty().score(magic, query), 1e-9);
+        // The description triggers the tech rule, but the mod has no tech term
+        Assertions.assertEquals(0.0, RelevanceScorer.empty().score(mod("b", "Farming", "Crops"), RelevanceScorer.query("tech")), 1e-9);
+    }
+
+    @Test
+    public void testModsOutsideTheCatalogAreNormalizedOnTheFly() {
+        RelevanceScorer scorer = ModCatalog.of(List.of(mod("a", "Dragons", "Fantasy dragons"))).relevanceScorer();
+        Query query = RelevanceScorer.query("dragons");
+
+        Assertions.assertEquals(0.5, scorer.score(mod("live", "Dragons", "Fantasy dragons"), query), 1e-9);
+        Assertions.assertEquals(0.0, scorer.score(mod("nulls", null, null), query), 1e-9);
+    }
+
+    @Test
+    public void testCatalogModsAreScoredFromTheirStoredColumns() {
+        ModCatalog catalog = ModCatalog.of(List.of(mod("a", "Dragons", "Fantasy dragons"), mod("b", "Farming", "Crops")));
+        RelevanceScorer scorer = catalog.relevanceScorer();
+        Query query = RelevanceScorer.query("dragons");
+
+        Assertions.assertEquals(0.5, scorer.score(0, query), 1e-9);
+        Assertions.assertEquals(0.0, scorer.score(1, query), 1e-9);
+        // A mod with a catalog id but other text is not a catalog slot: it is scored from its own text
+        Assertions.assertEquals(0.0, scorer.score(mod("a", "Renamed", "Other words"), query), 1e-9);
+
+        // A selection scores its catalog mods by slot and the others on the fly, with the same results
+        List<Mod> selected = catalog.select(m -> !m.getId().equals("b"), List.of(mod("live", "More Dragons", "Eggs")));
+        List<Scored> above = scorer.above(selected, query, 0.0);
+        Assertions.assertEquals(List.of("a", "live"), above.stream().map(s -> s.mod().getId()).toList());
+        Assertions.assertEquals(0.5, above.get(0).score(), 1e-9);
+        Assertions.assertEquals(0.2, above.get(1).score(), 1e-9);
+        Assertions.assertEquals(above.stream().map(Scored::score).toList(),
+            scorer.above(new ArrayList<>(selected), query, 0.0).stream().map(Scored::score).toList());
+    }
+
+    @Test
+    public void testTopKeepsBestAboveThresholdInListOrderForTies() {
+        List<Mod> mods = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // Every third mod mentions dragons in its name, the others only in the description
+            mods.add(mod("m" + i, i % 3 == 0 ? "Dragons " + i : "Mod " + i, "dragons"));
+        }
+        mods.add(mod("none", "Farming", "Crops"));
+        RelevanceScorer scorer = ModCatalog.of(mods).relevanceScorer();
+        Query query = RelevanceScorer.query("dragons");
+
+        List<Scored> top = scorer.top(mods, query, 0.05, 5);
+
+        Assertions.assertEquals(List.of("m0", "m3", "m6", "m9", "m1"), top.stream().map(s -> s.mod().getId()).toList());
+        // Keyword matches plus the fantasy theme, which "dragon" in the description satisfies
+        Assertions.assertEquals(0.5, top.get(0).score(), 1e-9);
+        Assertions.assertEquals(0.3, top.get(4).score(), 1e-9);
+        Assertions.assertEquals(10, scorer.above(mods, query, 0.05).size());
+        Assertions.assertEquals(List.of("m0", "m3", "m6", "m9"),
+            scorer.above(mods, query, 0.4).stream().map(s -> s.mod().getId()).toList());
+        Assertions.assertTrue(scorer.top(mods, query, 0.05, 0).isEmpty());
+    }
+}
@@ -0,0 +1,119 @@
+package ai.haitale.service.recommend;
+
+import ai.haitale.model.Mod;
+import ai.haitale.service.recommend.SemanticIndex.Neighbour;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class SemanticIndexTest {
+    @TempDir
+    Path dir;
+
+    private static Mod mod(String id, String name, String description) {
+        return new Mod(id, name, "1.0", description, "", "", "SHA-1", "MIT", "dev", "modrinth", 1);
+    }
+
+    private static List<String> ids(List<Neighbour> neighbours) {
+        return neighbours.stream().map(Neighbour::id).toList();
+    }
+
+    @Test
+    public void testFindsModsSharingNoKeyword() {
+        SemanticIndex index = SemanticIndex.build(List.of(
+            mod("arcane", "Arcane Arts", "Learn magic and enchanting"),
+            mod("farm", "Farming Plus", "More crops and animals"),
+            mod("pipes", "Pipe Works", "Item pipes and pumps")
+        ));
+
+        // "wizardry" is nowhere in the catalog; it meets "magic" on the shared concept
+        List<Neighbour> nearest = index.nearest("a world full of wizardry", 1, 0.1, 1, id -> true);
+
+        Assertions.assertEquals(List.of("arcane"), ids(nearest));
+    }
+
+    @Test
+    public void testToleratesTyposAndHonoursFilterAndThreshold() {
+        SemanticIndex index = SemanticIndex.build(List.of(
+            mod("ships", "Sailing Ships", "Build galleons and sail the oceans"),
+            mod("boats", "Better Boats", "Faster boats for the oceans"),
+            mod("ores", "More Ores", "New ores underground")
+        ));
+
+        Assertions.assertEquals("ships", index.nearest("saling shipz", 3, 0.1, 1, id -> true).get(0).id());
+        Assertions.assertEquals(List.of("boats"), ids(index.nearest("sailing ships on oceans", 1, 0.0, 1, id -> !id.equals("ships"))));
+        Assertions.assertTrue(index.nearest("zzzz qqqq", 3, 0.1, 1, id -> true).isEmpty());
+        Assertions.assertTrue(SemanticIndex.empty().nearest("ships", 3, 0.0, 1, id -> true).isEmpty());
+    }
+
+    @Test
+    public void testClusteredIndexMatchesExactScanOnTopicalCatalog() {
+        String[][] topics = {
+            {"dragon", "wyvern", "flight", "scales", "hoard"},
+            {"reactor", "turbine", "power", "cable", "generator"},
+            {"wheat", "harvest", "tractor", "barn", "orchard"},
+            {"galleon", "anchor", "harbor", "sail", "cannon"}
+        };
+        Random random = new Random(1);
+        List<Mod> mods = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            String[] topic = topics[i % topics.length];
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < 12; w++) text.append(topic[random.nextInt(topic.length)]).append(' ');
+            mods.add(mod("m" + i, topic[random.nextInt(topic.length)] + " " + i, text.toString()));
+        }
+        SemanticIndex index = SemanticIndex.build(mods);
+        Assertions.assertTrue(index.lists() > 1);
+        Assertions.assertEquals(6000, index.size());
+
+        List<Neighbour> probed = index.nearest("power generator turbine", 20, 0.0, 16, id -> true);
+        List<Neighbour> exact = index.nearest("power generator turbine", 20, 0.0, index.lists(), id -> true);
+
+        Assertions.assertEquals(20, probed.size());
+        Assertions.assertEquals(exact.get(0).similarity(), probed.get(0).similarity(), 1e-9);
+        for (Neighbour neighbour : probed) {
+            int i = Integer.parseInt(neighbour.id().substring(1));
+            Assertions.assertEquals(1, i % topics.length);
+        }
+    }
+
+    @Test
+    public void testWrittenIndexIsMappedWithTheSameResults() throws Exception {
+        List<Mod> mods = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String topic = i % 2 == 0 ? "dragon wyvern hoard" : "reactor turbine cable";
+            mods.add(mod("m" + i, "Mod " + i, topic + " number " + i));
+        }
+        SemanticIndex built = SemanticIndex.build(mods);
+        Path file = dir.resolve("catalog-1.sem");
+        built.write(file);
+
+        SemanticIndex mapped = SemanticIndex.open(file);
+        Assertions.assertEquals(built.size(), mapped.size());
+        Assertions.assertEquals(built.lists(), mapped.lists());
+        List<Neighbour> expected = built.nearest("turbine reactor", 10, 0.0, 2, id -> !id.equals("m1"));
+        List<Neighbour> actual = mapped.nearest("turbine reactor", 10, 0.0, 2, id -> !id.equals("m1"));
+        Assertions.assertEquals(ids(expected), ids(actual));
+        Assertions.assertEquals(expected.get(0).similarity(), actual.get(0).similarity(), 1e-9);
+    }
+
+    @Test
+    public void testForeignOrTruncatedFileIsRejected() throws Exception {
+        Path file = dir.resolve("catalog-1.sem");
+        SemanticIndex.build(List.of(mod("a", "Arcane Arts", "magic"))).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        Assertions.assertThrows(IOException.class, () -> SemanticIndex.open(file));
+
+        Files.writeString(file, "not an index at all, just text");
+        Assertions.assertThrows(IOException.class, () -> SemanticIndex.open(file));
+    }
+}